@@ -70,11 +70,51 @@ public class DatabaseAccess {
             return daoClass.cast(DAO_CACHE.get(daoClass));
         }
 
+        handler.prepare(daoClass);
         var dao =  daoClass.cast(Proxy.newProxyInstance(daoClass.getClassLoader(), new Class[]{ daoClass }, handler));
         DAO_CACHE.put(daoClass, dao);
         return dao;
     }
 
+    /**
+     * Executes all queries made by the action on the current thread in a single transaction.
+     * When already in a transaction, the action joins it.
+     *
+     * @param action the action to be executed
+     * @return true if the transaction was committed, false if it was rolled back
+     */
+    public static boolean executeInTransaction(Runnable action) {
+        try {
+            return DatabaseFactory.getInstance().executeInTransaction(action);
+        } catch (SQLException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+        return false;
+    }
+
+    /**
+     * Registers actions to be executed when the transaction of the current thread ends.
+     * When there is no transaction, the commit action is executed immediately.
+     *
+     * @param onCommit the action executed after the commit
+     * @param onRollback the action executed after the rollback
+     */
+    public static void onTransactionEnd(Runnable onCommit, Runnable onRollback) {
+        try {
+            DatabaseFactory.getInstance().onTransactionEnd(onCommit, onRollback);
+        } catch (SQLException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registers an action to be executed when the transaction of the current thread is rolled back.
+     *
+     * @param onRollback the action executed after the rollback
+     */
+    public static void onTransactionRollback(Runnable onRollback) {
+        onTransactionEnd(() -> { }, onRollback);
+    }
 
     public static void shutdown() {
         try {
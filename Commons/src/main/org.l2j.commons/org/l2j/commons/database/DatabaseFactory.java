@@ -23,10 +23,15 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
  * @author JoeAlisson
@@ -35,6 +40,8 @@ class DatabaseFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseFactory.class);
 
     private static DatabaseFactory instance;
+    private static final ThreadLocal<Connection> transactionLocal = new ThreadLocal<>();
+    private static final ThreadLocal<TransactionActions> transactionActions = new ThreadLocal<>();
     private final HikariDataSource dataSource;
 
     DatabaseFactory() throws SQLException {
@@ -59,6 +66,11 @@ class DatabaseFactory {
     }
 
     Connection getConnection() {
+        var transaction = transactionLocal.get();
+        if(nonNull(transaction)) {
+            return transaction;
+        }
+
         try {
             return dataSource.getConnection();
         } catch (SQLException e) {
@@ -66,4 +78,81 @@ class DatabaseFactory {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    boolean executeInTransaction(Runnable action) {
+        if(nonNull(transactionLocal.get())) {
+            action.run();
+            return true;
+        }
+
+        final var actions = new TransactionActions();
+        boolean committed = false;
+        try(var con = dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            transactionLocal.set(transactionConnection(con));
+            transactionActions.set(actions);
+            try {
+                action.run();
+                con.commit();
+                committed = true;
+            } catch (Exception e) {
+                con.rollback();
+                LOGGER.error("Transaction rolled back", e);
+            } finally {
+                transactionLocal.remove();
+                transactionActions.remove();
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.error(e.getMessage(), e);
+        }
+
+        run(committed ? actions.onCommit : actions.onRollback);
+        return committed;
+    }
+
+    /**
+     * Executes the actions after the transaction of the current thread ends.
+     * When there is no transaction the queries are already committed, so the commit action is executed immediately.
+     */
+    void onTransactionEnd(Runnable onCommit, Runnable onRollback) {
+        final var actions = transactionActions.get();
+        if(isNull(actions)) {
+            onCommit.run();
+        } else {
+            actions.onCommit.add(onCommit);
+            actions.onRollback.add(onRollback);
+        }
+    }
+
+    private static void run(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                LOGGER.error("Error executing transaction end action", e);
+            }
+        }
+    }
+
+    private static final class TransactionActions {
+        private final List<Runnable> onCommit = new ArrayList<>();
+        private final List<Runnable> onRollback = new ArrayList<>();
+    }
+
+    /**
+     * The connection is closed only when the transaction ends, so the queries executed during the transaction can't close it.
+     */
+    private static Connection transactionConnection(Connection con) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] { Connection.class }, (proxy, method, args) -> {
+            if(method.getName().equals("close")) {
+                return null;
+            }
+            try {
+                return method.invoke(con, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
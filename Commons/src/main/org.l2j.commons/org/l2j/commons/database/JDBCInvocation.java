@@ -21,7 +21,6 @@ package org.l2j.commons.database;
 import io.github.joealisson.primitive.HashIntMap;
 import io.github.joealisson.primitive.IntKeyValue;
 import io.github.joealisson.primitive.IntMap;
-import org.l2j.commons.cache.CacheFactory;
 import org.l2j.commons.database.annotation.Column;
 import org.l2j.commons.database.annotation.NonUpdatable;
 import org.l2j.commons.database.annotation.Query;
@@ -30,13 +29,13 @@ import org.l2j.commons.database.helpers.EntityBasedStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.cache.Cache;
 import java.lang.reflect.*;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -57,42 +56,64 @@ class JDBCInvocation implements InvocationHandler {
     private static final String DUPLICATE_UPDATE_PATTERN = "$1=VALUES($1)";
     private static final String ESCAPE_KEYWORD = "`";
 
-    private static final Cache<Method, QueryDescriptor> descriptors = CacheFactory.getInstance().getCache("sql-descriptors");
-    private static final Cache<Class<?>, QueryDescriptor> saveDescriptors = CacheFactory.getInstance().getCache("sql-save-descriptors");
+    private final Map<Method, Invocation> invocations = new ConcurrentHashMap<>();
+    private final Map<Class<?>, QueryDescriptor> saveDescriptors = new ConcurrentHashMap<>();
 
     JDBCInvocation() {
     }
 
+    /**
+     * Prepares the invocation of all methods of the DAO, so the queries are parsed and validated once when the DAO is created.
+     */
+    void prepare(Class<?> daoClass) {
+        for (Method method : daoClass.getMethods()) {
+            if(!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                invocations.computeIfAbsent(method, this::prepareInvocation);
+            }
+        }
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        var invocation = invocations.get(method);
+        if(isNull(invocation)) {
+            invocation = invocations.computeIfAbsent(method, this::prepareInvocation);
+        }
+        return invocation.invoke(args);
+    }
+
+    private Invocation prepareInvocation(Method method) {
         if(method.getName().equalsIgnoreCase("save") && method.getParameterCount() == 1) {
-            return save(method, args);
+            return args -> save(method, args);
         }
 
         var handler = HandlersSupport.handlerFromMethod(method);
 
         if(isNull(handler)) {
-            throw new IllegalStateException("There is no TypeHandler Service for type " + method.getReturnType().getName());
+            LOGGER.error("There is no TypeHandler Service for type {} used in {}#{}", method.getReturnType().getName(), method.getDeclaringClass().getName(), method.getName());
+            return args -> {
+                throw new IllegalStateException("There is no TypeHandler Service for type " + method.getReturnType().getName());
+            };
         }
 
         if(!method.isAnnotationPresent(Query.class)) {
-            return handler.defaultValue();
+            final var defaultValue = handler.defaultValue();
+            return args -> defaultValue;
         }
 
-        return processQuery(method, args, handler);
+        final var query = buildDescriptor(method);
+        return args -> processQuery(query, args, handler);
     }
 
-    private Object processQuery(Method method, Object[] args, TypeHandler<?> handler) throws SQLException {
-        try(var query = buildQuery(method);
-            var con = DatabaseFactory.getInstance().getConnection()) {
-            query.execute(con, args);
-            if(query.hasResultSetConsumer()) {
-               resultSetConsumer(query, args);
+    private Object processQuery(QueryDescriptor query, Object[] args, TypeHandler<?> handler) throws SQLException {
+        try(var con = DatabaseFactory.getInstance().getConnection(); var execution = query.execute(con, args)) {
+            if(execution.hasResultSetConsumer()) {
+               resultSetConsumer(execution, args);
                return null;
-            } else if(query.hasTypeConsumer()) {
-                return handler.handleResultAndThen(query, typeConsumer(args));
+            } else if(execution.hasTypeConsumer()) {
+                return handler.handleResultAndThen(execution, typeConsumer(args));
             } else {
-                return handler.handleResult(query);
+                return handler.handleResult(execution);
             }
         }
     }
@@ -136,14 +157,15 @@ class JDBCInvocation implements InvocationHandler {
             return false;
         }
 
-        try(var query = buildSaveQuery(clazz, method, table);
-            var con = DatabaseFactory.getInstance().getConnection()) {
+        var query = buildSaveQuery(clazz, method, table);
+        try(var con = DatabaseFactory.getInstance().getConnection()) {
             if(isBatch) {
-                query.executeBatch(con, (Collection<?>) args[0]);
+                query.executeBatch(con, (Collection<?>) args[0]).close();
             } else {
-                query.execute(con, args);
-                if (isNotEmpty(table.autoGeneratedProperty())) {
-                    trySetGeneratedKey(args, clazz, table, query);
+                try(var execution = query.execute(con, args)) {
+                    if (isNotEmpty(table.autoGeneratedProperty())) {
+                        trySetGeneratedKey(args, clazz, table, execution);
+                    }
                 }
             }
             return true;
@@ -164,10 +186,14 @@ class JDBCInvocation implements InvocationHandler {
     }
 
     private QueryDescriptor buildSaveQuery(Class<?> clazz, Method method, Table table) {
-        if(saveDescriptors.containsKey(clazz)) {
-            return saveDescriptors.get(clazz);
+        var query = saveDescriptors.get(clazz);
+        if(isNull(query)) {
+            query = saveDescriptors.computeIfAbsent(clazz, c -> buildSaveDescriptor(c, method, table));
         }
+        return query;
+    }
 
+    private QueryDescriptor buildSaveDescriptor(Class<?> clazz, Method method, Table table) {
         var fields = fieldsOf(clazz);
         Map<String, IntKeyValue<Class<?>>> parameterMap = new HashMap<>(fields.size());
 
@@ -178,26 +204,13 @@ class JDBCInvocation implements InvocationHandler {
 
         var values = "?".repeat(parameterMap.size()).chars().mapToObj(Character::toString).collect(Collectors.joining(",", "(", ")"));
         var update = columns.replaceAll(COLUMN_PATTERN, DUPLICATE_UPDATE_PATTERN);
-        var query = new QueryDescriptor(method, String.format(INSERT_TEMPLATE, table.value(), "(" + columns + ")", values, update), new EntityBasedStrategy(parameterMap));
-
-        saveDescriptors.put(clazz, query);
-        return query;
+        return new QueryDescriptor(method, String.format(INSERT_TEMPLATE, table.value(), "(" + columns + ")", values, update), new EntityBasedStrategy(parameterMap));
     }
 
     private String fieldToColumnName(Field field) {
         return ESCAPE_KEYWORD + (field.isAnnotationPresent(Column.class) ? field.getAnnotation(Column.class).value() : field.getName()) + ESCAPE_KEYWORD;
     }
 
-    private QueryDescriptor buildQuery(final Method method)  {
-        if(descriptors.containsKey(method)) {
-            return descriptors.get(method);
-        }
-        var descriptor = buildDescriptor(method);
-        descriptors.put(method, descriptor);
-
-        return descriptor;
-    }
-
     private QueryDescriptor buildDescriptor(Method method) {
         var query = method.getAnnotation(Query.class).value();
         if(method.getParameters().length == 0) {
@@ -217,6 +230,10 @@ class JDBCInvocation implements InvocationHandler {
                 parameters.put(++parameterCount, parameterMapper.get(matcher.group(1)));
             }
         }
+        var batchIndex = method.getAnnotation(Query.class).batchIndex();
+        if(batchIndex >= method.getParameterCount()) {
+            LOGGER.error("The batch index {} is out of the parameters of method {}#{}", batchIndex, method.getDeclaringClass().getName(), method.getName());
+        }
         return new QueryDescriptor(method, matcher.replaceAll("?"), parameters);
     }
 
@@ -229,4 +246,8 @@ class JDBCInvocation implements InvocationHandler {
         return parameterMap;
     }
 
-}
+    @FunctionalInterface
+    private interface Invocation {
+        Object invoke(Object[] args) throws SQLException;
+    }
+}
\ No newline at end of file
@@ -38,20 +38,29 @@ import java.util.regex.Pattern;
 import static java.util.Objects.nonNull;
 
 /**
+ * Describes a query of a DAO method.
+ *
+ * The descriptor is created once by method and shared by all threads. Each execution returns a new descriptor bound to the statement
+ * executed, so the result of a call is never shared with others calls. The bound descriptor must be closed to release the statement.
+ *
  * @author JoeAlisson
  */
 public class QueryDescriptor implements AutoCloseable {
 
     private static final Pattern SELECT_PATTERN = Pattern.compile("^SELECT.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
     private static final NoParameterStrategy NO_PARAMETER_STRATEGY = new NoParameterStrategy();
-    private static final ThreadLocal<Statement> statementLocal = new ThreadLocal<>();
 
     private final String query;
     private final Method method;
     private final MapParameterStrategy strategy;
     private final boolean isUpdate;
-    private boolean hasResultSetConsumer;
-    private boolean hasTypeConsumer;
+    private final int batchIndex;
+    private final boolean scrollResult;
+    private final int fetchSize;
+    private final boolean hasResultSetConsumer;
+    private final boolean hasTypeConsumer;
+    private final Class<?> consumerType;
+    private final Statement statement;
 
     QueryDescriptor(Method method, String query) {
         this(method, query, NO_PARAMETER_STRATEGY);
@@ -67,14 +76,34 @@ public class QueryDescriptor implements AutoCloseable {
         this.strategy = strategy;
         this.isUpdate = !SELECT_PATTERN.matcher(query).matches();
 
+        final var queryAnnotation = method.getAnnotation(Query.class);
+        this.batchIndex = nonNull(queryAnnotation) ? queryAnnotation.batchIndex() : -1;
+        this.scrollResult = nonNull(queryAnnotation) && queryAnnotation.scrollResult();
+        this.fetchSize = nonNull(queryAnnotation) ? queryAnnotation.fetchSize() : 0;
+        this.statement = null;
+
+        Class<?> type = null;
         var size = method.getParameterCount();
         if(size > 0 && method.getParameterTypes()[size -1] == Consumer.class) {
-            if(ResultSet.class.isAssignableFrom((Class<?>)((ParameterizedType) method.getGenericParameterTypes()[size -1]).getActualTypeArguments()[0])) {
-                hasResultSetConsumer =  true;
-            } else {
-                hasTypeConsumer = true;
-            }
+            type = (Class<?>)((ParameterizedType) method.getGenericParameterTypes()[size -1]).getActualTypeArguments()[0];
         }
+        this.hasResultSetConsumer = nonNull(type) && ResultSet.class.isAssignableFrom(type);
+        this.hasTypeConsumer = nonNull(type) && !hasResultSetConsumer;
+        this.consumerType = hasTypeConsumer ? type : null;
+    }
+
+    private QueryDescriptor(QueryDescriptor descriptor, Statement statement) {
+        this.query = descriptor.query;
+        this.method = descriptor.method;
+        this.strategy = descriptor.strategy;
+        this.isUpdate = descriptor.isUpdate;
+        this.batchIndex = descriptor.batchIndex;
+        this.scrollResult = descriptor.scrollResult;
+        this.fetchSize = descriptor.fetchSize;
+        this.hasResultSetConsumer = descriptor.hasResultSetConsumer;
+        this.hasTypeConsumer = descriptor.hasTypeConsumer;
+        this.consumerType = descriptor.consumerType;
+        this.statement = statement;
     }
 
     public boolean isUpdate() {
@@ -82,19 +111,12 @@ public class QueryDescriptor implements AutoCloseable {
     }
 
     public boolean isBatch(Object[] args) {
-        var batchIndex = getBatchIndex();
-
         if(batchIndex < 0 || batchIndex >= args.length) {
             return false;
         }
         return isBatchSupported(args[batchIndex]);
     }
 
-    private int getBatchIndex() {
-        final var queryAnnotation = method.getAnnotation(Query.class);
-        return nonNull(queryAnnotation) ? queryAnnotation.batchIndex() : -1;
-    }
-
     private boolean isBatchSupported(Object batchedArg) {
         return nonNull(supporterHandler(batchedArg.getClass()));
     }
@@ -112,7 +134,6 @@ public class QueryDescriptor implements AutoCloseable {
     }
 
     public ResultSet getResultSet() throws SQLException {
-        var statement = statementLocal.get();
         return nonNull(statement) ? statement.getResultSet() : null;
     }
 
@@ -120,36 +141,53 @@ public class QueryDescriptor implements AutoCloseable {
         return hasTypeConsumer;
     }
 
+    /**
+     * @return the type consumed by the method consumer
+     */
+    public Class<?> getConsumerType() {
+        return consumerType;
+    }
+
     public boolean hasResultSetConsumer() {
         return hasResultSetConsumer;
     }
 
     @Override
     public void close() throws SQLException {
-        var statement = statementLocal.get();
         if(nonNull(statement)) {
             statement.close();
-            statementLocal.remove();
         }
     }
 
-    public void execute(Connection con, Object[] args) throws SQLException {
+    /**
+     * Executes the query on the connection.
+     *
+     * @return the descriptor bound to the executed statement, it must be closed after the result is handled.
+     */
+    public QueryDescriptor execute(Connection con, Object[] args) throws SQLException {
         var statement = createPreparedStatement(con);
-        if(isBatch(args)) {
-            executeBatch(statement, args);
-        } else {
-            executeSingle(statement, args);
+        try {
+            if(isBatch(args)) {
+                executeBatch(statement, args);
+            } else {
+                executeSingle(statement, args);
+            }
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
         }
-        statementLocal.set(statement);
+        return new QueryDescriptor(this, statement);
     }
 
     private PreparedStatement createPreparedStatement(Connection con) throws SQLException {
-        var annotation = method.getAnnotation(Query.class);
         PreparedStatement st;
-        if(nonNull(annotation) && annotation.scrollResult()) {
+        if(scrollResult) {
             st = con.prepareStatement(query, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
         } else if(isUpdate) {
             st = con.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+        } else if(fetchSize != 0) {
+            st = con.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            st.setFetchSize(fetchSize);
         } else {
             st = con.prepareStatement(query);
         }
@@ -158,7 +196,6 @@ public class QueryDescriptor implements AutoCloseable {
 
     @SuppressWarnings("unchecked")
     private void executeBatch(PreparedStatement statement, Object[] args) throws SQLException {
-        final var batchIndex = getBatchIndex();
         final var batchArg = args[batchIndex];
         final var supporter = supporterHandler(batchArg.getClass());
         final var handler = supporter.getHandler();
@@ -181,19 +218,27 @@ public class QueryDescriptor implements AutoCloseable {
         statement.execute();
     }
 
-    public void executeBatch(Connection con, Collection<?> collection) throws SQLException {
+    /**
+     * Executes the query in batch, one time for each element of the collection.
+     *
+     * @return the descriptor bound to the executed statement, it must be closed after the result is handled.
+     */
+    public QueryDescriptor executeBatch(Connection con, Collection<?> collection) throws SQLException {
         var statement = con.prepareStatement(query);
-        for (Object obj : collection) {
-            strategy.setParameters(statement, obj);
-            statement.addBatch();
+        try {
+            for (Object obj : collection) {
+                strategy.setParameters(statement, obj);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            statement.close();
+            throw e;
         }
-        statement.executeBatch();
-        statementLocal.set(statement);
-
+        return new QueryDescriptor(this, statement);
     }
 
     public int getGeneratedKey() throws SQLException{
-        var statement = statementLocal.get();
         if(nonNull(statement)) {
             var rs = statement.getGeneratedKeys();
             if(rs.next()) {
@@ -204,7 +249,6 @@ public class QueryDescriptor implements AutoCloseable {
     }
 
     public Integer getUpdateCount() throws SQLException {
-        var statement = statementLocal.get();
         return nonNull(statement) ? statement.getUpdateCount() : 0;
     }
 }
@@ -34,4 +34,11 @@ public @interface  Query {
     int batchIndex() default -1;
 
     boolean scrollResult() default false;
+
+    /**
+     * The amount of rows fetched on each round trip to the database, 0 uses the driver default.
+     * Used with a {@link java.util.function.Consumer} of the rows, the result is streamed to the consumer instead of loaded on memory.
+     * When the connection uses cursor fetch, the rows are kept on a server side cursor.
+     */
+    int fetchSize() default 0;
 }
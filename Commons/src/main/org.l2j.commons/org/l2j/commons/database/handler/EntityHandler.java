@@ -26,12 +26,19 @@ import org.l2j.commons.util.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -42,6 +49,12 @@ import static java.util.Objects.nonNull;
 public class EntityHandler implements TypeHandler<Object> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EntityHandler.class);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Map<MapperKey, RowMapper> mappers = new ConcurrentHashMap<>();
+    private final ThreadLocal<LastMapper> lastMapper = new ThreadLocal<>();
 
     @Override
     public Object defaultValue() {
@@ -58,14 +71,51 @@ public class EntityHandler implements TypeHandler<Object> {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Object handleType(ResultSet resultSet, Class<?> type) throws SQLException {
+        return mapperOf(resultSet, type).map(resultSet);
+    }
+
+    /**
+     * The mapper is resolved once per result set, the rows of the same result set have the same columns.
+     */
+    private RowMapper mapperOf(ResultSet resultSet, Class<?> type) throws SQLException {
+        var last = lastMapper.get();
+        if(nonNull(last) && last.type == type && last.resultSet.get() == resultSet) {
+            return last.mapper;
+        }
+
+        var metaData = resultSet.getMetaData();
+        var columns = new StringBuilder();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.append(metaData.getColumnLabel(i)).append(',');
+        }
+
+        var key = new MapperKey(type, columns.toString());
+        var mapper = mappers.get(key);
+        if(isNull(mapper)) {
+            mapper = buildMapper(type, metaData);
+            mappers.putIfAbsent(key, mapper);
+        }
+        lastMapper.set(new LastMapper(new WeakReference<>(resultSet), type, mapper));
+        return mapper;
+    }
+
+    private RowMapper buildMapper(Class<?> type, ResultSetMetaData metaData) throws SQLException {
         try {
-            var instance = type.getDeclaredConstructor().newInstance();
+            var constructor = type.getDeclaredConstructor();
+            if(!constructor.trySetAccessible()) {
+                throw new SQLException("No accessible constructor On type " + type);
+            }
+
             var fields = Util.fieldsOf(type);
+            var columnCount = metaData.getColumnCount();
+            var columns = new int[columnCount];
+            var setters = new MethodHandle[columnCount];
+            var handlers = new TypeHandler<?>[columnCount];
+            var types = new Class<?>[columnCount];
+            var size = 0;
 
-            var metaData = resultSet.getMetaData();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            for (int i = 1; i <= columnCount; i++) {
                 var columnName = metaData.getColumnLabel(i);
 
                 Field field = findField(fields, columnName);
@@ -73,15 +123,20 @@ public class EntityHandler implements TypeHandler<Object> {
                     LOGGER.debug("There is no field with name {} on Type {}",  columnName, type.getName());
                     continue;
                 }
-                if(field.trySetAccessible()) {
-                    var handler = HandlersSupport.handlerFromField(field);
-                    field.set(instance, handler.handleColumn(resultSet, i, field.getType()));
-                } else {
+                if(!field.trySetAccessible()) {
                     throw new SQLException("No accessible field " + field.getName() + " On type " + type );
                 }
+
+                columns[size] = i;
+                setters[size] = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+                handlers[size] = HandlersSupport.handlerFromField(field);
+                types[size] = field.getType();
+                size++;
             }
-            return instance;
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+
+            return new RowMapper(LOOKUP.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE), Arrays.copyOf(columns, size),
+                    Arrays.copyOf(setters, size), Arrays.copyOf(handlers, size), Arrays.copyOf(types, size));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
             throw new SQLException(e);
         }
     }
@@ -113,4 +168,34 @@ public class EntityHandler implements TypeHandler<Object> {
     public String type() {
         return Object.class.getName();
     }
+
+    private record MapperKey(Class<?> type, String columns) {
+    }
+
+    private record LastMapper(WeakReference<ResultSet> resultSet, Class<?> type, RowMapper mapper) {
+    }
+
+    /**
+     * Maps the rows of a result set shape to the entity, the columns are bound to the fields setters when the mapper is built.
+     */
+    private record RowMapper(MethodHandle constructor, int[] columns, MethodHandle[] setters, TypeHandler<?>[] handlers, Class<?>[] types) {
+
+        private Object map(ResultSet resultSet) throws SQLException {
+            try {
+                var instance = (Object) constructor.invokeExact();
+                for (int i = 0; i < columns.length; i++) {
+                    Object value = handlers[i].handleColumn(resultSet, columns[i], types[i]);
+                    // primitive fields keep the default value
+                    if(nonNull(value) || !types[i].isPrimitive()) {
+                        setters[i].invokeExact(instance, value);
+                    }
+                }
+                return instance;
+            } catch (SQLException | RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new SQLException(e);
+            }
+        }
+    }
 }
@@ -18,11 +18,17 @@
  */
 package org.l2j.commons.database.handler;
 
+import org.l2j.commons.database.HandlersSupport;
 import org.l2j.commons.database.QueryDescriptor;
 import org.l2j.commons.database.TypeHandler;
 
+import java.lang.invoke.MethodType;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
 
 /**
  * @author JoeAlisson
@@ -39,6 +45,25 @@ public class VoidHandler implements TypeHandler<Void> {
         return null;
     }
 
+    /**
+     * Streams the rows to the consumer, each row is handed over as soon as it's read, so the result is never fully kept on memory.
+     */
+    @Override
+    public Void handleResultAndThen(QueryDescriptor queryDescriptor, Consumer<Object> typeConsumer) throws SQLException {
+        if(isNull(typeConsumer)) {
+            return null;
+        }
+
+        // the handlers of the simple types are registered by the primitive type
+        final var type = MethodType.methodType(queryDescriptor.getConsumerType()).unwrap().returnType();
+        final var handler = HandlersSupport.handlerFromClass(type);
+        final var resultSet = queryDescriptor.getResultSet();
+        while (resultSet.next()) {
+            typeConsumer.accept(handler.handleType(resultSet, type));
+        }
+        return null;
+    }
+
     @Override
     public Void handleType(ResultSet resultSet, Class<?> type) {
         return null;
@@ -115,6 +115,13 @@ public class ThreadPool {
         getInstance().forkPool.execute(action);
     }
 
+    /**
+     * Executes the task on the fork join pool, waiting its completion.
+     */
+    public static void invokeForked(ForkJoinTask<?> task) {
+        getInstance().forkPool.invoke(task);
+    }
+
     public void shutdown() throws InterruptedException {
         try {
             scheduledExecutor.shutdown();
@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.commons.threading;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Hierarchical timing wheel scheduler.
+ *
+ * The time is split in ticks of a configurable precision. Each level of the wheel has {@value #SLOTS} slots, the slots of the first level
+ * last one tick and the slots of the next levels last the whole span of the previous level. Timeouts far in the future are kept
+ * on the upper levels and cascade to the lower levels as the time advances, so scheduling and cancelling are O(1)
+ * regardless the amount of pending timeouts.
+ *
+ * The thread that advances the wheel only collects the expired timeouts, their tasks are executed on the {@link ThreadPool}.
+ *
+ * @author JoeAlisson
+ */
+public final class TimingWheel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheel.class);
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final long DEFAULT_PRECISION = 100;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+    private volatile long tickMillis;
+    private long startTime;
+    private long currentTick;
+    private int size;
+
+    private TimingWheel() {
+
+    }
+
+    private void start(long precision) {
+        startTime = System.currentTimeMillis();
+        tickMillis = Math.max(1, precision);
+        ThreadPool.scheduleAtFixedRate(this::advance, tickMillis, tickMillis);
+    }
+
+    /**
+     * Schedules the task to be executed after the delay.
+     *
+     * @param task the task to be executed
+     * @param delay the delay in milliseconds
+     * @return the timeout that can be used to cancel the task
+     */
+    public static Timeout schedule(Runnable task, long delay) {
+        return getInstance().add(task, delay);
+    }
+
+    private Timeout add(Runnable task, long delay) {
+        if (tickMillis == 0) {
+            init(DEFAULT_PRECISION);
+        }
+
+        final var timeout = new Timeout(this, task, System.currentTimeMillis() + Math.max(0, delay));
+        lock.lock();
+        try {
+            // the current tick was already processed, so the nearest execution is on the next tick
+            insert(timeout, Math.max(ticksOf(timeout.deadline), currentTick + 1));
+            size++;
+        } finally {
+            lock.unlock();
+        }
+        return timeout;
+    }
+
+    private long ticksOf(long time) {
+        return (time - startTime + tickMillis - 1) / tickMillis;
+    }
+
+    private void insert(Timeout timeout, long deadlineTick) {
+        final long ticks = Math.min(deadlineTick - currentTick, MAX_TICKS);
+        final long slotTick = currentTick + ticks;
+
+        int level = 0;
+        while (level < LEVELS - 1 && ticks >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+
+        final int slot = (int) ((slotTick >> (SLOT_BITS * level)) & SLOT_MASK);
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.deadlineTick = deadlineTick;
+        timeout.previous = null;
+        timeout.next = wheel[level][slot];
+        if (nonNull(timeout.next)) {
+            timeout.next.previous = timeout;
+        }
+        wheel[level][slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (nonNull(timeout.previous)) {
+            timeout.previous.next = timeout.next;
+        } else {
+            wheel[timeout.level][timeout.slot] = timeout.next;
+        }
+
+        if (nonNull(timeout.next)) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    private boolean reschedule(Timeout timeout, long delay) {
+        final long deadline = System.currentTimeMillis() + Math.max(0, delay);
+        lock.lock();
+        try {
+            if (timeout.state != Timeout.PENDING) {
+                return false;
+            }
+            unlink(timeout);
+            timeout.deadline = deadline;
+            insert(timeout, Math.max(ticksOf(deadline), currentTick + 1));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean cancel(Timeout timeout) {
+        lock.lock();
+        try {
+            if (timeout.state != Timeout.PENDING) {
+                return false;
+            }
+            timeout.state = Timeout.CANCELLED;
+            unlink(timeout);
+            size--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advance() {
+        final long targetTick = (System.currentTimeMillis() - startTime) / tickMillis;
+        while (currentTick < targetTick) {
+            final Timeout expired;
+            lock.lock();
+            try {
+                currentTick++;
+                cascade();
+
+                final int slot = (int) (currentTick & SLOT_MASK);
+                expired = wheel[0][slot];
+                wheel[0][slot] = null;
+                for (var timeout = expired; nonNull(timeout); timeout = timeout.next) {
+                    timeout.state = Timeout.EXPIRED;
+                    size--;
+                }
+            } finally {
+                lock.unlock();
+            }
+            execute(expired);
+        }
+    }
+
+    /**
+     * Moves the timeouts of the upper levels reached by the current tick to the lower levels.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            final int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+
+            final int slot = (int) ((currentTick >> shift) & SLOT_MASK);
+            var timeout = wheel[level][slot];
+            wheel[level][slot] = null;
+            while (nonNull(timeout)) {
+                final var next = timeout.next;
+                insert(timeout, Math.max(timeout.deadlineTick, currentTick));
+                timeout = next;
+            }
+        }
+    }
+
+    private void execute(Timeout timeouts) {
+        var timeout = timeouts;
+        while (nonNull(timeout)) {
+            final var next = timeout.next;
+            timeout.next = null;
+            timeout.previous = null;
+            ThreadPool.execute(timeout);
+            timeout = next;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getPrecision() {
+        return tickMillis;
+    }
+
+    public static void init(long precision) {
+        synchronized (TimingWheel.class) {
+            var instance = getInstance();
+            if (instance.tickMillis == 0) {
+                instance.start(precision);
+            }
+        }
+    }
+
+    public static TimingWheel getInstance() {
+        return Singleton.INSTANCE;
+    }
+
+    private static class Singleton {
+        private static final TimingWheel INSTANCE = new TimingWheel();
+    }
+
+    /**
+     * A task scheduled on the timing wheel.
+     */
+    public static final class Timeout implements Runnable {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private volatile long deadline;
+        private volatile int state = PENDING;
+
+        private long deadlineTick;
+        private int level;
+        private int slot;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it's not executed yet.
+         *
+         * @return true if the task was cancelled by this call
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+
+        /**
+         * Moves the pending task to be executed after the delay, reusing this timeout.
+         *
+         * @param delay the delay in milliseconds
+         * @return true if the task was rescheduled, false if it was already executed or cancelled
+         */
+        public boolean reschedule(long delay) {
+            return wheel.reschedule(this, delay);
+        }
+
+        public boolean isPending() {
+            return state == PENDING;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * @return the time in milliseconds until the task execution
+         */
+        public long getRemainingTime() {
+            return deadline - System.currentTimeMillis();
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Executes the task of the expired timeout, called by the thread pool.
+         */
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOGGER.warn("Error executing timing wheel task {}", task, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return isNull(task) ? "Timeout" : "Timeout " + task;
+        }
+    }
+}
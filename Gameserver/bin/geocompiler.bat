@@ -0,0 +1,6 @@
+@echo off
+title Geodata compiler
+
+java -Dfile.encoding=UTF-8 -Xmx512m -p ./lib -cp config;./lib/* -m org.l2j.gameserver/org.l2j.gameserver.engine.geo.geodata.GeoCompiler %1
+
+pause
@@ -22,9 +22,11 @@ import org.l2j.commons.cache.CacheFactory;
 import org.l2j.commons.configuration.Configurator;
 import org.l2j.commons.database.DatabaseAccess;
 import org.l2j.commons.threading.ThreadPool;
+import org.l2j.commons.threading.TimingWheel;
 import org.l2j.commons.util.DeadLockDetector;
 import org.l2j.commons.util.FileUtil;
 import org.l2j.gameserver.cache.HtmCache;
+import org.l2j.gameserver.cache.HtmlTemplate;
 import org.l2j.gameserver.data.database.announce.manager.AnnouncementsManager;
 import org.l2j.gameserver.data.database.dao.PlayerDAO;
 import org.l2j.gameserver.data.sql.impl.CrestTable;
@@ -247,6 +249,7 @@ public class GameServer {
         logVersionInfo();
         printSection("Thread Pools");
         ThreadPool.init(ServerSettings.threadPoolSize() ,ServerSettings.scheduledPoolSize(), ServerSettings.maxThreadPoolSize());
+        TimingWheel.init(ServerSettings.timingWheelPrecision());
 
         printSection("Identity Factory");
         if (!IdFactory.getInstance().isInitialized()) {
@@ -281,6 +284,7 @@ public class GameServer {
 
     private static void configureCache() {
         CacheFactory.getInstance().build("html", String.class, String.class).setExpiryPolicyFactory(TouchedExpiryPolicy.factoryOf(Duration.TEN_MINUTES));
+        CacheFactory.getInstance().build("html-template", String.class, HtmlTemplate.class).setExpiryPolicyFactory(TouchedExpiryPolicy.factoryOf(Duration.TEN_MINUTES));
     }
 
     private static void configureNetworkPackets() {
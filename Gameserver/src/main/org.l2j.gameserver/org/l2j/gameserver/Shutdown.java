@@ -34,6 +34,8 @@ import org.l2j.gameserver.network.NetworkService;
 import org.l2j.gameserver.network.SystemMessageId;
 import org.l2j.gameserver.network.auth.gs2as.OnlineStatus;
 import org.l2j.gameserver.settings.GeneralSettings;
+import org.l2j.gameserver.taskmanager.ItemUpdateTaskManager;
+import org.l2j.gameserver.taskmanager.SaveTaskManager;
 import org.l2j.gameserver.util.Broadcast;
 import org.l2j.gameserver.world.World;
 import org.l2j.gameserver.world.WorldTimeController;
@@ -244,6 +246,8 @@ public class Shutdown extends Thread {
      */
     private void saveData() {
         disconnectAllCharacters();
+        SaveTaskManager.getInstance().shutdown();
+        ItemUpdateTaskManager.getInstance().flush();
         LOGGER.info("All players disconnected and saved.");
 
         // Save all raidboss and GrandBoss status ^_^
@@ -45,8 +45,11 @@ public class HtmCache {
     private static final Pattern EXTEND_PATTERN = Pattern.compile("<extend template=\"([a-zA-Z0-9-_./ ]*)\">(.*?)</extend>", Pattern.DOTALL);
     private static final Pattern ABSTRACT_BLOCK_PATTERN = Pattern.compile("<abstract block=\"([a-zA-Z0-9-_. ]*)\" ?/>", Pattern.DOTALL);
     private static final Pattern BLOCK_PATTERN = Pattern.compile("<block name=\"([a-zA-Z0-9-_. ]*)\">(.*?)</block>", Pattern.DOTALL);
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+    private static final Pattern SPACES_PATTERN = Pattern.compile("[\r\n\t]");
 
     private static final Cache<String, String> CACHE = CacheFactory.getInstance().getCache("html", String.class, String.class);
+    private static final Cache<String, HtmlTemplate> TEMPLATES = CacheFactory.getInstance().getCache("html-template", String.class, HtmlTemplate.class);
 
     private HtmCache() {
         reload();
@@ -54,10 +57,12 @@ public class HtmCache {
 
     public void reload() {
         CACHE.clear();
+        TEMPLATES.clear();
         LOGGER.info("Cache[HTML]: Running lazy cache");
     }
 
     public boolean purge(String path) {
+        TEMPLATES.remove(path);
         return CACHE.remove(path);
     }
 
@@ -66,7 +71,7 @@ public class HtmCache {
         if(FilterUtil.htmlFile(path)) {
             try {
                 var content = processHtml(Files.readString(path));
-                content = content.replaceAll("(?s)<!--.*?-->", "").replaceAll("[\r\n\t]", ""); // Remove html comments and spaces
+                content = SPACES_PATTERN.matcher(COMMENT_PATTERN.matcher(content).replaceAll("")).replaceAll(""); // Remove html comments and spaces
                 CACHE.put(filePath, content);
                 return content;
             } catch (Exception e) {
@@ -97,6 +102,24 @@ public class HtmCache {
         return content;
     }
 
+    /**
+     * @return the html compiled to a template, the template is cached while the html is on cache
+     */
+    public HtmlTemplate getTemplate(Player player, String path) {
+        final var content = getHtm(player, path);
+        if (content == null) {
+            return null;
+        }
+
+        var template = TEMPLATES.get(path);
+        // the html may have been reloaded after the template compilation
+        if (template == null || template.getHtml() != content) {
+            template = HtmlTemplate.compile(content);
+            TEMPLATES.put(path, template);
+        }
+        return template;
+    }
+
     private String getHtm(String path) {
         return Util.isNullOrEmpty(path) ? "" : CACHE.containsKey(path) ? CACHE.get(path) : loadFile(path);
     }
@@ -0,0 +1,278 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.cache;
+
+import org.l2j.gameserver.util.GameUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A html split in literal segments and placeholder slots.
+ *
+ * A placeholder is any text in the form {@code %name%}, where name has only letters, digits and underscores.
+ * All occurrences of a placeholder share the same slot, so the html is rendered in a single pass filling the slots with its values.
+ *
+ * The bypass and link actions are parsed on compilation. The actions without placeholders are reused as they are,
+ * the others are rendered with the slot values, so sending the html never parses it again.
+ *
+ * @author JoeAlisson
+ */
+public final class HtmlTemplate {
+
+    public static final char PLACEHOLDER_CHAR = '%';
+
+    private static final int MAX_REUSED_BUFFER = 1 << 16;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private final String html;
+    private final String[] segments;
+    private final int[] slots;
+    private final String[] placeholders;
+    private final Map<String, Integer> slotIndexes;
+    private final boolean htmlDocument;
+    private String[] staticActions;
+    private ActionTemplate[] actionTemplates;
+
+    private HtmlTemplate(String html, String[] segments, int[] slots, String[] placeholders, Map<String, Integer> slotIndexes) {
+        this.html = html;
+        this.segments = segments;
+        this.slots = slots;
+        this.placeholders = placeholders;
+        this.slotIndexes = slotIndexes;
+        this.htmlDocument = html.contains("<html") || html.startsWith("..\\L2");
+    }
+
+    private void compileActions() {
+        final List<String> actions = new ArrayList<>();
+        final List<ActionTemplate> templates = new ArrayList<>();
+
+        GameUtils.forEachHtmlActionContent(html, bypass -> {
+            if (bypass.indexOf(PLACEHOLDER_CHAR) >= 0) {
+                templates.add(compileAction(bypass, false));
+            } else {
+                actions.add(GameUtils.toBypassAction(bypass));
+            }
+        }, link -> {
+            if (link.indexOf(PLACEHOLDER_CHAR) >= 0) {
+                templates.add(compileAction(link, true));
+            } else {
+                final var action = GameUtils.toLinkAction(link);
+                if (action != null) {
+                    actions.add(action);
+                }
+            }
+        });
+
+        staticActions = actions.toArray(String[]::new);
+        actionTemplates = templates.toArray(ActionTemplate[]::new);
+    }
+
+    private ActionTemplate compileAction(String content, boolean link) {
+        final var template = compile(content, false);
+        final var templateSlots = new int[template.slotCount()];
+        for (int i = 0; i < templateSlots.length; i++) {
+            templateSlots[i] = slotOf(template.placeholders[i]);
+        }
+        return new ActionTemplate(template, templateSlots, link);
+    }
+
+    /**
+     * @param values the values indexed by slot
+     * @return the actions of the html rendered with the values or null when any value may change the actions, then the rendered html must be parsed.
+     */
+    public List<String> actions(String[] values) {
+        for (String value : values) {
+            if (value != null && mayChangeActions(value)) {
+                return null;
+            }
+        }
+
+        final List<String> actions = new ArrayList<>(staticActions.length + actionTemplates.length);
+        actions.addAll(List.of(staticActions));
+        for (ActionTemplate actionTemplate : actionTemplates) {
+            final var action = actionTemplate.render(values);
+            if (action != null) {
+                actions.add(action);
+            }
+        }
+        return actions;
+    }
+
+    private static boolean mayChangeActions(String value) {
+        if (value.indexOf('"') >= 0) {
+            return true;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            if (value.regionMatches(true, i, "bypass", 0, 6) || value.regionMatches(true, i, "link", 0, 4)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param placeholder the placeholder including the delimiters, e.g. {@code %name%}
+     * @return the slot of the placeholder or -1 if the html doesn't have it
+     */
+    public int slotOf(String placeholder) {
+        return slotIndexes.getOrDefault(placeholder, -1);
+    }
+
+    public int slotCount() {
+        return placeholders.length;
+    }
+
+    /**
+     * Renders the html filling each slot with its value. The slots without value keep the placeholder.
+     *
+     * @param values the values indexed by slot
+     * @return the rendered html
+     */
+    public String render(String[] values) {
+        if (slots.length == 0) {
+            return html;
+        }
+
+        var buffer = BUFFER.get();
+        if (buffer.capacity() > MAX_REUSED_BUFFER) {
+            buffer = new StringBuilder(html.length());
+            BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+
+        for (int i = 0; i < slots.length; i++) {
+            final var value = values[slots[i]];
+            buffer.append(segments[i]).append(value != null ? value : placeholders[slots[i]]);
+        }
+        return buffer.append(segments[slots.length]).toString();
+    }
+
+    public String getHtml() {
+        return html;
+    }
+
+    /**
+     * @return true if the html has the html tag, otherwise the html must be wrapped by it before sending
+     */
+    public boolean isHtmlDocument() {
+        return htmlDocument;
+    }
+
+    /**
+     * @return true if the text has the form of a placeholder
+     */
+    public static boolean isPlaceholder(String text) {
+        final int length = text.length();
+        if (length < 3 || text.charAt(0) != PLACEHOLDER_CHAR || text.charAt(length - 1) != PLACEHOLDER_CHAR) {
+            return false;
+        }
+
+        for (int i = 1; i < length - 1; i++) {
+            if (!isPlaceholderPart(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlaceholderPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    public static HtmlTemplate compile(String html) {
+        return compile(html, true);
+    }
+
+    private static HtmlTemplate compile(String html, boolean parseActions) {
+        final var segments = new ArrayList<String>();
+        final var slots = new ArrayList<Integer>();
+        final var placeholders = new ArrayList<String>();
+        final Map<String, Integer> slotIndexes = new HashMap<>();
+
+        final int length = html.length();
+        int segmentStart = 0;
+        int start = html.indexOf(PLACEHOLDER_CHAR);
+        while (start >= 0) {
+            int end = start + 1;
+            while (end < length && isPlaceholderPart(html.charAt(end))) {
+                end++;
+            }
+
+            if (end >= length) {
+                break;
+            }
+
+            if (html.charAt(end) != PLACEHOLDER_CHAR) {
+                start = html.indexOf(PLACEHOLDER_CHAR, end);
+                continue;
+            }
+
+            if (end == start + 1) {
+                // the closing char may open the next placeholder
+                start = end;
+                continue;
+            }
+
+            final var placeholder = html.substring(start, end + 1);
+            var slot = slotIndexes.get(placeholder);
+            if (slot == null) {
+                slot = placeholders.size();
+                slotIndexes.put(placeholder, slot);
+                placeholders.add(placeholder);
+            }
+
+            segments.add(html.substring(segmentStart, start));
+            slots.add(slot);
+            segmentStart = end + 1;
+            start = html.indexOf(PLACEHOLDER_CHAR, segmentStart);
+        }
+        segments.add(html.substring(segmentStart));
+
+        final var template = new HtmlTemplate(html, segments.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray(), placeholders.toArray(String[]::new), slotIndexes);
+        if (parseActions) {
+            template.compileActions();
+        }
+        return template;
+    }
+
+    /**
+     * The content of an action with placeholders.
+     *
+     * @param content the action content compiled
+     * @param slots the slot of the html for each slot of the content, -1 if the html doesn't have it
+     * @param link true if the action is a link, otherwise it's a bypass
+     */
+    private record ActionTemplate(HtmlTemplate content, int[] slots, boolean link) {
+
+        private String render(String[] values) {
+            final var contentValues = new String[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] >= 0) {
+                    contentValues[i] = values[slots[i]];
+                }
+            }
+            final var rendered = content.render(contentValues);
+            return link ? GameUtils.toLinkAction(rendered) : GameUtils.toBypassAction(rendered);
+        }
+    }
+}
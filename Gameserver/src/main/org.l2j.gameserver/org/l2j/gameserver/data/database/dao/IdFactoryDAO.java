@@ -18,21 +18,30 @@
  */
 package org.l2j.gameserver.data.database.dao;
 
-import io.github.joealisson.primitive.IntSet;
 import org.l2j.commons.database.DAO;
 import org.l2j.commons.database.annotation.Query;
 
+import java.util.function.Consumer;
+
 /**
  * @author JoeAlisson
  */
 public interface IdFactoryDAO extends DAO<Object> {
 
-    @Query("""
+    @Query(value = """
             SELECT charId AS id FROM characters
             UNION SELECT object_id AS id FROM items
             UNION SELECT clan_id AS id FROM clan_data
             UNION SELECT object_id AS id FROM itemsonground
-            UNION SELECT id FROM mail""")
-    IntSet findUsedObjectIds();
+            UNION SELECT id FROM mail""", fetchSize = 10000)
+    void findUsedObjectIds(Consumer<Integer> action);
+
+    @Query(value = """
+            SELECT charId AS id FROM characters WHERE charId > :objectId:
+            UNION SELECT object_id AS id FROM items WHERE object_id > :objectId:
+            UNION SELECT clan_id AS id FROM clan_data WHERE clan_id > :objectId:
+            UNION SELECT object_id AS id FROM itemsonground WHERE object_id > :objectId:
+            UNION SELECT id FROM mail WHERE id > :objectId:""", fetchSize = 10000)
+    void findUsedObjectIdsAbove(int objectId, Consumer<Integer> action);
 
 }
@@ -118,6 +118,9 @@ public interface ItemDAO extends DAO<Object> {
            """)
     List<CommissionItem> findCommissionItems();
 
+    @Query("UPDATE items SET count = :count: WHERE object_id = :objectId:")
+    void updateCount(int objectId, long count);
+
     @Query("UPDATE items SET ensoul = :ensoul: WHERE object_id = :objectId:")
     void updateEnsoul(int objectId, int ensoul);
 
@@ -19,12 +19,19 @@
 package org.l2j.gameserver.data.database.data;
 
 import org.l2j.commons.database.annotation.Column;
+import org.l2j.commons.database.annotation.NonUpdatable;
 import org.l2j.commons.database.annotation.Table;
 import org.l2j.gameserver.enums.ItemLocation;
 
 @Table("items")
 public class ItemData {
 
+    public static final int OWNER = 0x01;
+    public static final int COUNT = 0x02;
+    public static final int ENCHANT = 0x04;
+    public static final int LOCATION = 0x08;
+    public static final int TIME = 0x10;
+
     @Column("owner_id")
     private int ownerId;
 
@@ -48,12 +55,22 @@ public class ItemData {
     @Column("special_ensoul")
     private int specialEnsoul;
 
+    /**
+     * The fields changed since the last write to database.
+     * The ensoul options are not tracked, they are written by their own update queries.
+     */
+    @NonUpdatable
+    private int changes;
+
     public int getOwnerId() {
         return ownerId;
     }
 
     public void setOwnerId(int ownerId) {
-        this.ownerId = ownerId;
+        if(this.ownerId != ownerId) {
+            this.ownerId = ownerId;
+            changes |= OWNER;
+        }
     }
 
     public int getObjectId() {
@@ -69,13 +86,19 @@ public class ItemData {
     }
 
     public void setCount(long count) {
-        this.count = count;
+        if(this.count != count) {
+            this.count = count;
+            changes |= COUNT;
+        }
     }
 
     public int getEnchantLevel() { return enchantLevel; }
 
     public void setEnchantLevel(int enchantLevel) {
-        this.enchantLevel = enchantLevel;
+        if(this.enchantLevel != enchantLevel) {
+            this.enchantLevel = enchantLevel;
+            changes |= ENCHANT;
+        }
     }
 
     public ItemLocation getLoc() {
@@ -83,7 +106,10 @@ public class ItemData {
     }
 
     public void setLoc(ItemLocation loc) {
-        this.loc = loc;
+        if(this.loc != loc) {
+            this.loc = loc;
+            changes |= LOCATION;
+        }
     }
 
     public int getLocData() {
@@ -91,7 +117,10 @@ public class ItemData {
     }
 
     public void setLocData(int locData) {
-        this.locData = locData;
+        if(this.locData != locData) {
+            this.locData = locData;
+            changes |= LOCATION;
+        }
     }
 
     public long getTime() {
@@ -99,7 +128,10 @@ public class ItemData {
     }
 
     public void setTime(long time) {
-        this.time = time;
+        if(this.time != time) {
+            this.time = time;
+            changes |= TIME;
+        }
     }
 
     public int getEnsoul() {
@@ -118,6 +150,37 @@ public class ItemData {
         this.specialEnsoul = specialEnsoul;
     }
 
+    public boolean isChanged() {
+        return changes != 0;
+    }
+
+    /**
+     * @return the bitmask of the fields changed since the last write
+     */
+    public int getChanges() {
+        return changes;
+    }
+
+    /**
+     * Marks the data as written to the database.
+     *
+     * @return the bitmask of the fields changed before the call
+     */
+    public int clearChanges() {
+        final int changed = changes;
+        changes = 0;
+        return changed;
+    }
+
+    /**
+     * Marks the fields as not written to the database.
+     *
+     * @param mask the bitmask of the fields not written
+     */
+    public void restoreChanges(int mask) {
+        changes |= mask;
+    }
+
     public static ItemData of(int objectId, int itemId) {
         var data = new ItemData();
         data.objectId = objectId;
@@ -30,17 +30,16 @@ import org.l2j.gameserver.model.interfaces.ILocational;
 import org.l2j.gameserver.settings.ServerSettings;
 import org.l2j.gameserver.util.MathUtil;
 import org.l2j.gameserver.world.World;
+import org.l2j.gameserver.world.WorldTimeController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.RandomAccessFile;
-import java.nio.ByteOrder;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
+import static java.util.Objects.isNull;
 import static org.l2j.gameserver.util.GameUtils.*;
 
 /**
@@ -54,36 +53,37 @@ public class GeoEngine {
     private static final double SIGHT_LINE_PERCENT = 0.75;
     private static final int MAX_OBSTACLE_HEIGHT = 32;
 
-    private final ABlock[][] blocks = new ABlock[GeoStructure.GEO_BLOCKS_X][GeoStructure.GEO_BLOCKS_Y];
-    private final BlockNull nullBlock = new BlockNull();
+    private final GeoRegion[][] regions = new GeoRegion[GeoStructure.GEO_REGIONS_X][GeoStructure.GEO_REGIONS_Y];
+    private final SightCache sightCache = GeoEngineSettings.isEnabledSightCache() ? new SightCache(WorldTimeController.MILLIS_IN_TICK) : null;
 
     protected GeoEngine() {
 
     }
 
     protected void load() {
-        BlockMultilayer.initialize();
         loadGeodataFiles();
-        BlockMultilayer.release();
     }
 
     private void loadGeodataFiles() {
         int loaded = 0;
+        final long start = System.currentTimeMillis();
         var geodataPath = ServerSettings.dataPackDirectory().resolve("geodata");
+        var compiledPath = geodataPath.resolve(GeoFormat.CACHE_DIRECTORY);
 
         for (int rx = World.TILE_X_MIN; rx <= World.TILE_X_MAX; rx++) {
             for (int ry = World.TILE_Y_MIN; ry <= World.TILE_Y_MAX; ry++) {
                 var filePath = geodataPath.resolve(String.format(GeoFormat.L2D.getFilename(), rx, ry));
+                var region = GeoRegion.empty();
                 if(Files.exists(filePath) && !Files.isDirectory(filePath)) {
-                    if (loadGeoBlocks(filePath, rx, ry)) {
+                    region = GeoRegion.of(filePath, compiledPath.resolve(String.format(GeoFormat.L2C.getFilename(), rx, ry)));
+                    if (!GeoEngineSettings.isPreloadGeodata() || region.page()) {
                         loaded++;
                     }
-                } else {
-                    loadNullBlocks(rx, ry);
                 }
+                regions[rx - World.TILE_X_MIN][ry - World.TILE_Y_MIN] = region;
             }
         }
-        LOGGER.info("Loaded {} geodata files.", loaded);
+        LOGGER.info("Loaded {} geodata files in {} ms.", loaded, System.currentTimeMillis() - start);
 
         if (loaded == 0) {
             if (GeoEngineSettings.isEnabledPathFinding()) {
@@ -163,95 +163,19 @@ public class GeoEngine {
     }
 
     /**
-     * Loads geodata from a file. When file does not exist, is corrupted or not consistent, loads none geodata.
-     *
-     *
-     * @param filePath : The Geodata File Path
-     * @param regionX : Geodata file region X coordinate.
-     * @param regionY : Geodata file region Y coordinate.
-     * @return boolean : True, when geodata file was loaded without problem.
-     */
-    private boolean loadGeoBlocks(Path filePath, int regionX, int regionY) {
-
-        // standard load
-        try (RandomAccessFile raf = new RandomAccessFile(filePath.toAbsolutePath().toString(), "r");
-             FileChannel fc = raf.getChannel()) {
-            // initialize file buffer
-            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()).load();
-            buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-            // get block indexes
-            final int blockX = (regionX - World.TILE_X_MIN) * GeoStructure.REGION_BLOCKS_X;
-            final int blockY = (regionY - World.TILE_Y_MIN) * GeoStructure.REGION_BLOCKS_Y;
-
-            // loop over region blocks
-            for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++) {
-                for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++) {
-                    // get block type
-                    final byte type = buffer.get();
-
-                    // load block according to block type
-                    blocks[blockX + ix][blockY + iy] = switch (type) {
-                        case GeoStructure.TYPE_FLAT_L2D -> new BlockFlat(buffer, GeoFormat.L2D);
-                        case GeoStructure.TYPE_COMPLEX_L2D -> new BlockComplex(buffer, GeoFormat.L2D);
-                        case GeoStructure.TYPE_MULTILAYER_L2D -> new BlockMultilayer(buffer, GeoFormat.L2D);
-                        default -> throw new IllegalArgumentException("Unknown block type: " + type);
-                    };
-                }
-            }
-
-            // check data consistency
-            if (buffer.remaining() > 0) {
-                LOGGER.warn("GeoEngine: Region file {} can be corrupted, remaining {} bytes to read.", filePath, buffer.remaining());
-            }
-
-            // loading was successful
-            return true;
-        } catch (Exception e) {
-            LOGGER.error("Error while loading {} region file.", filePath);
-            LOGGER.error(e.getMessage());
-
-            // replace whole region file with null blocks
-            loadNullBlocks(regionX, regionY);
-
-            // loading was not successful
-            return false;
-        }
-    }
-
-    /**
-     * Loads null blocks. Used when no region file is detected or an error occurs during loading.
-     *
-     * @param regionX : Geodata file region X coordinate.
-     * @param regionY : Geodata file region Y coordinate.
-     */
-    private void loadNullBlocks(int regionX, int regionY) {
-        // get block indexes
-        final int blockX = (regionX - World.TILE_X_MIN) * GeoStructure.REGION_BLOCKS_X;
-        final int blockY = (regionY - World.TILE_Y_MIN) * GeoStructure.REGION_BLOCKS_Y;
-
-        // load all null blocks
-        for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++) {
-            for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++) {
-                blocks[blockX + ix][blockY + iy] = nullBlock;
-            }
-        }
-    }
-
-    /**
-     * Returns block of geodata on given coordinates.
+     * Returns region of geodata on given coordinates.
      *
      * @param geoX : Geodata X
      * @param geoY : Geodata Y
-     * @return {@link ABlock} : Block of geodata.
+     * @return {@link GeoRegion} : Region of geodata.
      */
-    private ABlock getBlock(int geoX, int geoY) {
-        final int x = geoX / GeoStructure.BLOCK_CELLS_X;
-        final int y = geoY / GeoStructure.BLOCK_CELLS_Y;
+    private GeoRegion getRegion(int geoX, int geoY) {
+        final int x = geoX / GeoStructure.REGION_CELLS_X;
+        final int y = geoY / GeoStructure.REGION_CELLS_Y;
 
         // if x or y is out of array return null
-        if ((x > -1) && (y > -1) && (x < GeoStructure.GEO_BLOCKS_X) && (y < GeoStructure.GEO_BLOCKS_Y)) {
-            return blocks[x][y];
+        if ((geoX > -1) && (geoY > -1) && (x < GeoStructure.GEO_REGIONS_X) && (y < GeoStructure.GEO_REGIONS_Y)) {
+            return regions[x][y];
         }
         return null;
     }
@@ -264,14 +188,14 @@ public class GeoEngine {
      * @return boolean : True, if given geo coordinates have geodata
      */
     public final boolean hasGeoPos(int geoX, int geoY) {
-        final ABlock block = getBlock(geoX, geoY);
-        if (block == null) // null block check
+        final GeoRegion region = getRegion(geoX, geoY);
+        if (region == null) // null region check
         {
             // TODO: Find when this can be null. (Bad geodata? Check World getRegion method.)
             // LOGGER.warn("Could not find geodata block at " + getWorldX(geoX) + ", " + getWorldY(geoY) + ".");
             return false;
         }
-        return block.hasGeoPos();
+        return region.hasGeoPos();
     }
 
     /**
@@ -283,8 +207,20 @@ public class GeoEngine {
      * @return short : Cell geodata Z coordinate, closest to given coordinates.
      */
     public final short getHeightNearest(int geoX, int geoY, int worldZ) {
-        final ABlock block = getBlock(geoX, geoY);
-        return block != null ? block.getHeightNearest(geoX, geoY, worldZ) : (short) worldZ;
+        final GeoRegion region = getRegion(geoX, geoY);
+        return region != null ? region.getHeightNearest(geoX, geoY, worldZ) : (short) worldZ;
+    }
+
+    /**
+     * Returns the amount of layers of the cell.
+     *
+     * @param geoX : Cell geodata X coordinate.
+     * @param geoY : Cell geodata Y coordinate.
+     * @return int : Layers count of the cell.
+     */
+    public final int getLayers(int geoX, int geoY) {
+        final GeoRegion region = getRegion(geoX, geoY);
+        return region != null ? region.getLayers(geoX, geoY) : 1;
     }
 
     /**
@@ -296,8 +232,8 @@ public class GeoEngine {
      * @return short : Cell NSWE flag byte coordinate, closest to given coordinates.
      */
     public final byte getNsweNearest(int geoX, int geoY, int worldZ) {
-        final ABlock block = getBlock(geoX, geoY);
-        return block != null ? block.getNsweNearest(geoX, geoY, worldZ) : (byte) 0xFF;
+        final GeoRegion region = getRegion(geoX, geoY);
+        return region != null ? region.getNsweNearest(geoX, geoY, worldZ) : (byte) 0xFF;
     }
 
     /**
@@ -331,12 +267,30 @@ public class GeoEngine {
      * @return {@code boolean} : True if origin can see target
      */
     public final boolean canSeeTarget(WorldObject origin, WorldObject target) {
-        if (isDoor(target) || isArtifact(target) || (target instanceof Creature creature && creature.isFlying())) {
+        if (isAlwaysVisible(target)) {
             return true;
         }
+        return canSeeTarget(origin, target, targetHeight(target));
+    }
 
-        double theight = calcIfIsCreature(target, Creature::getCollisionHeight) * 2;
-        return canSeeTarget(origin, target.getLocation(), theight);
+    /**
+     * Check line of sight from {@link WorldObject} to each target.
+     * The origin position is resolved on geodata once and shared by all targets.
+     *
+     * @param origin  : The origin object.
+     * @param targets : The target objects.
+     * @return the targets seen by the origin, in the iteration order of targets
+     */
+    public final <T extends WorldObject> List<T> canSeeTargets(WorldObject origin, Collection<T> targets) {
+        final List<T> visible = new ArrayList<>(targets.size());
+        final var sightOrigin = new SightOrigin(origin);
+        for (T target : targets) {
+            if (isAlwaysVisible(target) || canSeeTarget(sightOrigin.x, sightOrigin.y, sightOrigin.z, sightOrigin.geoX, sightOrigin.geoY, sightOrigin.geoZ,
+                    sightOrigin.hasGeo, sightOrigin.height, sightOrigin.instance, target, targetHeight(target))) {
+                visible.add(target);
+            }
+        }
+        return visible;
     }
 
     /**
@@ -350,32 +304,52 @@ public class GeoEngine {
         return canSeeTarget(origin, position, 0);
     }
 
+    private static boolean isAlwaysVisible(WorldObject target) {
+        return isDoor(target) || isArtifact(target) || (target instanceof Creature creature && creature.isFlying());
+    }
+
+    private static double targetHeight(WorldObject target) {
+        // real height = collision height * 2
+        return calcIfIsCreature(target, Creature::getCollisionHeight) * 2;
+    }
+
+    private static double originHeight(WorldObject origin) {
+        return origin instanceof Creature creature ? creature.getTemplate().getCollisionHeight() : 0;
+    }
+
+    /**
+     * Single target checks resolve the origin on the stack, only the batch check keeps it in a {@link SightOrigin}.
+     */
     private boolean canSeeTarget(WorldObject origin, ILocational position, double tHeight) {
-        // get origin and target world coordinates
         final int ox = origin.getX();
         final int oy = origin.getY();
         final int oz = origin.getZ();
+        final int gox = getGeoX(ox);
+        final int goy = getGeoY(oy);
+        final boolean hasGeo = hasGeoPos(gox, goy);
+        final short goz = hasGeo ? getHeightNearest(gox, goy, oz) : 0;
+        return canSeeTarget(ox, oy, oz, gox, goy, goz, hasGeo, originHeight(origin), origin.getInstanceWorld(), position, tHeight);
+    }
+
+    private boolean canSeeTarget(int ox, int oy, int oz, int gox, int goy, short goz, boolean hasGeo, double oHeight, Instance instance, ILocational position, double tHeight) {
+        // get target world coordinates
         final int tx = position.getX();
         final int ty = position.getY();
         final int tz = position.getZ();
 
-        if (DoorDataManager.getInstance().checkIfDoorsBetween(ox, oy, oz, tx, ty, tz, origin.getInstanceWorld(), true)) {
+        if (DoorDataManager.getInstance().checkIfDoorsBetween(ox, oy, oz, tx, ty, tz, instance, true)) {
             return false;
         }
 
-        if (FenceDataManager.getInstance().checkIfFenceBetween(ox, oy, oz, tx, ty, tz, origin.getInstanceWorld())) {
+        if (FenceDataManager.getInstance().checkIfFenceBetween(ox, oy, oz, tx, ty, tz, instance)) {
             return false;
         }
 
-        // get origin and check existing geo coordinates
-        final int gox = getGeoX(ox);
-        final int goy = getGeoY(oy);
-        if (!hasGeoPos(gox, goy)) {
+        // check existing origin geo coordinates
+        if (!hasGeo) {
             return true;
         }
 
-        final short goz = getHeightNearest(gox, goy, oz);
-
         // get target and check existing geo coordinates
         final int gtx = getGeoX(tx);
         final int gty = getGeoY(ty);
@@ -389,13 +363,17 @@ public class GeoEngine {
             return goz == gtz;
         }
 
-        // get origin and target height, real height = collision height * 2
-        double oheight = 0;
-        if (isCreature(origin)) {
-            oheight = ((Creature) origin).getTemplate().getCollisionHeight();
+        if (sightCache == null) {
+            return checkSee(gox, goy, goz, oHeight, gtx, gty, gtz, tHeight, instance);
         }
 
-        return checkSee(gox, goy, goz, oheight, gtx, gty, gtz, tHeight, origin.getInstanceWorld());
+        final var key = SightCache.key(gox, goy, goz, oHeight, gtx, gty, gtz, tHeight, isNull(instance) ? 0 : instance.getId());
+        Boolean canSee = sightCache.get(key);
+        if (canSee == null) {
+            canSee = checkSee(gox, goy, goz, oHeight, gtx, gty, gtz, tHeight, instance);
+            sightCache.put(key, canSee);
+        }
+        return canSee;
     }
 
     /**
@@ -454,7 +432,7 @@ public class GeoEngine {
         byte nswet = getNsweNearest(gtx, gty, gtz);
 
         // loop
-        ABlock block;
+        GeoRegion region;
         int index;
         for (int i = 0; i < ((dm + 1) / 2); i++) {
             // reset direction flag
@@ -490,14 +468,14 @@ public class GeoEngine {
             }
 
             {
-                // get block of the next cell
-                block = getBlock(nox, noy);
+                // get region of the next cell
+                region = getRegion(nox, noy);
 
                 // get index of particular layer, based on movement conditions
                 if ((nsweo & diro) == 0) {
-                    index = block.getIndexAbove(nox, noy, goz - GeoStructure.CELL_IGNORE_HEIGHT);
+                    index = region.getIndexAbove(nox, noy, goz - GeoStructure.CELL_IGNORE_HEIGHT);
                 } else {
-                    index = block.getIndexBelow(nox, noy, goz + GeoStructure.CELL_IGNORE_HEIGHT);
+                    index = region.getIndexBelow(nox, noy, goz + GeoStructure.CELL_IGNORE_HEIGHT);
                 }
 
                 // layer does not exist, return
@@ -506,7 +484,7 @@ public class GeoEngine {
                 }
 
                 // get layer and next line of sight Z coordinate
-                goz = block.getHeight(index);
+                goz = region.getHeight(index);
                 losoz += dz;
 
                 // perform line of sight check, return when fails
@@ -515,17 +493,17 @@ public class GeoEngine {
                 }
 
                 // get layer nswe
-                nsweo = block.getNswe(index);
+                nsweo = region.getNswe(index);
             }
             {
-                // get block of the next cell
-                block = getBlock(ntx, nty);
+                // get region of the next cell
+                region = getRegion(ntx, nty);
 
                 // get index of particular layer, based on movement conditions
                 if ((nswet & dirt) == 0) {
-                    index = block.getIndexAbove(ntx, nty, gtz - GeoStructure.CELL_IGNORE_HEIGHT);
+                    index = region.getIndexAbove(ntx, nty, gtz - GeoStructure.CELL_IGNORE_HEIGHT);
                 } else {
-                    index = block.getIndexBelow(ntx, nty, gtz + GeoStructure.CELL_IGNORE_HEIGHT);
+                    index = region.getIndexBelow(ntx, nty, gtz + GeoStructure.CELL_IGNORE_HEIGHT);
                 }
 
                 // layer does not exist, return
@@ -534,7 +512,7 @@ public class GeoEngine {
                 }
 
                 // get layer and next line of sight Z coordinate
-                gtz = block.getHeight(index);
+                gtz = region.getHeight(index);
                 lostz -= dz;
 
                 // perform line of sight check, return when fails
@@ -543,7 +521,7 @@ public class GeoEngine {
                 }
 
                 // get layer nswe
-                nswet = block.getNswe(index);
+                nswet = region.getNswe(index);
             }
         }
 
@@ -767,6 +745,37 @@ public class GeoEngine {
         return null;
     }
 
+    /**
+     * Discards the cached paths that pass by the area, used when a dynamic obstacle (e.g. a door) changes. The area is in world coordinates.
+     */
+    public void invalidatePaths(int minX, int minY, int maxX, int maxY) {
+    }
+
+    /**
+     * @return the path finding statistics
+     */
+    public CharSequence getPathFindingStats() {
+        return "Path Finding: disabled\n";
+    }
+
+    /**
+     * @return the line of sight cache statistics
+     */
+    public CharSequence getSightStats() {
+        if (sightCache == null) {
+            return "Sight Cache: disabled\n";
+        }
+
+        final long hits = sightCache.getHits();
+        final long total = hits + sightCache.getMisses();
+        return new StringBuilder("Sight Cache\n")
+            .append("=================================================\n")
+            .append("\tEntries on Tick: ..... ").append(sightCache.size()).append("\n")
+            .append("\tHits: ................ ").append(hits).append("\n")
+            .append("\tMisses: .............. ").append(total - hits).append("\n")
+            .append("\tHit Rate (%): ........ ").append(total > 0 ? hits * 100.0 / total : 0).append("\n");
+    }
+
     public static void init() {
         getInstance().load();
     }
@@ -776,6 +785,33 @@ public class GeoEngine {
     }
 
 
+    /**
+     * The origin side of the line of sight checks, resolved on geodata once to be shared by many targets.
+     */
+    private final class SightOrigin {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final int geoX;
+        private final int geoY;
+        private final short geoZ;
+        private final boolean hasGeo;
+        private final double height;
+        private final Instance instance;
+
+        private SightOrigin(WorldObject origin) {
+            x = origin.getX();
+            y = origin.getY();
+            z = origin.getZ();
+            instance = origin.getInstanceWorld();
+            geoX = getGeoX(x);
+            geoY = getGeoY(y);
+            hasGeo = hasGeoPos(geoX, geoY);
+            geoZ = hasGeo ? getHeightNearest(geoX, geoY, z) : 0;
+            height = originHeight(origin);
+        }
+    }
+
     private static class Singleton {
         private static final GeoEngine INSTANCE = GeoEngineSettings.isEnabledPathFinding() ? new GeoEnginePathFinding() : new GeoEngine();
     }
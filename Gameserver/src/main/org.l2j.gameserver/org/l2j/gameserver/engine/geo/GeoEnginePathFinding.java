@@ -18,18 +18,24 @@
  */
 package org.l2j.gameserver.engine.geo;
 
-import org.l2j.gameserver.engine.geo.geodata.GeoLocation;
-import org.l2j.gameserver.engine.geo.pathfinding.Node;
-import org.l2j.gameserver.engine.geo.pathfinding.NodeBuffer;
+import org.l2j.gameserver.engine.geo.pathfinding.ClusterGraph;
+import org.l2j.gameserver.engine.geo.pathfinding.GeoPath;
+import org.l2j.gameserver.engine.geo.pathfinding.HierarchicalPathFinder;
+import org.l2j.gameserver.engine.geo.pathfinding.PathCache;
+import org.l2j.gameserver.engine.geo.pathfinding.PathFinder;
+import org.l2j.gameserver.engine.geo.settings.GeoEngineSettings;
 import org.l2j.gameserver.model.Location;
 import org.l2j.gameserver.model.instancezone.Instance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
  * @author Hasha
@@ -39,60 +45,26 @@ final class GeoEnginePathFinding extends GeoEngine {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GeoEnginePathFinding.class);
 
-    private final BufferHolder[] buffers = {
-        new BufferHolder(100, 6),
-        new BufferHolder(128, 6),
-        new BufferHolder(192, 6),
-        new BufferHolder(256, 4),
-        new BufferHolder(320, 4),
-        new BufferHolder(384, 4),
-        new BufferHolder(500, 2)
-    };
-
-    GeoEnginePathFinding() {
-        LOGGER.info("Loaded {} path node buffers.", buffers.length);
-    }
-
     /**
-     * Create list of node locations as result of calculated buffer node tree.
-     *
-     * @param target : the entry point
-     * @return List<NodeLoc> : list of node location
+     * The max distance, in geodata cells, of the targets searched by the hierarchical path finding.
      */
-    private static List<Location> constructPath(Node target) {
-        // create empty list
-        LinkedList<Location> list = new LinkedList<>();
-
-        // set direction X/Y
-        int dx = 0;
-        int dy = 0;
-
-        // get target parent
-        Node parent = target.getParent();
-
-        // while parent exists
-        while (parent != null) {
-            // get parent <> target direction X/Y
-            final int nx = parent.getLoc().getGeoX() - target.getLoc().getGeoX();
-            final int ny = parent.getLoc().getGeoY() - target.getLoc().getGeoY();
-
-            // direction has changed?
-            if ((dx != nx) || (dy != ny)) {
-                // add node to the beginning of the list
-                list.addFirst(target.getLoc());
-
-                // update direction X/Y
-                dx = nx;
-                dy = ny;
-            }
+    private static final int MAX_HIERARCHICAL_DISTANCE = 2048;
 
-            // move to next node, set target and get its parent
-            target = parent;
-            parent = target.getParent();
-        }
+    private final ClusterGraph clusterGraph = new ClusterGraph(this);
+    private final ThreadLocal<PathFinder> finders = ThreadLocal.withInitial(() -> new PathFinder(this));
+    private final ThreadLocal<HierarchicalPathFinder> hierarchicalFinders = ThreadLocal.withInitial(() -> new HierarchicalPathFinder(clusterGraph, finders.get()));
+    private final PathCache cache;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder hierarchical = new LongAdder();
+    private final LongAdder tooFar = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
 
-        // return list
-        return list;
+    GeoEnginePathFinding() {
+        cache = GeoEngineSettings.pathCacheSize() > 0 ? new PathCache(GeoEngineSettings.pathCacheSize()) : null;
+        LOGGER.info("Path finding enabled, max search area {}x{}, path cache size {}.", PathFinder.MAX_SIZE, PathFinder.MAX_SIZE, GeoEngineSettings.pathCacheSize());
     }
 
     @Override
@@ -115,118 +87,129 @@ final class GeoEnginePathFinding extends GeoEngine {
 
         short gtz = getHeightNearest(gtx, gty, tz);
 
-        // Prepare buffer for pathfinding calculations
-        final NodeBuffer buffer = getBuffer(64 + (2 * Math.max(Math.abs(gox - gtx), Math.abs(goy - gty))));
-        if (buffer == null) {
+        requests.increment();
+        if (cache == null) {
+            return findPath(gox, goy, goz, gtx, gty, gtz, instance);
+        }
+
+        final var key = PathCache.key(gox, goy, goz, gtx, gty, gtz, nonNull(instance) ? instance.getId() : 0);
+        final var entry = cache.get(key);
+        if (nonNull(entry)) {
+            return entry.path();
+        }
+
+        final var path = findPath(gox, goy, goz, gtx, gty, gtz, instance);
+        final var result = nonNull(path) ? List.copyOf(path) : null;
+        cache.put(key, result);
+        return result;
+    }
+
+    private List<Location> findPath(int gox, int goy, int goz, int gtx, int gty, int gtz, Instance instance) {
+        final boolean inSearchArea = PathFinder.isInSearchArea(gox, goy, gtx, gty);
+        if (!inSearchArea && (!GeoEngineSettings.isEnabledHierarchicalPathFinding() || Math.max(Math.abs(gox - gtx), Math.abs(goy - gty)) > MAX_HIERARCHICAL_DISTANCE)) {
+            tooFar.increment();
             return null;
         }
 
-        // find path
-        List<Location> path;
+        final long start = System.nanoTime();
         try {
-            Node result = buffer.findPath(gox, goy, goz, gtx, gty, gtz);
+            final GeoPath path;
+            if (inSearchArea) {
+                final var finder = finders.get();
+                path = finder.findPath(gox, goy, goz, gtx, gty, gtz) ? finder : null;
+            } else {
+                hierarchical.increment();
+                final var finder = hierarchicalFinders.get();
+                path = finder.findPath(gox, goy, goz, gtx, gty, gtz) ? finder : null;
+            }
 
-            if (result == null) {
+            if (isNull(path)) {
                 return null;
             }
 
-            path = constructPath(result);
+            found.increment();
+            return optimizePath(path, gox, goy, goz, instance);
         } catch (Exception e) {
-            LOGGER.warn(e.getMessage());
+            LOGGER.warn(e.getMessage(), e);
             return null;
         } finally {
-            buffer.free();
+            // the finders are kept by each thread, an oversized search must not keep its buffers alive
+            finders.get().trim();
+            final long time = System.nanoTime() - start;
+            totalTime.add(time);
+            maxTime.accumulate(time);
         }
+    }
 
-        // check path
-        if (path.size() < 3) {
-            return path;
+    @Override
+    public void invalidatePaths(int minX, int minY, int maxX, int maxY) {
+        if (nonNull(cache)) {
+            cache.invalidate(getGeoX(minX), getGeoY(minY), getGeoX(maxX), getGeoY(maxY));
         }
+    }
+
+    /**
+     * Creates the path removing the points that can be skipped by a direct movement.
+     */
+    private List<Location> optimizePath(GeoPath finder, int gox, int goy, int goz, Instance instance) {
+        final int size = finder.getPathSize();
+        final List<Location> path = new ArrayList<>(size);
 
-        // get path list iterator
-        ListIterator<Location> point = path.listIterator();
+        if (size < 3) {
+            for (int i = 0; i < size; i++) {
+                path.add(toLocation(finder, i));
+            }
+            return path;
+        }
 
-        // get node A (origin)
+        // node A (origin)
         int nodeAx = gox;
         int nodeAy = goy;
-        short nodeAz = goz;
+        int nodeAz = goz;
 
-        // get node B
-        GeoLocation nodeB = (GeoLocation) point.next();
+        // node B
+        int nodeB = 0;
 
-        // iterate thought the path to optimize it
-        while (point.hasNext()) {
-            // get node C
-            GeoLocation nodeC = (GeoLocation) path.get(point.nextIndex());
+        for (int nodeC = 1; nodeC < size; nodeC++) {
+            final int nodeCx = finder.getPathX(nodeC);
+            final int nodeCy = finder.getPathY(nodeC);
 
             // check movement from node A to node C
-            GeoLocation loc = checkMove(nodeAx, nodeAy, nodeAz, nodeC.getGeoX(), nodeC.getGeoY(), nodeC.getZ(), instance);
-            if ((loc.getGeoX() == nodeC.getGeoX()) && (loc.getGeoY() == nodeC.getGeoY())) {
-                // can move from node A to node C
-
-                // remove node B
-                point.remove();
-            } else {
-                // can not move from node A to node C
-
-                // set node A (node B is part of path, update A coordinates)
-                nodeAx = nodeB.getGeoX();
-                nodeAy = nodeB.getGeoY();
-                nodeAz = (short) nodeB.getZ();
+            final var loc = checkMove(nodeAx, nodeAy, nodeAz, nodeCx, nodeCy, finder.getPathZ(nodeC), instance);
+            if ((loc.getGeoX() != nodeCx) || (loc.getGeoY() != nodeCy)) {
+                // can not move from node A to node C, node B is part of path
+                path.add(toLocation(finder, nodeB));
+                nodeAx = finder.getPathX(nodeB);
+                nodeAy = finder.getPathY(nodeB);
+                nodeAz = finder.getPathZ(nodeB);
             }
-
-            // set node B
-            nodeB = (GeoLocation) point.next();
+            nodeB = nodeC;
         }
-
+        path.add(toLocation(finder, nodeB));
         return path;
     }
 
-    /**
-     * Provides optimize selection of the buffer. When all pre-initialized buffer are locked, creates new buffer.
-     *
-     * @param size : pre-calculated minimal required size
-     * @return NodeBuffer : buffer
-     */
-    private final NodeBuffer getBuffer(int size) {
-        NodeBuffer current = null;
-        for (BufferHolder holder : buffers) {
-            // Find proper size of buffer
-            if (holder._size < size) {
-                continue;
-            }
-
-            // Find unlocked NodeBuffer
-            for (NodeBuffer buffer : holder._buffer) {
-                if (!buffer.isLocked()) {
-                    continue;
-                }
-
-                return buffer;
-            }
-
-            // NodeBuffer not found, allocate temporary buffer
-            current = new NodeBuffer(holder._size);
-            current.isLocked();
-        }
-
-        return current;
+    private static Location toLocation(GeoPath finder, int index) {
+        return new Location(getWorldX(finder.getPathX(index)), getWorldY(finder.getPathY(index)), finder.getPathZ(index));
     }
 
-    /**
-     * NodeBuffer container with specified size and count of separate buffers.
-     */
-    private static final class BufferHolder {
-        final int _size;
-        List<NodeBuffer> _buffer;
-
-        public BufferHolder(int size, int count) {
-            _size = size;
-            _buffer = new ArrayList<>(count);
-
-            for (int i = 0; i < count; i++) {
-                _buffer.add(new NodeBuffer(size));
-            }
-        }
+    @Override
+    public CharSequence getPathFindingStats() {
+        final long total = requests.sum();
+        final long success = found.sum();
+        return new StringBuilder("Path Finding\n")
+            .append("=================================================\n")
+            .append("\tRequests: ............ ").append(total).append("\n")
+            .append("\tFound: ............... ").append(success).append("\n")
+            .append("\tHierarchical: ........ ").append(hierarchical.sum()).append("\n")
+            .append("\tToo Far: ............. ").append(tooFar.sum()).append("\n")
+            .append("\tSuccess Rate (%): .... ").append(total > 0 ? success * 100 / total : 0).append("\n")
+            .append("\tAverage Time (ms): ... ").append(total > 0 ? totalTime.sum() / total / 1_000_000.0 : 0).append("\n")
+            .append("\tMax Time (ms): ....... ").append(maxTime.get() / 1_000_000.0).append("\n")
+            .append("\tClusters: ............ ").append(clusterGraph.size()).append("\n")
+            .append("\tCached Paths: ........ ").append(nonNull(cache) ? cache.size() : 0).append("\n")
+            .append("\tCache Hits: .......... ").append(nonNull(cache) ? cache.getHits() : 0).append("\n")
+            .append("\tCache Misses: ........ ").append(nonNull(cache) ? cache.getMisses() : 0).append("\n")
+            .append("\tCache Invalidations: . ").append(nonNull(cache) ? cache.getInvalidations() : 0).append("\n");
     }
-}
\ No newline at end of file
+}
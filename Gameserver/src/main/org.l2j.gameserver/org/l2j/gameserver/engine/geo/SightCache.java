@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Short-lived cache of the line of sight results between geodata cells.
+ *
+ * The results are kept only during the tick they were computed, so the many checks made by the skills and AI for the same
+ * positions on a tick walk the geodata once, while the changes on the creatures positions are seen on the next tick.
+ *
+ * @author JoeAlisson
+ */
+final class SightCache {
+
+    private static final int MAX_ENTRIES = 1 << 16;
+
+    private final long tickMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Generation generation = new Generation(-1, new ConcurrentHashMap<>());
+
+    SightCache(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * @return the key of the line of sight between the geodata cells in the instance, the heights are the creatures heights
+     */
+    static Key key(int gox, int goy, int goz, double oheight, int gtx, int gty, int gtz, double theight, int instanceId) {
+        return new Key(pack(gox, goy, goz), pack(gtx, gty, gtz), (int) oheight << 16 | ((int) theight & 0xFFFF), instanceId);
+    }
+
+    private static long pack(int geoX, int geoY, int z) {
+        return (long) geoX << 32 | (long) geoY << 16 | (z & 0xFFFF);
+    }
+
+    /**
+     * @param key the sight key
+     * @return the result cached on the current tick or null if there is no result
+     */
+    Boolean get(Key key) {
+        final Boolean result = current().results.get(key);
+        if (result == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return result;
+    }
+
+    void put(Key key, boolean canSee) {
+        final var results = current().results;
+        if (results.size() < MAX_ENTRIES) {
+            results.put(key, canSee);
+        }
+    }
+
+    private Generation current() {
+        final long tick = System.currentTimeMillis() / tickMillis;
+        var current = generation;
+        if (current.tick != tick) {
+            // a concurrent replacement just loses the results of the other thread
+            current = new Generation(tick, new ConcurrentHashMap<>());
+            generation = current;
+        }
+        return current;
+    }
+
+    int size() {
+        return generation.results.size();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    record Key(long origin, long target, int heights, int instanceId) {
+    }
+
+    private record Generation(long tick, ConcurrentHashMap<Key, Boolean> results) {
+    }
+}
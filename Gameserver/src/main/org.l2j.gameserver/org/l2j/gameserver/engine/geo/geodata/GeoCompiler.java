@@ -0,0 +1,253 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo.geodata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Compiles the L2D region files to the compact geodata format used by {@link GeoRegion}.
+ *
+ * <pre>
+ * header      magic, version, source size, source last modified time and source CRC32C
+ * block index one int per block: 2 bits of block type and 30 bits of data
+ *             flat blocks keep the height on the index and have no data
+ *             complex and multilayer blocks keep the offset of the block data
+ * complex     64 cells of nswe and height
+ * multilayer  64 unsigned shorts with the cell offsets relative to the block, followed by the cells (layers count and the layers nswe and height)
+ * </pre>
+ *
+ * The source properties on the header are used to detect stale files, which must be compiled again.
+ *
+ * @author JoeAlisson
+ */
+public final class GeoCompiler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeoCompiler.class);
+
+    static final int MAGIC = 0x4C324743; // L2GC
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int INDEX_SIZE = GeoStructure.REGION_BLOCKS * Integer.BYTES;
+    static final int DATA_START = HEADER_SIZE + INDEX_SIZE;
+
+    static final int TYPE_SHIFT = 30;
+    static final int TYPE_FLAT = 0;
+    static final int TYPE_COMPLEX = 1;
+    static final int TYPE_MULTILAYER = 2;
+    static final int DATA_MASK = (1 << TYPE_SHIFT) - 1;
+
+    static final int CELL_SIZE = 3;
+    static final int CELL_OFFSETS_SIZE = GeoStructure.BLOCK_CELLS * Short.BYTES;
+    private static final int MAX_LAYERS = Byte.MAX_VALUE;
+
+    private GeoCompiler() {
+        // utility class
+    }
+
+    /**
+     * Checks if the compiled file was compiled from the current source file.
+     *
+     * @param source the L2D region file
+     * @param compiled the compiled region file
+     * @return true if the compiled file is up to date
+     */
+    public static boolean isUpToDate(Path source, Path compiled) {
+        if (!Files.isRegularFile(compiled)) {
+            return false;
+        }
+
+        final long lastModified;
+        try (var channel = FileChannel.open(compiled, StandardOpenOption.READ)) {
+            final var header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.read(header, 0) != HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return false;
+            }
+
+            if (header.getLong(8) != Files.size(source)) {
+                return false;
+            }
+
+            // the modified time changes on copies, so the checksum has the last word
+            lastModified = Files.getLastModifiedTime(source).toMillis();
+            if (header.getLong(16) == lastModified) {
+                return true;
+            }
+
+            if (header.getLong(24) != checksum(source)) {
+                return false;
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not check the compiled geodata {}: {}", compiled, e.getMessage());
+            return false;
+        }
+
+        updateLastModified(compiled, lastModified);
+        return true;
+    }
+
+    /**
+     * Stores the current modified time of the source on the header, so the next checks don't need to compute the checksum again.
+     */
+    private static void updateLastModified(Path compiled, long lastModified) {
+        try (var channel = FileChannel.open(compiled, StandardOpenOption.WRITE)) {
+            final var buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, lastModified);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, 16 + buffer.position());
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not update the modified time of the compiled geodata {}: {}", compiled, e.getMessage());
+        }
+    }
+
+    /**
+     * Compiles the source file and writes the result on the target path.
+     *
+     * @param source the L2D region file
+     * @param target the compiled region file
+     * @return the compiled data
+     * @throws IOException if the source can't be read or the target can't be written
+     */
+    public static ByteBuffer compile(Path source, Path target) throws IOException {
+        final var data = compile(source);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        final var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return data.rewind();
+    }
+
+    /**
+     * Compiles the source file in memory.
+     *
+     * @param source the L2D region file
+     * @return the compiled data
+     * @throws IOException if the source can't be read or has invalid data
+     */
+    public static ByteBuffer compile(Path source) throws IOException {
+        try (var channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            final var l2d = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+
+            // a multilayer block has at least 257 bytes on L2D and grows at most the cell offsets size
+            final int capacity = DATA_START + l2d.capacity() + (l2d.capacity() / 257 + 1) * CELL_OFFSETS_SIZE;
+            final var data = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+
+            data.putInt(MAGIC).putInt(VERSION).putLong(l2d.capacity()).putLong(Files.getLastModifiedTime(source).toMillis()).putLong(checksum(l2d));
+            data.position(DATA_START);
+
+            for (int block = 0; block < GeoStructure.REGION_BLOCKS; block++) {
+                final byte type = l2d.get();
+                data.putInt(HEADER_SIZE + block * Integer.BYTES, switch (type) {
+                    case GeoStructure.TYPE_FLAT_L2D -> l2d.getShort() & 0xFFFF;
+                    case GeoStructure.TYPE_COMPLEX_L2D -> compileComplex(l2d, data);
+                    case GeoStructure.TYPE_MULTILAYER_L2D -> compileMultilayer(l2d, data);
+                    default -> throw new IOException("Unknown block type: " + type);
+                });
+            }
+
+            if (l2d.hasRemaining()) {
+                LOGGER.warn("GeoEngine: Region file {} can be corrupted, remaining {} bytes to read.", source, l2d.remaining());
+            }
+            return data.flip();
+        }
+    }
+
+    private static int compileComplex(ByteBuffer l2d, ByteBuffer data) {
+        final int offset = data.position();
+        data.put(data.position(), l2d, l2d.position(), GeoStructure.BLOCK_CELLS * CELL_SIZE);
+        data.position(offset + GeoStructure.BLOCK_CELLS * CELL_SIZE);
+        l2d.position(l2d.position() + GeoStructure.BLOCK_CELLS * CELL_SIZE);
+        return TYPE_COMPLEX << TYPE_SHIFT | offset;
+    }
+
+    private static int compileMultilayer(ByteBuffer l2d, ByteBuffer data) throws IOException {
+        final int offset = data.position();
+        data.position(offset + CELL_OFFSETS_SIZE);
+
+        for (int cell = 0; cell < GeoStructure.BLOCK_CELLS; cell++) {
+            final byte layers = l2d.get();
+            if (layers <= 0 || layers > MAX_LAYERS) {
+                throw new IOException("Invalid layer count for MultilayerBlock");
+            }
+
+            final int size = layers * CELL_SIZE;
+            data.putShort(offset + cell * Short.BYTES, (short) (data.position() - offset));
+            data.put(layers);
+            data.put(data.position(), l2d, l2d.position(), size);
+            data.position(data.position() + size);
+            l2d.position(l2d.position() + size);
+        }
+        return TYPE_MULTILAYER << TYPE_SHIFT | offset;
+    }
+
+    private static long checksum(Path source) throws IOException {
+        try (var channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            return checksum(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        final var crc = new CRC32C();
+        crc.update(buffer.duplicate());
+        return crc.getValue();
+    }
+
+    /**
+     * Compiles all L2D files of the geodata directory.
+     *
+     * Usage: GeoCompiler [geodata directory]
+     */
+    public static void main(String[] args) throws IOException {
+        final var geodata = Path.of(args.length > 0 ? args[0] : "geodata");
+        final var output = geodata.resolve(GeoFormat.CACHE_DIRECTORY);
+        final long start = System.currentTimeMillis();
+        int compiled = 0;
+
+        try (var files = Files.newDirectoryStream(geodata, "*.l2d")) {
+            for (Path file : files) {
+                final var target = output.resolve(file.getFileName().toString().replace(".l2d", ".l2c"));
+                if (isUpToDate(file, target)) {
+                    continue;
+                }
+
+                try {
+                    compile(file, target);
+                    compiled++;
+                } catch (IOException e) {
+                    LOGGER.error("Could not compile {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        LOGGER.info("Compiled {} geodata files in {} ms.", compiled, System.currentTimeMillis() - start);
+    }
+}
@@ -24,7 +24,13 @@ package org.l2j.gameserver.engine.geo.geodata;
 public enum GeoFormat {
     L2J("%d_%d.l2j"),
     L2OFF("%d_%d_conv.dat"),
-    L2D("%d_%d.l2d");
+    L2D("%d_%d.l2d"),
+    L2C("%d_%d.l2c");
+
+    /**
+     * The directory, inside of geodata directory, of the compiled region files.
+     */
+    public static final String CACHE_DIRECTORY = "cache";
 
     private final String _filename;
 
@@ -0,0 +1,339 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo.geodata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Geodata of a region file kept off-heap.
+ *
+ * The region file is compiled by {@link GeoCompiler} and the compiled file is memory mapped, the heights and NSWE flags are decoded on demand,
+ * so no block is copied to the heap. The file is mapped (and compiled when it's missing or stale) only when a query touches the region
+ * for the first time.
+ *
+ * The cell indexes returned by this class are valid only for the same region.
+ *
+ * @author JoeAlisson
+ */
+public final class GeoRegion {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeoRegion.class);
+
+    private static final GeoRegion EMPTY = new GeoRegion(null, null);
+
+    /**
+     * Marks the index of a flat block, the index keeps the height of the block.
+     */
+    private static final int FLAT_INDEX = 1 << 30;
+    private static final int CELL_SIZE = GeoCompiler.CELL_SIZE;
+    private static final byte NSWE_ALL = (byte) 0xFF;
+
+    private final Path source;
+    private final Path compiled;
+    private volatile ByteBuffer data;
+
+    private GeoRegion(Path source, Path compiled) {
+        this.source = source;
+        this.compiled = compiled;
+    }
+
+    /**
+     * @param source the L2D region file
+     * @param compiled the compiled region file, compiled from the source when needed
+     * @return the region backed by the compiled file, the file is mapped lazily
+     */
+    public static GeoRegion of(Path source, Path compiled) {
+        return new GeoRegion(source, compiled);
+    }
+
+    /**
+     * @return the region without geodata
+     */
+    public static GeoRegion empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Maps the compiled region file, if not done yet.
+     *
+     * @return true when the region has geodata
+     */
+    public boolean page() {
+        return data() != null;
+    }
+
+    private ByteBuffer data() {
+        var buffer = data;
+        if (isNull(buffer) && isNull(source)) {
+            return null;
+        }
+        if (isNull(buffer)) {
+            buffer = pageIn();
+        }
+        return buffer.capacity() > 0 ? buffer : null;
+    }
+
+    private synchronized ByteBuffer pageIn() {
+        if (isNull(data)) {
+            final long start = System.nanoTime();
+            try {
+                data = GeoCompiler.isUpToDate(source, compiled) ? map(compiled) : compile();
+                LOGGER.debug("Paged geodata region {} in {} ms", source.getFileName(), (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                LOGGER.error("Error while loading {} region file, the region will have no geodata: {}", source, e.getMessage());
+                data = ByteBuffer.allocate(0);
+            }
+        }
+        return data;
+    }
+
+    private ByteBuffer compile() throws IOException {
+        try {
+            GeoCompiler.compile(source, compiled);
+            return map(compiled);
+        } catch (IOException e) {
+            // the compiled file can't be written, keeps the compiled data on memory
+            LOGGER.warn("Could not write the compiled geodata {}: {}", compiled, e.getMessage());
+            return GeoCompiler.compile(source);
+        }
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static int blockEntry(ByteBuffer buffer, int geoX, int geoY) {
+        final int blockX = (geoX / GeoStructure.BLOCK_CELLS_X) % GeoStructure.REGION_BLOCKS_X;
+        final int blockY = (geoY / GeoStructure.BLOCK_CELLS_Y) % GeoStructure.REGION_BLOCKS_Y;
+        return buffer.getInt(GeoCompiler.HEADER_SIZE + (blockX * GeoStructure.REGION_BLOCKS_Y + blockY) * Integer.BYTES);
+    }
+
+    private static int cellOf(int geoX, int geoY) {
+        return (geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y);
+    }
+
+    /**
+     * @return the index of the cell for flat and complex blocks or the index of the layers count for multilayer blocks.
+     */
+    private static int cellIndex(ByteBuffer buffer, int entry, int geoX, int geoY) {
+        final int offset = entry & GeoCompiler.DATA_MASK;
+        return switch (entry >>> GeoCompiler.TYPE_SHIFT) {
+            case GeoCompiler.TYPE_FLAT -> FLAT_INDEX | offset;
+            case GeoCompiler.TYPE_COMPLEX -> offset + cellOf(geoX, geoY) * CELL_SIZE;
+            default -> offset + (buffer.getShort(offset + cellOf(geoX, geoY) * Short.BYTES) & 0xFFFF);
+        };
+    }
+
+    private static boolean isMultilayer(int entry) {
+        return entry >>> GeoCompiler.TYPE_SHIFT == GeoCompiler.TYPE_MULTILAYER;
+    }
+
+    private static short heightAt(ByteBuffer buffer, int index) {
+        return (index & FLAT_INDEX) != 0 ? (short) index : buffer.getShort(index + 1);
+    }
+
+    /**
+     * @return true, when the region has geodata
+     */
+    public boolean hasGeoPos() {
+        return data() != null;
+    }
+
+    /**
+     * Returns the amount of layers of the cell.
+     *
+     * @param geoX : Cell geodata X coordinate.
+     * @param geoY : Cell geodata Y coordinate.
+     * @return {@code int} : Layers count, 1 for the cells out of multilayer blocks.
+     */
+    public int getLayers(int geoX, int geoY) {
+        final var buffer = data();
+        if (isNull(buffer)) {
+            return 1;
+        }
+
+        final int entry = blockEntry(buffer, geoX, geoY);
+        return isMultilayer(entry) ? buffer.get(cellIndex(buffer, entry, geoX, geoY)) : 1;
+    }
+
+    /**
+     * Returns index of the layer, which is closest to given coordinates.
+     *
+     * @param geoX   : Cell geodata X coordinate.
+     * @param geoY   : Cell geodata Y coordinate.
+     * @param worldZ : Cell world Z coordinate.
+     * @return {@code int} : Cell index.
+     */
+    public int getIndexNearest(int geoX, int geoY, int worldZ) {
+        final var buffer = data();
+        if (isNull(buffer)) {
+            return 0;
+        }
+
+        final int entry = blockEntry(buffer, geoX, geoY);
+        final int index = cellIndex(buffer, entry, geoX, geoY);
+        return isMultilayer(entry) ? nearestLayer(buffer, index, worldZ) : index;
+    }
+
+    private static int nearestLayer(ByteBuffer buffer, int index, int worldZ) {
+        byte layers = buffer.get(index++);
+
+        // note: When 2 layers have same distance to worldZ (worldZ is in the middle of them) returns bottom layer
+        int limit = Integer.MAX_VALUE;
+        while (layers-- > 0) {
+            final int distance = Math.abs(buffer.getShort(index + 1) - worldZ);
+            if (distance > limit) {
+                break;
+            }
+            limit = distance;
+            index += CELL_SIZE;
+        }
+        return index - CELL_SIZE;
+    }
+
+    /**
+     * Returns index of the first layer above given coordinates.
+     *
+     * @param geoX   : Cell geodata X coordinate.
+     * @param geoY   : Cell geodata Y coordinate.
+     * @param worldZ : Cell world Z coordinate.
+     * @return {@code int} : Cell index. -1..when no layer available above given Z coordinate.
+     */
+    public int getIndexAbove(int geoX, int geoY, int worldZ) {
+        final var buffer = data();
+        if (isNull(buffer)) {
+            return 0;
+        }
+
+        final int entry = blockEntry(buffer, geoX, geoY);
+        int index = cellIndex(buffer, entry, geoX, geoY);
+        if (!isMultilayer(entry)) {
+            return heightAt(buffer, index) > worldZ ? index : -1;
+        }
+
+        // get layers count and shift to last layer data (first from bottom)
+        byte layers = buffer.get(index++);
+        index += (layers - 1) * CELL_SIZE;
+
+        while (layers-- > 0) {
+            if (buffer.getShort(index + 1) > worldZ) {
+                return index;
+            }
+            index -= CELL_SIZE;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns index of the first layer below given coordinates.
+     *
+     * @param geoX   : Cell geodata X coordinate.
+     * @param geoY   : Cell geodata Y coordinate.
+     * @param worldZ : Cell world Z coordinate.
+     * @return {@code int} : Cell index. -1..when no layer available below given Z coordinate.
+     */
+    public int getIndexBelow(int geoX, int geoY, int worldZ) {
+        final var buffer = data();
+        if (isNull(buffer)) {
+            return 0;
+        }
+
+        final int entry = blockEntry(buffer, geoX, geoY);
+        int index = cellIndex(buffer, entry, geoX, geoY);
+        if (!isMultilayer(entry)) {
+            return heightAt(buffer, index) < worldZ ? index : -1;
+        }
+
+        // get layers count and shift to first layer data (first from top)
+        byte layers = buffer.get(index++);
+        while (layers-- > 0) {
+            if (buffer.getShort(index + 1) < worldZ) {
+                return index;
+            }
+            index += CELL_SIZE;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the height of cell given by cell index.
+     *
+     * @param index : Index of the cell.
+     * @return short : Cell geodata Z coordinate.
+     */
+    public short getHeight(int index) {
+        final var buffer = data();
+        return isNull(buffer) ? 0 : heightAt(buffer, index);
+    }
+
+    /**
+     * Returns the NSWE flag byte of cell given by cell index.
+     *
+     * @param index : Index of the cell.
+     * @return byte : Cell NSWE flag byte.
+     */
+    public byte getNswe(int index) {
+        final var buffer = data();
+        return isNull(buffer) || (index & FLAT_INDEX) != 0 ? NSWE_ALL : buffer.get(index);
+    }
+
+    /**
+     * Returns the height of cell, which is closest to given coordinates.
+     *
+     * @param geoX   : Cell geodata X coordinate.
+     * @param geoY   : Cell geodata Y coordinate.
+     * @param worldZ : Cell world Z coordinate.
+     * @return short : Cell geodata Z coordinate, nearest to given coordinates.
+     */
+    public short getHeightNearest(int geoX, int geoY, int worldZ) {
+        final var buffer = data();
+        return isNull(buffer) ? (short) worldZ : heightAt(buffer, getIndexNearest(geoX, geoY, worldZ));
+    }
+
+    /**
+     * Returns the NSWE flag byte of cell, which is closest to given coordinates.
+     *
+     * @param geoX   : Cell geodata X coordinate.
+     * @param geoY   : Cell geodata Y coordinate.
+     * @param worldZ : Cell world Z coordinate.
+     * @return byte : Cell NSWE flag byte, nearest to given coordinates.
+     */
+    public byte getNsweNearest(int geoX, int geoY, int worldZ) {
+        return getNswe(getIndexNearest(geoX, geoY, worldZ));
+    }
+
+    /**
+     * @return true when the region file is already mapped
+     */
+    public boolean isPaged() {
+        return data != null;
+    }
+}
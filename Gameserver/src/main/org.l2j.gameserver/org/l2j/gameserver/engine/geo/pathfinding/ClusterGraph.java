@@ -0,0 +1,404 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo.pathfinding;
+
+import org.l2j.gameserver.engine.geo.GeoEngine;
+import org.l2j.gameserver.engine.geo.geodata.GeoStructure;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Abstract graph over the geodata used by the hierarchical path finding.
+ *
+ * The geodata is split in square clusters of {@value #CLUSTER_SIZE} cells. Each walkable segment of a border between two clusters
+ * has an entrance on its middle, the entrances are the nodes of the graph. The entrances of the same cluster are linked by the
+ * cost of the shortest path inside the cluster, and each entrance is linked to its twin entrance on the neighbor cluster.
+ *
+ * The clusters are built when they are used by the first time, the geodata is static so a built cluster is never changed.
+ * At most {@value #MAX_CLUSTERS} clusters are kept, the least recently used are dropped and built again when needed.
+ *
+ * The graph is restricted to single layer clusters, a cluster with any multilayer cell has no entrances,
+ * so the paths starting or ending there are not found and the other paths go around it.
+ *
+ * @author JoeAlisson
+ */
+public final class ClusterGraph {
+
+    public static final int CLUSTER_SIZE = 64;
+    private static final int CLUSTER_CELLS = CLUSTER_SIZE * CLUSTER_SIZE;
+    private static final int TOP_LAYER = Short.MAX_VALUE;
+    private static final int MAX_HEIGHT_DIFFERENCE = 2 * GeoStructure.CELL_HEIGHT;
+    private static final byte NSWE_ALL = (byte) 0xFF;
+    private static final int MAX_CLUSTERS = 4096;
+    private static final Cluster NO_ENTRANCES = new Cluster(new int[0], new short[0], new int[0][], new int[0][]);
+
+    private final GeoEngine geoEngine;
+    private final Map<Integer, Cluster> clusters = new LinkedHashMap<>(MAX_CLUSTERS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Cluster> eldest) {
+            return size() > MAX_CLUSTERS;
+        }
+    };
+
+    public ClusterGraph(GeoEngine geoEngine) {
+        this.geoEngine = geoEngine;
+    }
+
+    /**
+     * @param geoX geodata X coordinate of a cell
+     * @param geoY geodata Y coordinate of a cell
+     * @return the cluster of the cell
+     */
+    public Cluster getCluster(int geoX, int geoY) {
+        var cluster = findCluster(geoX, geoY);
+        if (isNull(cluster)) {
+            final int clusterX = geoX / CLUSTER_SIZE;
+            final int clusterY = geoY / CLUSTER_SIZE;
+            // built out of the map, the entrance paths searches are too slow to hold the map lock
+            cluster = build(clusterX, clusterY);
+            synchronized (clusters) {
+                final var previous = clusters.putIfAbsent(clusterX << 16 | clusterY, cluster);
+                if (nonNull(previous)) {
+                    cluster = previous;
+                }
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * @param geoX geodata X coordinate of a cell
+     * @param geoY geodata Y coordinate of a cell
+     * @return the cluster of the cell or null if it isn't built
+     */
+    public Cluster findCluster(int geoX, int geoY) {
+        synchronized (clusters) {
+            return clusters.get((geoX / CLUSTER_SIZE) << 16 | (geoY / CLUSTER_SIZE));
+        }
+    }
+
+    public int size() {
+        synchronized (clusters) {
+            return clusters.size();
+        }
+    }
+
+    static int cell(int geoX, int geoY) {
+        return geoX << 16 | geoY;
+    }
+
+    static int cellX(int cell) {
+        return cell >>> 16;
+    }
+
+    static int cellY(int cell) {
+        return cell & 0xFFFF;
+    }
+
+    private Cluster build(int clusterX, int clusterY) {
+        final var entrances = new Entrances();
+        final int minX = clusterX * CLUSTER_SIZE;
+        final int minY = clusterY * CLUSTER_SIZE;
+        final int maxX = minX + CLUSTER_SIZE - 1;
+        final int maxY = minY + CLUSTER_SIZE - 1;
+
+        if (hasMultipleLayers(minX, minY)) {
+            return NO_ENTRANCES;
+        }
+
+        // the borders are scanned from the west/north side, so both clusters of a border find the same entrances
+        if (minX > 0) {
+            scanBorder(entrances, minX - 1, minY, true, false);
+        }
+        if (maxX + 1 < GeoStructure.GEO_CELLS_X) {
+            scanBorder(entrances, maxX, minY, true, true);
+        }
+        if (minY > 0) {
+            scanBorder(entrances, minX, minY - 1, false, false);
+        }
+        if (maxY + 1 < GeoStructure.GEO_CELLS_Y) {
+            scanBorder(entrances, minX, maxY, false, true);
+        }
+
+        // a corner cell can be an entrance of two borders
+        final int[] nodes = Arrays.stream(entrances.inside, 0, entrances.size).distinct().toArray();
+        final int size = nodes.length;
+        final short[] heights = new short[size];
+        final int[][] edges = new int[size][];
+        final int[][] costs = new int[size][];
+
+        final var search = new ClusterSearch(minX, minY);
+        for (int i = 0; i < size; i++) {
+            heights[i] = geoEngine.getHeightNearest(cellX(nodes[i]), cellY(nodes[i]), TOP_LAYER);
+            search.run(cellX(nodes[i]) - minX, cellY(nodes[i]) - minY, heights[i]);
+
+            int[] nodeEdges = new int[size + 1];
+            int[] nodeCosts = new int[size + 1];
+            int count = 0;
+
+            // the twin entrances on the neighbor clusters
+            for (int k = 0; k < entrances.size; k++) {
+                if (entrances.inside[k] == nodes[i]) {
+                    if (count == nodeEdges.length) {
+                        nodeEdges = Arrays.copyOf(nodeEdges, count << 1);
+                        nodeCosts = Arrays.copyOf(nodeCosts, count << 1);
+                    }
+                    nodeEdges[count] = entrances.outside[k];
+                    nodeCosts[count++] = PathFinder.BASE_WEIGHT;
+                }
+            }
+
+            for (int j = 0; j < size; j++) {
+                if (j == i) {
+                    continue;
+                }
+                final int cost = search.costOf(cellX(nodes[j]) - minX, cellY(nodes[j]) - minY);
+                if (cost != Integer.MAX_VALUE) {
+                    if (count == nodeEdges.length) {
+                        nodeEdges = Arrays.copyOf(nodeEdges, count << 1);
+                        nodeCosts = Arrays.copyOf(nodeCosts, count << 1);
+                    }
+                    nodeEdges[count] = nodes[j];
+                    nodeCosts[count++] = cost;
+                }
+            }
+            edges[i] = Arrays.copyOf(nodeEdges, count);
+            costs[i] = Arrays.copyOf(nodeCosts, count);
+        }
+        return new Cluster(nodes, heights, edges, costs);
+    }
+
+    private boolean hasMultipleLayers(int minX, int minY) {
+        for (int x = minX; x < minX + CLUSTER_SIZE; x++) {
+            for (int y = minY; y < minY + CLUSTER_SIZE; y++) {
+                if (geoEngine.getLayers(x, y) > 1) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scans the border between the cell line starting on (x, y) and its next line, adding an entrance on the middle of each walkable segment.
+     *
+     * @param vertical true if the border is between two columns, false if it's between two rows
+     * @param insideFirst true if the first line belongs to the cluster being built
+     */
+    private void scanBorder(Entrances entrances, int x, int y, boolean vertical, boolean insideFirst) {
+        final byte forward = vertical ? GeoStructure.CELL_FLAG_E : GeoStructure.CELL_FLAG_S;
+        final byte backward = vertical ? GeoStructure.CELL_FLAG_W : GeoStructure.CELL_FLAG_N;
+
+        int segmentStart = -1;
+        for (int i = 0; i <= CLUSTER_SIZE; i++) {
+            boolean walkable = false;
+            if (i < CLUSTER_SIZE) {
+                final int ax = vertical ? x : x + i;
+                final int ay = vertical ? y + i : y;
+                final int bx = vertical ? ax + 1 : ax;
+                final int by = vertical ? ay : ay + 1;
+                walkable = isWalkable(ax, ay, bx, by, forward, backward);
+            }
+
+            if (walkable && segmentStart < 0) {
+                segmentStart = i;
+            } else if (!walkable && segmentStart >= 0) {
+                final int middle = (segmentStart + i - 1) / 2;
+                final int ax = vertical ? x : x + middle;
+                final int ay = vertical ? y + middle : y;
+                final int a = cell(ax, ay);
+                final int b = vertical ? cell(ax + 1, ay) : cell(ax, ay + 1);
+                entrances.add(insideFirst ? a : b, insideFirst ? b : a);
+                segmentStart = -1;
+            }
+        }
+    }
+
+    private boolean isWalkable(int ax, int ay, int bx, int by, byte forward, byte backward) {
+        if (!geoEngine.hasGeoPos(ax, ay) || !geoEngine.hasGeoPos(bx, by)) {
+            return false;
+        }
+        final short za = geoEngine.getHeightNearest(ax, ay, TOP_LAYER);
+        final short zb = geoEngine.getHeightNearest(bx, by, TOP_LAYER);
+        return Math.abs(za - zb) <= MAX_HEIGHT_DIFFERENCE
+            && (geoEngine.getNsweNearest(ax, ay, za) & forward) != 0
+            && (geoEngine.getNsweNearest(bx, by, zb) & backward) != 0;
+    }
+
+    /**
+     * The entrances of a cluster.
+     */
+    public static final class Cluster {
+        private final int[] nodes;
+        private final short[] heights;
+        private final int[][] edges;
+        private final int[][] costs;
+
+        private Cluster(int[] nodes, short[] heights, int[][] edges, int[][] costs) {
+            this.nodes = nodes;
+            this.heights = heights;
+            this.edges = edges;
+            this.costs = costs;
+        }
+
+        int size() {
+            return nodes.length;
+        }
+
+        int node(int index) {
+            return nodes[index];
+        }
+
+        short height(int index) {
+            return heights[index];
+        }
+
+        int indexOf(int cell) {
+            for (int i = 0; i < nodes.length; i++) {
+                if (nodes[i] == cell) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int[] edges(int index) {
+            return edges[index];
+        }
+
+        int[] costs(int index) {
+            return costs[index];
+        }
+    }
+
+    private static final class Entrances {
+        private int[] inside = new int[16];
+        private int[] outside = new int[16];
+        private int size;
+
+        private void add(int insideCell, int outsideCell) {
+            if (size == inside.length) {
+                inside = Arrays.copyOf(inside, size << 1);
+                outside = Arrays.copyOf(outside, size << 1);
+            }
+            inside[size] = insideCell;
+            outside[size++] = outsideCell;
+        }
+    }
+
+    /**
+     * Dijkstra search bounded to a cluster, using the same movement rules of {@link PathFinder}.
+     */
+    private final class ClusterSearch {
+        private final int minX;
+        private final int minY;
+        private final int[] costs = new int[CLUSTER_CELLS];
+        private final short[] heights = new short[CLUSTER_CELLS];
+        private final byte[] nswes = new byte[CLUSTER_CELLS];
+        private final boolean[] known = new boolean[CLUSTER_CELLS];
+        private final IntHeap openList = new IntHeap(256);
+
+        private ClusterSearch(int minX, int minY) {
+            this.minX = minX;
+            this.minY = minY;
+        }
+
+        private void run(int x, int y, short z) {
+            Arrays.fill(costs, Integer.MAX_VALUE);
+            Arrays.fill(known, false);
+            openList.clear();
+
+            final int start = x * CLUSTER_SIZE + y;
+            load(start, z);
+            costs[start] = 0;
+            openList.push(start, 0);
+
+            while (!openList.isEmpty()) {
+                final int cost = openList.peekCost();
+                final int current = openList.pop();
+                if (cost > costs[current]) {
+                    continue;
+                }
+                expand(current, cost);
+            }
+        }
+
+        private void load(int node, int z) {
+            if (!known[node]) {
+                known[node] = true;
+                final int geoX = minX + node / CLUSTER_SIZE;
+                final int geoY = minY + node % CLUSTER_SIZE;
+                heights[node] = geoEngine.getHeightNearest(geoX, geoY, z);
+                nswes[node] = geoEngine.getNsweNearest(geoX, geoY, z);
+            }
+        }
+
+        private void expand(int current, int cost) {
+            final byte nswe = nswes[current];
+            final short z = heights[current];
+            final int x = current / CLUSTER_SIZE;
+            final int y = current % CLUSTER_SIZE;
+
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    final int nx = x + dx;
+                    final int ny = y + dy;
+                    if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= CLUSTER_SIZE || ny >= CLUSTER_SIZE || (nswe & direction(dx, dy)) == 0) {
+                        continue;
+                    }
+
+                    final int node = nx * CLUSTER_SIZE + ny;
+                    load(node, z);
+                    if (heights[node] > z + MAX_HEIGHT_DIFFERENCE) {
+                        continue;
+                    }
+
+                    final int weight = dx != 0 && dy != 0 ? PathFinder.DIAGONAL_WEIGHT : PathFinder.BASE_WEIGHT;
+                    final int nextCost = cost + (nswes[node] != NSWE_ALL ? weight * PathFinder.OBSTACLE_MULTIPLIER : weight);
+                    if (nextCost < costs[node]) {
+                        costs[node] = nextCost;
+                        openList.push(node, nextCost);
+                    }
+                }
+            }
+        }
+
+        private int costOf(int x, int y) {
+            return costs[x * CLUSTER_SIZE + y];
+        }
+    }
+
+    private static byte direction(int dx, int dy) {
+        if (dx == 0) {
+            return dy < 0 ? GeoStructure.CELL_FLAG_N : GeoStructure.CELL_FLAG_S;
+        }
+        if (dy == 0) {
+            return dx < 0 ? GeoStructure.CELL_FLAG_W : GeoStructure.CELL_FLAG_E;
+        }
+        if (dy < 0) {
+            return dx < 0 ? GeoStructure.CELL_FLAG_NW : GeoStructure.CELL_FLAG_NE;
+        }
+        return dx < 0 ? GeoStructure.CELL_FLAG_SW : GeoStructure.CELL_FLAG_SE;
+    }
+}
@@ -16,33 +16,35 @@
  * You should have received a copy of the GNU General Public License
  * along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
-package org.l2j.gameserver.model.effects;
-
-import org.l2j.gameserver.model.skills.BuffInfo;
+package org.l2j.gameserver.engine.geo.pathfinding;
 
 /**
- * Effect tick task.
+ * Points of a path found on geodata, from the origin (exclusive) to the target.
  *
- * @author Zoey76
+ * @author JoeAlisson
  */
-public class EffectTickTask implements Runnable {
-    private final BuffInfo _info;
-    private final AbstractEffect _effect;
+public interface GeoPath {
+
+    /**
+     * @return the amount of points of the path
+     */
+    int getPathSize();
 
     /**
-     * EffectTickTask constructor.
-     *
-     * @param info   the buff info
-     * @param effect the effect
+     * @param index the point index
+     * @return the geodata X coordinate of the point
      */
-    public EffectTickTask(BuffInfo info, AbstractEffect effect) {
-        _info = info;
-        _effect = effect;
-    }
+    int getPathX(int index);
 
+    /**
+     * @param index the point index
+     * @return the geodata Y coordinate of the point
+     */
+    int getPathY(int index);
 
-    @Override
-    public void run() {
-        _info.onTick(_effect);
-    }
+    /**
+     * @param index the point index
+     * @return the Z coordinate of the point
+     */
+    int getPathZ(int index);
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo.pathfinding;
+
+import io.github.joealisson.primitive.HashIntIntMap;
+import io.github.joealisson.primitive.IntIntMap;
+
+import java.util.Arrays;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.l2j.gameserver.engine.geo.pathfinding.ClusterGraph.cellX;
+import static org.l2j.gameserver.engine.geo.pathfinding.ClusterGraph.cellY;
+
+/**
+ * Path finder for targets out of the {@link PathFinder} search area.
+ *
+ * The path is searched first on the {@link ClusterGraph} from the origin to the target, linking them to the entrances of their clusters.
+ * Then each step of the abstract path is refined by the {@link PathFinder}.
+ * At most {@value #MAX_BUILDS} clusters are built by a search, so the caller thread is not held building a large area of the graph.
+ * An instance keeps the search state and the found path, so it must be confined to a single thread.
+ *
+ * @author JoeAlisson
+ */
+public final class HierarchicalPathFinder implements GeoPath {
+
+    private static final int MAX_ITERATIONS = 4096;
+    private static final int MAX_BUILDS = 16;
+    private static final int ORIGIN = -1;
+    private static final int TARGET = -2;
+
+    private final ClusterGraph graph;
+    private final PathFinder finder;
+
+    private final IntIntMap costs = new HashIntIntMap();
+    private final IntIntMap parents = new HashIntIntMap();
+    private final IntIntMap targetCosts = new HashIntIntMap();
+    private final IntHeap openList = new IntHeap(64);
+    private int[] steps = new int[32];
+
+    private int[] path = new int[96];
+    private int pathSize;
+
+    private int gtx;
+    private int gty;
+    private int builds;
+
+    public HierarchicalPathFinder(ClusterGraph graph, PathFinder finder) {
+        this.graph = graph;
+        this.finder = finder;
+    }
+
+    /**
+     * Finds the path between the geodata coordinates.
+     *
+     * @param gox : origin point x
+     * @param goy : origin point y
+     * @param goz : origin point z
+     * @param gtx : target point x
+     * @param gty : target point y
+     * @param gtz : target point z
+     * @return true if a path was found
+     */
+    public boolean findPath(int gox, int goy, int goz, int gtx, int gty, int gtz) {
+        pathSize = 0;
+        costs.clear();
+        parents.clear();
+        targetCosts.clear();
+        openList.clear();
+        this.gtx = gtx;
+        this.gty = gty;
+        builds = 0;
+
+        linkOrigin(gox, goy, goz);
+        linkTarget(gtx, gty, gtz);
+        if (openList.isEmpty() || targetCosts.isEmpty()) {
+            return false;
+        }
+
+        final int last = search();
+        return last != ORIGIN && refine(last, gox, goy, goz, gtx, gty, gtz);
+    }
+
+    private void linkOrigin(int gox, int goy, int goz) {
+        final var cluster = graph.getCluster(gox, goy);
+        for (int i = 0; i < cluster.size(); i++) {
+            final int node = cluster.node(i);
+            if (finder.findPath(gox, goy, goz, cellX(node), cellY(node), cluster.height(i))) {
+                costs.put(node, finder.getPathCost());
+                parents.put(node, ORIGIN);
+                openList.push(node, finder.getPathCost() + heuristic(node));
+            }
+        }
+    }
+
+    private void linkTarget(int gtx, int gty, int gtz) {
+        final var cluster = graph.getCluster(gtx, gty);
+        for (int i = 0; i < cluster.size(); i++) {
+            final int node = cluster.node(i);
+            if (finder.findPath(cellX(node), cellY(node), cluster.height(i), gtx, gty, gtz)) {
+                targetCosts.put(node, finder.getPathCost());
+            }
+        }
+    }
+
+    /**
+     * A* search on the cluster graph.
+     *
+     * @return the last node before the target or {@link #ORIGIN} if the target is not reachable
+     */
+    private int search() {
+        int bestCost = Integer.MAX_VALUE;
+        int bestNode = ORIGIN;
+
+        int iterations = 0;
+        while (!openList.isEmpty() && iterations++ < MAX_ITERATIONS) {
+            final int estimated = openList.peekCost();
+            final int current = openList.pop();
+            if (current == TARGET) {
+                return bestNode;
+            }
+
+            final int cost = costs.get(current);
+            if (estimated > cost + heuristic(current)) {
+                continue;
+            }
+
+            final int targetCost = targetCosts.getOrDefault(current, Integer.MAX_VALUE);
+            if (targetCost != Integer.MAX_VALUE && cost + targetCost < bestCost) {
+                bestCost = cost + targetCost;
+                bestNode = current;
+                openList.push(TARGET, bestCost);
+            }
+
+            final var cluster = clusterOf(current);
+            final int index = isNull(cluster) ? -1 : cluster.indexOf(current);
+            if (index < 0) {
+                continue;
+            }
+
+            final int[] edges = cluster.edges(index);
+            final int[] edgeCosts = cluster.costs(index);
+            for (int i = 0; i < edges.length; i++) {
+                final int next = edges[i];
+                final int nextCost = cost + edgeCosts[i];
+                if (nextCost < costs.getOrDefault(next, Integer.MAX_VALUE)) {
+                    costs.put(next, nextCost);
+                    parents.put(next, current);
+                    openList.push(next, nextCost + heuristic(next));
+                }
+            }
+        }
+        return ORIGIN;
+    }
+
+    /**
+     * Refines each step of the abstract path with the {@link PathFinder}.
+     */
+    private boolean refine(int last, int gox, int goy, int goz, int gtx, int gty, int gtz) {
+        int count = 0;
+        for (int node = last; node != ORIGIN; node = parents.get(node)) {
+            if (count == steps.length) {
+                steps = Arrays.copyOf(steps, count << 1);
+            }
+            steps[count++] = node;
+        }
+
+        int x = gox;
+        int y = goy;
+        int z = goz;
+        for (int i = count - 1; i >= 0; i--) {
+            final int node = steps[i];
+            final var cluster = graph.getCluster(cellX(node), cellY(node));
+            final int nodeZ = cluster.height(cluster.indexOf(node));
+            if (!appendPath(x, y, z, cellX(node), cellY(node), nodeZ)) {
+                return false;
+            }
+            x = cellX(node);
+            y = cellY(node);
+            if (finder.getPathSize() > 0) {
+                z = finder.getPathZ(finder.getPathSize() - 1);
+            }
+        }
+        return appendPath(x, y, z, gtx, gty, gtz);
+    }
+
+    private boolean appendPath(int x, int y, int z, int tx, int ty, int tz) {
+        if (!finder.findPath(x, y, z, tx, ty, tz)) {
+            return false;
+        }
+
+        final int size = finder.getPathSize();
+        if ((pathSize + size) * 3 > path.length) {
+            path = Arrays.copyOf(path, Math.max(path.length << 1, (pathSize + size) * 3));
+        }
+
+        for (int i = 0; i < size; i++) {
+            final int index = pathSize++ * 3;
+            path[index] = finder.getPathX(i);
+            path[index + 1] = finder.getPathY(i);
+            path[index + 2] = finder.getPathZ(i);
+        }
+        return true;
+    }
+
+    /**
+     * @return the cluster of the node or null if it isn't built and the search has already built {@link #MAX_BUILDS} clusters
+     */
+    private ClusterGraph.Cluster clusterOf(int node) {
+        final var cluster = graph.findCluster(cellX(node), cellY(node));
+        if (nonNull(cluster) || builds >= MAX_BUILDS) {
+            return cluster;
+        }
+        builds++;
+        return graph.getCluster(cellX(node), cellY(node));
+    }
+
+    private int heuristic(int node) {
+        final int dx = Math.abs(cellX(node) - gtx);
+        final int dy = Math.abs(cellY(node) - gty);
+        final int diagonal = Math.min(dx, dy);
+        return (PathFinder.DIAGONAL_WEIGHT * diagonal + PathFinder.BASE_WEIGHT * (Math.max(dx, dy) - diagonal)) * PathFinder.HEURISTIC_MULTIPLIER;
+    }
+
+    @Override
+    public int getPathSize() {
+        return pathSize;
+    }
+
+    @Override
+    public int getPathX(int index) {
+        return path[index * 3];
+    }
+
+    @Override
+    public int getPathY(int index) {
+        return path[index * 3 + 1];
+    }
+
+    @Override
+    public int getPathZ(int index) {
+        return path[index * 3 + 2];
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of int values ordered by an int cost.
+ *
+ * @author JoeAlisson
+ */
+final class IntHeap {
+
+    private int[] values;
+    private int[] costs;
+    private int size;
+
+    IntHeap(int capacity) {
+        values = new int[capacity];
+        costs = new int[capacity];
+    }
+
+    void push(int value, int cost) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+            costs = Arrays.copyOf(costs, size << 1);
+        }
+
+        int i = size++;
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (costs[parent] <= cost) {
+                break;
+            }
+            values[i] = values[parent];
+            costs[i] = costs[parent];
+            i = parent;
+        }
+        values[i] = value;
+        costs[i] = cost;
+    }
+
+    /**
+     * @return the cost of the value on top of the heap
+     */
+    int peekCost() {
+        return costs[0];
+    }
+
+    /**
+     * Removes the value with the lowest cost.
+     *
+     * @return the removed value
+     */
+    int pop() {
+        final int result = values[0];
+        final int last = values[--size];
+        final int lastCost = costs[size];
+
+        int i = 0;
+        int child;
+        while ((child = (i << 1) + 1) < size) {
+            if (child + 1 < size && costs[child + 1] < costs[child]) {
+                child++;
+            }
+            if (lastCost <= costs[child]) {
+                break;
+            }
+            values[i] = values[child];
+            costs[i] = costs[child];
+            i = child;
+        }
+        values[i] = last;
+        costs[i] = lastCost;
+        return result;
+    }
+
+    /**
+     * Shrinks the heap to the capacity when it grew beyond it, discarding the values.
+     */
+    void trim(int capacity) {
+        size = 0;
+        if (values.length > capacity) {
+            values = new int[capacity];
+            costs = new int[capacity];
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
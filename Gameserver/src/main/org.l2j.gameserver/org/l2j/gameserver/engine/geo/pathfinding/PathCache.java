@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo.pathfinding;
+
+import org.l2j.gameserver.engine.geo.GeoEngine;
+import org.l2j.gameserver.model.Location;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of the paths found between geodata cells.
+ *
+ * The paths not found are cached too, so the creatures that can't reach a target don't search it again and again.
+ * A failed search doesn't know which area could open a path, so these entries expire after {@value #FAILURE_TTL} ms instead of being invalidated.
+ * The cached paths are shared by all callers and must not be changed.
+ *
+ * @author JoeAlisson
+ */
+public final class PathCache {
+
+    private static final long FAILURE_TTL = 5000;
+
+    private final Map<Key, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PathCache(int capacity) {
+        entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the key of the path between the geodata coordinates in the instance
+     */
+    public static Key key(int gox, int goy, int goz, int gtx, int gty, int gtz, int instanceId) {
+        return new Key(pack(gox, goy, goz), pack(gtx, gty, gtz), instanceId);
+    }
+
+    private static long pack(int geoX, int geoY, int z) {
+        return (long) geoX << 32 | (long) geoY << 16 | (z & 0xFFFF);
+    }
+
+    /**
+     * @param key the path key
+     * @return the cached entry or null if the path is not cached
+     */
+    public Entry get(Key key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Caches the path.
+     *
+     * @param key the path key
+     * @param path the path or null when the path is not found
+     */
+    public void put(Key key, List<Location> path) {
+        final long origin = key.origin;
+        final long target = key.target;
+        int minX = Math.min(geoX(origin), geoX(target));
+        int minY = Math.min(geoY(origin), geoY(target));
+        int maxX = Math.max(geoX(origin), geoX(target));
+        int maxY = Math.max(geoY(origin), geoY(target));
+
+        if (path != null) {
+            for (Location location : path) {
+                final int geoX = GeoEngine.getGeoX(location.getX());
+                final int geoY = GeoEngine.getGeoY(location.getY());
+                minX = Math.min(minX, geoX);
+                minY = Math.min(minY, geoY);
+                maxX = Math.max(maxX, geoX);
+                maxY = Math.max(maxY, geoY);
+            }
+        }
+
+        final var entry = new Entry(path, minX, minY, maxX, maxY, path == null ? System.currentTimeMillis() + FAILURE_TTL : 0);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Removes the paths that pass by the area, the area and the paths bounds are geodata coordinates.
+     */
+    public void invalidate(int minX, int minY, int maxX, int maxY) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> {
+                if (entry.minX <= maxX && entry.maxX >= minX && entry.minY <= maxY && entry.maxY >= minY) {
+                    invalidations.increment();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    private static int geoX(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int geoY(long position) {
+        return (int) (position >>> 16) & 0xFFFF;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public record Key(long origin, long target, int instanceId) {
+    }
+
+    /**
+     * A cached path, the bounds are used to find the paths affected by a change on the geodata.
+     * Only the paths not found have an expiration.
+     */
+    public record Entry(List<Location> path, int minX, int minY, int maxX, int maxY, long expiration) {
+
+        private boolean isExpired() {
+            return expiration > 0 && expiration < System.currentTimeMillis();
+        }
+    }
+}
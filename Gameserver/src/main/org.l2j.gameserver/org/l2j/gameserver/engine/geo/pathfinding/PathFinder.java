@@ -0,0 +1,333 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.geo.pathfinding;
+
+import org.l2j.gameserver.engine.geo.GeoEngine;
+import org.l2j.gameserver.engine.geo.geodata.GeoStructure;
+
+import java.util.Arrays;
+
+/**
+ * A* path finder over the geodata cells.
+ *
+ * The search is kept on primitive arrays: a node is the index of its cell on the search area, the open list is a binary heap of node indexes
+ * and the found path is written on a coordinates buffer. The arrays are reused by the next searches, so an instance must be confined to a single thread.
+ *
+ * @author DS, Hasha; Credits to Diamond
+ * @author JoeAlisson
+ */
+public final class PathFinder implements GeoPath {
+
+    static final int BASE_WEIGHT = 10;
+    static final int DIAGONAL_WEIGHT = 14;
+    static final int HEURISTIC_MULTIPLIER = 2;
+    static final int OBSTACLE_MULTIPLIER = 10;
+    private static final int MAX_ITERATIONS = 10_000;
+    private static final int TARGET_HEIGHT_TOLERANCE = 8;
+
+    /**
+     * The maximum size of the search area side.
+     */
+    public static final int MAX_SIZE = 500;
+    private static final int MIN_SIZE = 64;
+
+    /**
+     * The maximum size of the search area side whose buffers are kept by {@link #trim()}.
+     */
+    private static final int KEPT_SIZE = 192;
+    private static final int OPEN_LIST_CAPACITY = 256;
+
+    private static final byte NSWE_ALL = (byte) 0xFF;
+    private static final int[] DIRECTIONS = {
+        GeoStructure.CELL_FLAG_N, 0, -1, BASE_WEIGHT,
+        GeoStructure.CELL_FLAG_S, 0, 1, BASE_WEIGHT,
+        GeoStructure.CELL_FLAG_W, -1, 0, BASE_WEIGHT,
+        GeoStructure.CELL_FLAG_E, 1, 0, BASE_WEIGHT,
+        GeoStructure.CELL_FLAG_NW, -1, -1, DIAGONAL_WEIGHT,
+        GeoStructure.CELL_FLAG_NE, 1, -1, DIAGONAL_WEIGHT,
+        GeoStructure.CELL_FLAG_SW, -1, 1, DIAGONAL_WEIGHT,
+        GeoStructure.CELL_FLAG_SE, 1, 1, DIAGONAL_WEIGHT
+    };
+
+    private final GeoEngine geoEngine;
+
+    // nodes data, indexed by the node index. A node belongs to the current search only when its generation is the current generation
+    private int[] generations = new int[0];
+    private int[] costs;
+    private int[] parents;
+    private short[] heights;
+    private byte[] nswes;
+    private boolean[] closed;
+    private int generation;
+
+    private final IntHeap openList = new IntHeap(OPEN_LIST_CAPACITY);
+
+    // found path, triples of geo x, geo y and z
+    private int[] path = new int[96];
+    private int pathSize;
+    private int pathCost;
+
+    // search area
+    private int size;
+    private int originX;
+    private int originY;
+
+    // target
+    private int gtx;
+    private int gty;
+    private int gtz;
+
+    public PathFinder(GeoEngine geoEngine) {
+        this.geoEngine = geoEngine;
+    }
+
+    /**
+     * Finds the path between the geodata coordinates.
+     * The path is kept on this finder until the next search, and only the points where the direction changes are kept.
+     *
+     * @param gox : origin point x
+     * @param goy : origin point y
+     * @param goz : origin point z
+     * @param gtx : target point x
+     * @param gty : target point y
+     * @param gtz : target point z
+     * @return true if a path was found
+     */
+    public boolean findPath(int gox, int goy, int goz, int gtx, int gty, int gtz) {
+        pathSize = 0;
+        size = searchSize(gox, goy, gtx, gty);
+        if (size > MAX_SIZE) {
+            return false;
+        }
+
+        prepare();
+
+        // the middle of the line (gox,goy) - (gtx,gty) is in the center of the search area
+        originX = gox + ((gtx - gox - size) / 2);
+        originY = goy + ((gty - goy - size) / 2);
+        this.gtx = gtx;
+        this.gty = gty;
+        this.gtz = gtz;
+
+        final int start = node(gox, goy, goz);
+        costs[start] = 0;
+        openList.push(start, heuristic(gox, goy, heights[start]));
+
+        int iterations = 0;
+        while (!openList.isEmpty() && iterations++ < MAX_ITERATIONS) {
+            final int current = openList.pop();
+            if (closed[current]) {
+                continue;
+            }
+            closed[current] = true;
+
+            final int x = originX + current / size;
+            final int y = originY + current % size;
+            if (x == gtx && y == gty && Math.abs(heights[current] - gtz) < TARGET_HEIGHT_TOLERANCE) {
+                pathCost = costs[current];
+                buildPath(current);
+                return true;
+            }
+            expand(current, x, y);
+        }
+        return false;
+    }
+
+    private static int searchSize(int gox, int goy, int gtx, int gty) {
+        return MIN_SIZE + 2 * Math.max(Math.abs(gox - gtx), Math.abs(goy - gty));
+    }
+
+    /**
+     * @return true if the target is close enough to the origin to be searched
+     */
+    public static boolean isInSearchArea(int gox, int goy, int gtx, int gty) {
+        return searchSize(gox, goy, gtx, gty) <= MAX_SIZE;
+    }
+
+    /**
+     * Releases the buffers grown by searches bigger than {@value #KEPT_SIZE}x{@value #KEPT_SIZE}, so a finder doesn't keep the buffers of its largest search forever.
+     * The found path is kept.
+     */
+    public void trim() {
+        if (generations.length > KEPT_SIZE * KEPT_SIZE) {
+            generations = new int[0];
+            costs = null;
+            parents = null;
+            heights = null;
+            nswes = null;
+            closed = null;
+        }
+        openList.trim(OPEN_LIST_CAPACITY);
+    }
+
+    private void prepare() {
+        final int nodes = size * size;
+        if (generations.length < nodes) {
+            generations = new int[nodes];
+            costs = new int[nodes];
+            parents = new int[nodes];
+            heights = new short[nodes];
+            nswes = new byte[nodes];
+            closed = new boolean[nodes];
+            generation = 0;
+        }
+
+        if (++generation == 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        openList.clear();
+    }
+
+    /**
+     * Returns the node of the coordinates, initializing it on the first access of the search.
+     *
+     * @return the node index or -1 if the coordinates are out of the search area
+     */
+    private int node(int x, int y, int z) {
+        final int ix = x - originX;
+        final int iy = y - originY;
+        if (ix < 0 || ix >= size || iy < 0 || iy >= size) {
+            return -1;
+        }
+
+        final int node = ix * size + iy;
+        if (generations[node] != generation) {
+            generations[node] = generation;
+            costs[node] = Integer.MAX_VALUE;
+            parents[node] = -1;
+            heights[node] = geoEngine.getHeightNearest(x, y, z);
+            nswes[node] = geoEngine.getNsweNearest(x, y, z);
+            closed[node] = false;
+        }
+        return node;
+    }
+
+    private void expand(int current, int x, int y) {
+        final byte nswe = nswes[current];
+        if (nswe == 0) {
+            return;
+        }
+
+        final short z = heights[current];
+        for (int i = 0; i < DIRECTIONS.length; i += 4) {
+            if ((nswe & DIRECTIONS[i]) == 0) {
+                continue;
+            }
+
+            final int nx = x + DIRECTIONS[i + 1];
+            final int ny = y + DIRECTIONS[i + 2];
+            final int node = node(nx, ny, z);
+
+            // out of search area, already expanded or Z distance between nearby cells is higher than cell size
+            if (node == -1 || closed[node] || heights[node] > z + 2 * GeoStructure.CELL_HEIGHT) {
+                continue;
+            }
+
+            final int weight = nswes[node] != NSWE_ALL ? DIRECTIONS[i + 3] * OBSTACLE_MULTIPLIER : DIRECTIONS[i + 3];
+            final int cost = costs[current] + weight;
+            if (cost < costs[node]) {
+                costs[node] = cost;
+                parents[node] = current;
+                openList.push(node, cost + heuristic(nx, ny, heights[node]));
+            }
+        }
+    }
+
+    /**
+     * Octile distance to the target, weighted to favor the nodes closer to the target.
+     */
+    private int heuristic(int x, int y, int z) {
+        final int dx = Math.abs(x - gtx);
+        final int dy = Math.abs(y - gty);
+        final int dz = Math.abs(z - gtz) / GeoStructure.CELL_HEIGHT;
+        final int diagonal = Math.min(dx, dy);
+        return (DIAGONAL_WEIGHT * diagonal + BASE_WEIGHT * (Math.max(dx, dy) - diagonal + dz)) * HEURISTIC_MULTIPLIER;
+    }
+
+    /**
+     * Writes the path from the origin (exclusive) to the target, keeping only the points where the direction changes.
+     */
+    private void buildPath(int target) {
+        int dx = 0;
+        int dy = 0;
+        int node = target;
+        int parent = parents[node];
+
+        // collects the points from the target to the origin
+        while (parent != -1) {
+            final int nx = parent / size - node / size;
+            final int ny = parent % size - node % size;
+            if (dx != nx || dy != ny) {
+                addPoint(node);
+                dx = nx;
+                dy = ny;
+            }
+            node = parent;
+            parent = parents[node];
+        }
+
+        // reverses the points order
+        for (int i = 0, j = (pathSize - 1) * 3; i < j; i += 3, j -= 3) {
+            for (int k = 0; k < 3; k++) {
+                final int temp = path[i + k];
+                path[i + k] = path[j + k];
+                path[j + k] = temp;
+            }
+        }
+    }
+
+    private void addPoint(int node) {
+        final int index = pathSize * 3;
+        if (index + 3 > path.length) {
+            path = Arrays.copyOf(path, path.length << 1);
+        }
+        path[index] = originX + node / size;
+        path[index + 1] = originY + node % size;
+        path[index + 2] = heights[node];
+        pathSize++;
+    }
+
+    /**
+     * @return the movement cost of the last found path
+     */
+    public int getPathCost() {
+        return pathCost;
+    }
+
+    @Override
+    public int getPathSize() {
+        return pathSize;
+    }
+
+    @Override
+    public int getPathX(int index) {
+        return path[index * 3];
+    }
+
+    @Override
+    public int getPathY(int index) {
+        return path[index * 3 + 1];
+    }
+
+    @Override
+    public int getPathZ(int index) {
+        return path[index * 3 + 2];
+    }
+}
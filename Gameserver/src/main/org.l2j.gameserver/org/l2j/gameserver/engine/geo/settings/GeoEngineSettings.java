@@ -28,6 +28,10 @@ public class GeoEngineSettings {
 
     private static SyncMode syncMode;
     private static boolean enabledPathFinding;
+    private static boolean preloadGeodata;
+    private static boolean enabledHierarchicalPathFinding;
+    private static int pathCacheSize;
+    private static boolean enabledSightCache;
 
     private GeoEngineSettings() {
         // helper class
@@ -36,6 +40,10 @@ public class GeoEngineSettings {
     public static void load(SettingsFile settingsFile) {
         syncMode = settingsFile.getEnum("SyncMode", SyncMode.class, SyncMode.Z_ONLY);
         enabledPathFinding = settingsFile.getBoolean("EnablePathFinding", true);
+        preloadGeodata = settingsFile.getBoolean("PreloadGeodata", false);
+        enabledHierarchicalPathFinding = settingsFile.getBoolean("EnableHierarchicalPathFinding", true);
+        pathCacheSize = settingsFile.getInt("PathCacheSize", 4096);
+        enabledSightCache = settingsFile.getBoolean("EnableSightCache", true);
     }
 
     public static boolean isEnabledPathFinding() {
@@ -46,6 +54,22 @@ public class GeoEngineSettings {
         enabledPathFinding = enable;
     }
 
+    public static boolean isEnabledHierarchicalPathFinding() {
+        return enabledHierarchicalPathFinding;
+    }
+
+    public static int pathCacheSize() {
+        return pathCacheSize;
+    }
+
+    public static boolean isEnabledSightCache() {
+        return enabledSightCache;
+    }
+
+    public static boolean isPreloadGeodata() {
+        return preloadGeodata;
+    }
+
     public static void setSyncMode(SyncMode mode) {
         syncMode = mode;
     }
@@ -20,6 +20,7 @@ package org.l2j.gameserver.engine.item;
 
 import io.github.joealisson.primitive.HashIntSet;
 import io.github.joealisson.primitive.IntSet;
+import org.l2j.commons.database.DatabaseAccess;
 import org.l2j.commons.threading.ThreadPool;
 import org.l2j.gameserver.data.database.dao.ItemDAO;
 import org.l2j.gameserver.data.database.data.ItemData;
@@ -65,6 +66,7 @@ import org.l2j.gameserver.network.SystemMessageId;
 import org.l2j.gameserver.network.serverpackets.*;
 import org.l2j.gameserver.settings.CharacterSettings;
 import org.l2j.gameserver.settings.GeneralSettings;
+import org.l2j.gameserver.taskmanager.ItemUpdateTaskManager;
 import org.l2j.gameserver.util.GMAudit;
 import org.l2j.gameserver.world.World;
 import org.l2j.gameserver.world.WorldRegion;
@@ -116,7 +118,6 @@ public final class Item extends WorldObject {
     private boolean published;
     private boolean isProtected;
     private boolean existsInDb; // if a record exists in DB.
-    private boolean storedInDb; // if DB data is up-to-date.
 
     /**
      * Constructor of the Item from the objetId and the description of the item given by the ItemTemplate.
@@ -142,7 +143,6 @@ public final class Item extends WorldObject {
         setSpawned(true);
         setXYZ(data.getX(), data.getY(), data.getZ());
         existsInDb = false;
-        storedInDb = false;
     }
 
     public Item(ItemData data) {
@@ -156,7 +156,6 @@ public final class Item extends WorldObject {
         this.data = data;
 
         existsInDb = true;
-        storedInDb = true;
 
         if(isEquipable()) {
             restoreAugmentation();
@@ -234,7 +233,6 @@ public final class Item extends WorldObject {
         removeSkillsFromOwner();
 
         data.setOwnerId(ownerId);
-        storedInDb = false;
 
         giveSkillsToOwner();
     }
@@ -290,7 +288,6 @@ public final class Item extends WorldObject {
 
         data.setLoc(loc);
         data.setLocData(locData);
-        storedInDb = false;
 
         giveSkillsToOwner();
     }
@@ -308,8 +305,6 @@ public final class Item extends WorldObject {
             setCount(data.getCount() + count);
         }
 
-        storedInDb = false;
-
         if (GeneralSettings.logItems() && process != null && (!GeneralSettings.smallLogItems() || template.isEquipable() || template.getId() == CommonItem.ADENA)){
             LOG_ITEMS.info("CHANGE: {}, +{} item {} ({}), prev count {}, {}, {}", process, this, data.getEnchantLevel(), data.getCount(), old, creator, reference);
         }
@@ -357,7 +352,11 @@ public final class Item extends WorldObject {
         clearEnchantStats();
         data.setEnchantLevel(enchantLevel);
         applyEnchantStats();
-        storedInDb = false;
+
+        // the stats finalizers read the enchant level of the equipped items
+        if (isEquipped()) {
+            doIfNonNull(getActingPlayer(), player -> player.getStats().invalidateValues());
+        }
     }
 
     public void applyAugmentationBonus(Player player) {
@@ -415,6 +414,18 @@ public final class Item extends WorldObject {
     }
 
     public void updateDatabase(boolean force) {
+        updateDatabase(force, true);
+    }
+
+    /**
+     * Writes the changes without deferring a count only change to the {@link ItemUpdateTaskManager}.
+     * Used when part of the count moves to another item, so a crash can't keep the moved count on both items.
+     */
+    public void updateDatabaseImmediately() {
+        updateDatabase(true, false);
+    }
+
+    private void updateDatabase(boolean force, boolean deferCount) {
         dbLock.lock();
 
         try {
@@ -422,7 +433,7 @@ public final class Item extends WorldObject {
                 if (cannotBeStored()) {
                     removeFromDb();
                 } else if (force) {
-                    updateInDb();
+                    updateInDb(deferCount);
                 }
             } else {
                 if (cannotBeStored()) {
@@ -442,21 +453,69 @@ public final class Item extends WorldObject {
     private void removeFromDb() {
         getDAO(ItemDAO.class).deleteItem(objectId);
         existsInDb = false;
-        storedInDb = false;
     }
 
-    private void updateInDb() {
-        if (storedInDb) {
+    private void updateInDb(boolean deferCount) {
+        if (!data.isChanged()) {
             return;
         }
-        getDAO(ItemDAO.class).save(data);
+
+        // the count of stackable items changes too often, it's written later together with the other items of the owner
+        if (deferCount && data.getChanges() == ItemData.COUNT) {
+            ItemUpdateTaskManager.getInstance().add(this);
+            return;
+        }
+
+        // cleared before the write, so a change made until the transaction commits is still written later
+        final int changes = data.clearChanges();
+        try {
+            getDAO(ItemDAO.class).save(data);
+        } catch (RuntimeException e) {
+            data.restoreChanges(changes);
+            throw e;
+        }
+        DatabaseAccess.onTransactionRollback(() -> data.restoreChanges(changes));
         updateItemVariation();
     }
 
+    /**
+     * Writes the pending count change to the database, only the changed fields are written.
+     * The changes are cleared when the write starts, so a change made until the commit keeps the item dirty.
+     * When the transaction is rolled back the written changes are restored and the item is scheduled to be written again.
+     */
+    public void storeChanges() {
+        dbLock.lock();
+        try {
+            if (!existsInDb || !data.isChanged() || cannotBeStored()) {
+                return;
+            }
+
+            final int changes = data.clearChanges();
+            try {
+                if (changes == ItemData.COUNT) {
+                    getDAO(ItemDAO.class).updateCount(objectId, data.getCount());
+                } else {
+                    getDAO(ItemDAO.class).save(data);
+                }
+            } catch (RuntimeException e) {
+                data.restoreChanges(changes);
+                ItemUpdateTaskManager.getInstance().add(this);
+                throw e;
+            }
+
+            DatabaseAccess.onTransactionRollback(() -> {
+                data.restoreChanges(changes);
+                ItemUpdateTaskManager.getInstance().add(this);
+            });
+        } finally {
+            dbLock.unlock();
+        }
+    }
+
     private void insertIntoDb() {
+        data.clearChanges();
         getDAO(ItemDAO.class).save(data);
         existsInDb = true;
-        storedInDb = true;
         if (nonNull(augmentation)) {
             updateItemVariation();
         }
@@ -779,7 +838,6 @@ public final class Item extends WorldObject {
         }
 
         data.setCount(max(0, count));
-        storedInDb = false;
     }
 
     public boolean isEnchantable() {
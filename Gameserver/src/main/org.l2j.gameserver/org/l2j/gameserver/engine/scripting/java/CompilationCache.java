@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.scripting.java;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Keeps the hash of the sources of each script group compiled, so only the groups changed since the last compilation are compiled again.
+ * The cache is invalidated when the compiler fingerprint (java version, compile options and the content of the module path) changes,
+ * so the scripts are compiled again against an upgraded server.
+ *
+ * @author JoeAlisson
+ */
+final class CompilationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompilationCache.class);
+    private static final String CACHE_FILE = "script-cache.properties";
+    private static final String FINGERPRINT_KEY = "compiler.fingerprint";
+
+    private final Path destination;
+    private final String fingerprint;
+    private final Properties hashes = new Properties();
+
+    CompilationCache(Path destination, String fingerprint) {
+        this.destination = destination;
+        this.fingerprint = fingerprint;
+        load();
+    }
+
+    /**
+     * @param options the compile options
+     * @param modulePath the module path the scripts are compiled against
+     * @return the compile options followed by the SHA-256 of each jar on the module path
+     */
+    static String fingerprint(List<String> options, String modulePath) {
+        final var fingerprint = new StringBuilder(String.join(" ", options));
+        if (isNull(modulePath)) {
+            return fingerprint.toString();
+        }
+
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            for (String entry : modulePath.split(File.pathSeparator)) {
+                for (Path file : modulePathFiles(Path.of(entry))) {
+                    fingerprint.append(' ').append(file.getFileName()).append('=').append(hashOf(file, digest));
+                }
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * @return the jars of a module path directory, or all files of an exploded module
+     */
+    private static List<Path> modulePathFiles(Path entry) {
+        if (!Files.isDirectory(entry)) {
+            return Files.isRegularFile(entry) ? List.of(entry) : List.of();
+        }
+
+        try (Stream<Path> files = Files.walk(entry)) {
+            final var regularFiles = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            final var jars = regularFiles.stream().filter(file -> file.getParent().equals(entry) && file.toString().endsWith(".jar")).collect(Collectors.toList());
+            return jars.isEmpty() ? regularFiles : jars;
+        } catch (IOException e) {
+            LOGGER.warn("Could not list the module path entry {}", entry, e);
+            return List.of();
+        }
+    }
+
+    private static String hashOf(Path file, MessageDigest digest) {
+        digest.reset();
+        try (InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            LOGGER.warn("Could not read the module path file {}", file, e);
+            // an unreadable file never matches, forcing the compilation
+            return "unreadable-" + System.nanoTime();
+        }
+    }
+
+    private void load() {
+        final var file = destination.resolve(CACHE_FILE);
+        if (Files.notExists(file)) {
+            return;
+        }
+
+        try (var reader = Files.newBufferedReader(file)) {
+            hashes.load(reader);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read the script compilation cache {}", file, e);
+            hashes.clear();
+        }
+
+        if (!fingerprint.equals(hashes.getProperty(FINGERPRINT_KEY))) {
+            hashes.clear();
+        }
+    }
+
+    /**
+     * @return the groups changed since the last compilation and the groups requiring them
+     */
+    Set<ScriptGroup> changedGroups(Collection<ScriptGroup> groups) {
+        final Set<ScriptGroup> changed = new HashSet<>();
+        for (ScriptGroup group : groups) {
+            if (!group.hash().equals(hashes.getProperty(group.name())) || (!group.isUnnamed() && Files.notExists(destination.resolve(group.name())))) {
+                changed.add(group);
+            }
+        }
+
+        boolean added = !changed.isEmpty();
+        while (added) {
+            added = false;
+            for (ScriptGroup group : groups) {
+                if (!changed.contains(group) && changed.stream().anyMatch(c -> group.requires().contains(c.name()))) {
+                    added = changed.add(group);
+                }
+            }
+        }
+        return changed;
+    }
+
+    void update(ScriptGroup group) {
+        synchronized (hashes) {
+            hashes.setProperty(group.name(), group.hash());
+        }
+    }
+
+    void invalidate(ScriptGroup group) {
+        synchronized (hashes) {
+            hashes.remove(group.name());
+        }
+    }
+
+    void store() {
+        final var file = destination.resolve(CACHE_FILE);
+        synchronized (hashes) {
+            hashes.setProperty(FINGERPRINT_KEY, fingerprint);
+            try (var writer = Files.newBufferedWriter(file)) {
+                hashes.store(writer, "Hash of the compiled scripts sources");
+            } catch (IOException e) {
+                LOGGER.warn("Could not store the script compilation cache {}", file, e);
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.l2j.gameserver.engine.scripting.java;
 
+import org.l2j.commons.threading.ThreadPool;
 import org.l2j.commons.util.FilterUtil;
 import org.l2j.commons.util.Util;
 import org.l2j.gameserver.engine.scripting.AbstractExecutionContext;
@@ -26,10 +27,7 @@ import org.l2j.gameserver.settings.ServerSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.tools.Diagnostic;
-import javax.tools.DiagnosticListener;
-import javax.tools.JavaFileObject;
-import javax.tools.StandardLocation;
+import javax.tools.*;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.lang.module.Configuration;
@@ -42,6 +40,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.*;
@@ -66,37 +65,124 @@ public final class JavaExecutionContext extends AbstractExecutionContext<JavaScr
 
         sourcePath = ServerSettings.dataPackDirectory().resolve(requireNonNullElse(getProperty("source.path"), "data/scripts"));
         destination = Path.of(requireNonNullElse(getProperty("compiled.path"), "compiledScripts"));
-        forceCompile =  Boolean.parseBoolean(requireNonNullElse(getProperty("force.compile"), "true"));
+        forceCompile =  Boolean.parseBoolean(requireNonNullElse(getProperty("force.compile"), "false"));
 
         try {
-            compileModuleInfo();
-            compile(sourcePath);
+            Files.createDirectories(destination);
+            initializeScriptingFileManager();
+            compileScripts();
         } catch (Exception e) {
             LOGGER.error("Could not compile Java Scripts", e);
         }
     }
 
-    private void compileModuleInfo() throws Exception {
-        Files.createDirectories(destination);
-        initializeScriptingFileManager();
-
-        var options = new ArrayList<>(compileOptions());
-        options.add("--module-source-path");
-        options.add(sourcePath.toString());
-
-        compile(findModuleInfo(), options);
+    private void initializeScriptingFileManager() throws IOException {
+        scriptingFileManager = new ScriptingFileManager(createFileManager());
     }
 
-    private void initializeScriptingFileManager() throws IOException {
+    private StandardJavaFileManager createFileManager() throws IOException {
         var fileManager = getScriptingEngine().getCompiler().getStandardFileManager(listener, null, StandardCharsets.UTF_8);
         fileManager.setLocation(StandardLocation.CLASS_PATH, Collections.emptyList());
         fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, Collections.singletonList(destination));
-        scriptingFileManager = new ScriptingFileManager(fileManager);
+        return fileManager;
+    }
+
+    /**
+     * Compiles the script groups changed since the last compilation, the groups that don't depend on each other are compiled in parallel.
+     * The unchanged groups are loaded from its class files.
+     */
+    private void compileScripts() throws IOException {
+        final long start = System.currentTimeMillis();
+        final var groups = ScriptGroup.findGroups(sourcePath);
+        final var cache = new CompilationCache(destination, CompilationCache.fingerprint(compileOptions(), System.getProperty("jdk.module.path")));
+        final Set<ScriptGroup> changed = forceCompile ? new HashSet<>(groups) : cache.changedGroups(groups);
+        final long scanned = System.currentTimeMillis();
+
+        compileInWaves(changed, cache);
+        cache.store();
+        final long compiled = System.currentTimeMillis();
+
+        for (ScriptGroup group : groups) {
+            registerCompiledScripts(group);
+        }
+        tryConfigureModuleLayer();
+
+        LOGGER.info("Scripts: {} groups, {} compiled. Scanning {} ms, compiling {} ms, loading {} ms", groups.size(), changed.size(),
+                scanned - start, compiled - scanned, System.currentTimeMillis() - compiled);
+    }
+
+    private void compileInWaves(Set<ScriptGroup> changed, CompilationCache cache) {
+        final Set<ScriptGroup> pending = new HashSet<>(changed);
+        while (!pending.isEmpty()) {
+            final List<ScriptGroup> wave = pending.stream().filter(group -> pending.stream().noneMatch(other -> group.requires().contains(other.name()))).collect(Collectors.toList());
+            if (wave.isEmpty()) {
+                LOGGER.error("Cyclic requirement between the script modules {}", pending.stream().map(ScriptGroup::name).collect(Collectors.toList()));
+                return;
+            }
+
+            final var tasks = wave.stream().map(group -> ForkJoinTask.adapt(() -> compileGroup(group, cache))).collect(Collectors.toList());
+            ThreadPool.invokeForked(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            wave.forEach(pending::remove);
+        }
     }
 
-    private List<Path> findModuleInfo() throws IOException {
-        try(var files = Files.find(sourcePath, Integer.MAX_VALUE, (path, attributes) -> "module-info.java".equals(path.getFileName().toString()))) {
-            return files.collect(Collectors.toList());
+    private void compileGroup(ScriptGroup group, CompilationCache cache) {
+        final long start = System.currentTimeMillis();
+        try (var fileManager = createFileManager()) {
+            final List<String> options = new ArrayList<>(compileOptions());
+            if (!group.isUnnamed()) {
+                cleanCompiledGroup(group);
+                // the required modules are only read from sources, its classes are written by its own compilation
+                options.set(options.indexOf("-implicit:class"), "-implicit:none");
+                fileManager.setLocationFromPaths(StandardLocation.MODULE_SOURCE_PATH, Collections.singletonList(sourcePath));
+            }
+
+            var writer = new StringWriter();
+            if (getScriptingEngine().getCompiler().getTask(writer, fileManager, listener, options, null, fileManager.getJavaFileObjectsFromPaths(group.sources())).call()) {
+                cache.update(group);
+                LOGGER.info("Compiled {} scripts of {} in {} ms", group.sources().size(), group.name(), System.currentTimeMillis() - start);
+            } else {
+                cache.invalidate(group);
+                LOGGER.error("Could not compile scripts of {}: {}", group.name(), writer);
+            }
+        } catch (Exception e) {
+            cache.invalidate(group);
+            LOGGER.error("Could not compile scripts of {}", group.name(), e);
+        }
+    }
+
+    private void cleanCompiledGroup(ScriptGroup group) throws IOException {
+        final var compiled = destination.resolve(group.name());
+        if (Files.notExists(compiled)) {
+            return;
+        }
+
+        try (var files = Files.walk(compiled)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void registerCompiledScripts(ScriptGroup group) {
+        if (!group.isUnnamed()) {
+            try {
+                scriptingFileManager.beAwareOfModule(group.name());
+            } catch (IOException e) {
+                LOGGER.warn("Could not load compiled module {}", group.name(), e);
+                return;
+            }
+        }
+
+        for (Path source : group.sources()) {
+            try {
+                var compiled = destination.resolve(Path.of(sourcePath.relativize(source).toString().replace(".java", ".class")));
+                if (Files.exists(compiled)) {
+                    scriptingFileManager.beAwareOfObjectFile(source, compiled);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not load compiled script {}", source, e);
+            }
         }
     }
 
@@ -125,34 +211,9 @@ public final class JavaExecutionContext extends AbstractExecutionContext<JavaScr
         }
     }
 
-    private void compile(Path sourcePath) throws JavaCompilerException, IOException {
-        try(var stream = Files.walk(sourcePath).filter(this::needCompile)) {
-            var paths = stream.collect(Collectors.toList());
-            if (!Util.isNullOrEmpty(paths)) {
-                compile(paths, compileOptions());
-            }
-        }
-    }
-
-    private boolean needCompile(Path path) {
-        if(!FilterUtil.javaFile(path)) {
-            return false;
-        }
-
-        if(forceCompile) {
-            return true;
-        }
-
-        try {
-            var compiled = destination.resolve(Path.of(sourcePath.relativize(path).toString().replace(".java", ".class")));
-
-            if(Files.notExists(compiled) || Files.getLastModifiedTime(compiled).compareTo(Files.getLastModifiedTime(path)) < 0) {
-                return true;
-            }
-            return !scriptingFileManager.beAwareOfObjectFile(path, compiled);
-        } catch (IOException e) {
-            LOGGER.warn(e.getMessage(), e);
-            return true;
+    private void compile(Path sourcePath) throws JavaCompilerException {
+        if (FilterUtil.javaFile(sourcePath)) {
+            compile(Collections.singletonList(sourcePath), compileOptions());
         }
     }
 
@@ -173,7 +234,7 @@ public final class JavaExecutionContext extends AbstractExecutionContext<JavaScr
                 try {
                     compile(sourcePath);
                     scriptFileInfo = scriptingFileManager.getScriptInfo(sourcePath);
-                } catch (JavaCompilerException | IOException e) {
+                } catch (JavaCompilerException e) {
                     LOGGER.error(e.getMessage(), e);
                     continue;
                 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.scripting.java;
+
+import org.l2j.commons.util.FilterUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A set of scripts compiled together. Each script module is a group and the scripts out of any module are the unnamed group.
+ *
+ * @param name the module name or {@link #UNNAMED}
+ * @param sources the java sources of the group
+ * @param requires the names of the groups required by this group
+ * @param hash the hash of the sources content
+ *
+ * @author JoeAlisson
+ */
+record ScriptGroup(String name, List<Path> sources, Set<String> requires, String hash) {
+
+    static final String UNNAMED = "unnamed";
+    private static final Pattern REQUIRES_PATTERN = Pattern.compile("requires\\s+(?:(?:transitive|static)\\s+)*([\\w.]+)\\s*;");
+
+    boolean isUnnamed() {
+        return UNNAMED.equals(name);
+    }
+
+    /**
+     * Splits the scripts of the source path in groups. A module is any directory directly under the source path with a module-info.java.
+     * The requirements of the groups are restricted to the groups found, the unnamed group requires all modules.
+     */
+    static List<ScriptGroup> findGroups(Path sourcePath) throws IOException {
+        final Map<String, List<Path>> sourcesByGroup = new TreeMap<>();
+        try (var files = Files.walk(sourcePath)) {
+            files.filter(FilterUtil::javaFile).forEach(file -> sourcesByGroup.computeIfAbsent(groupOf(sourcePath, file), g -> new ArrayList<>()).add(file));
+        }
+
+        final Set<String> modules = sourcesByGroup.keySet().stream().filter(name -> !UNNAMED.equals(name)).collect(Collectors.toSet());
+        final List<ScriptGroup> groups = new ArrayList<>(sourcesByGroup.size());
+        for (var entry : sourcesByGroup.entrySet()) {
+            final var name = entry.getKey();
+            final var sources = entry.getValue();
+            sources.sort(Comparator.naturalOrder());
+
+            final Set<String> requires = UNNAMED.equals(name) ? modules : parseRequires(sourcePath.resolve(name).resolve("module-info.java"), modules);
+            groups.add(new ScriptGroup(name, sources, requires, hashOf(sourcePath, sources)));
+        }
+        return groups;
+    }
+
+    private static String groupOf(Path sourcePath, Path file) {
+        final var relative = sourcePath.relativize(file);
+        if (relative.getNameCount() > 1) {
+            final var module = relative.getName(0).toString();
+            if (Files.exists(sourcePath.resolve(module).resolve("module-info.java"))) {
+                return module;
+            }
+        }
+        return UNNAMED;
+    }
+
+    private static Set<String> parseRequires(Path moduleInfo, Set<String> modules) throws IOException {
+        final Set<String> requires = new HashSet<>();
+        final var matcher = REQUIRES_PATTERN.matcher(Files.readString(moduleInfo));
+        while (matcher.find()) {
+            if (modules.contains(matcher.group(1))) {
+                requires.add(matcher.group(1));
+            }
+        }
+        return requires;
+    }
+
+    private static String hashOf(Path sourcePath, List<Path> sources) throws IOException {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            for (Path source : sources) {
+                digest.update(sourcePath.relativize(source).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(source));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
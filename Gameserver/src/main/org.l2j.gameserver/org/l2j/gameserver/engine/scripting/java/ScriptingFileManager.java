@@ -75,6 +75,13 @@ final class ScriptingFileManager extends ForwardingJavaFileManager<StandardJavaF
         return fileManager.getJavaFileObjectsFromPaths(paths);
     }
 
+    /**
+     * Makes the output location of the module known, so its compiled classes can be found without compiling it.
+     */
+    void beAwareOfModule(String module) throws IOException {
+        getLocationForModule(StandardLocation.CLASS_OUTPUT, module);
+    }
+
     boolean beAwareOfObjectFile(Path path, Path compiled) throws IOException {
         var filesObject = getJavaFileObjectsFromPaths(Collections.singletonList(compiled));
         var it = filesObject.iterator();
@@ -94,6 +101,9 @@ final class ScriptingFileManager extends ForwardingJavaFileManager<StandardJavaF
 
             var className = parentPath.relativize(compiled).toString().replace(".class", "").replace(File.separator, ".");
             scriptsFileInfo.putIfAbsent(path, new ScriptingFileInfo(path, className, module, classLocation));
+            if(!Util.isNullOrEmpty(module)) {
+                moduleNames.add(module);
+            }
             return true;
         }
         return false;
@@ -47,7 +47,6 @@ import java.util.Arrays;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.function.Function;
-import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
@@ -61,15 +60,21 @@ public class SkillEngine extends EffectParser {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SkillEngine.class);
 
-    private final LongMap<Skill> skills = new HashLongMap<>(36800);
+    private final IntMap<SkillTemplate> skills = new CHashIntMap<>(4096);
     private IntIntMap skillsTime;
     private HashIntIntMap skillsDelay;
 
     private SkillEngine() {
     }
 
+    /**
+     * The skill levels are built on the first request.
+     *
+     * @return the skill with the id and level or null if the skill doesn't have the level
+     */
     public Skill getSkill(int id, int level) {
-        return skills.get(skillHashCode(id, level));
+        final var template = skills.get(id);
+        return isNull(template) ? null : template.getLevel(level);
     }
 
     public void addSiegeSkills(Player player) {
@@ -94,7 +99,7 @@ public class SkillEngine extends EffectParser {
     }
 
     public int getMaxLevel(int skillId) {
-        return zeroIfNullOrElse(skills.get(skillHashCode(skillId, 1)), Skill::getMaxLevel);
+        return zeroIfNullOrElse(skills.get(skillId), SkillTemplate::getMaxLevel);
     }
 
     @Override
@@ -106,7 +111,7 @@ public class SkillEngine extends EffectParser {
     public void load() {
         parseDatapackFile("data/skills/skill-config.xml");
         parseDatapackDirectory("data/skills/", true);
-        LOGGER.info("Loaded {} skills", skills.size());
+        LOGGER.info("Loaded {} skills with {} levels", skills.size(), skills.values().stream().mapToInt(SkillTemplate::getMaxLevel).sum());
         releaseResources();
     }
 
@@ -148,36 +153,40 @@ public class SkillEngine extends EffectParser {
 
     private void parseSkill(Node skillNode)  {
         Skill skill = null;
+        SkillTemplate template = null;
         try {
             var attr = skillNode.getAttributes();
             var id = parseInt(attr, ATTR_ID);
             var maxLevel = parseInt(attr, "max-level");
 
             skill = new Skill(id, parseString(attr, "name"), maxLevel, parseBoolean(attr, "debuff"), parseEnum(attr, SkillOperateType.class, "action"), parseEnum(attr, SkillType.class, "type"));
-            skills.put(skillHashCode(id, 1), skill);
 
             parseSkillConstants(skill, skillNode);
 
             skill.computeSkillAttributes();
 
+            template = new SkillTemplate(skill);
             for (var node = skillNode.getFirstChild(); nonNull(node); node = node.getNextSibling()) {
                 switch (node.getNodeName()) {
-                    case "icon" -> parseIcon(node, skill, maxLevel);
-                    case "attributes" -> parseSkillAttributes(node, skill, maxLevel);
-                    case "consume" -> parseSkillConsume(node, skill, maxLevel);
-                    case "abnormal" -> parseSkillAbnormal(node, skill, maxLevel);
-                    case "conditions" -> parseConditions(node, skill);
-                    case "effects" -> parseSkillEffects(node, skill, maxLevel);
+                    case "icon" -> parseIcon(node, skill, template);
+                    case "attributes" -> parseSkillAttributes(node, skill, template);
+                    case "consume" -> parseSkillConsume(node, skill, template);
+                    case "abnormal" -> parseSkillAbnormal(node, skill, template);
+                    case "conditions" -> parseConditions(node, skill, template);
+                    case "effects" -> parseSkillEffects(node, skill, template);
                 }
             }
-            getOrCloneSkillBasedOnLast(id, maxLevel, true, true);
         } catch (Exception e) {
             LOGGER.error("Could not parse skill info {}", skill, e);
         }
+
+        if(nonNull(template)) {
+            skills.put(skill.getId(), template);
+        }
     }
 
-    private void parseConditions(Node conditionsNode, Skill skill) throws CloneNotSupportedException {
-        parseLeveledCondition(conditionsNode, skill, skill.getMaxLevel());
+    private void parseConditions(Node conditionsNode, Skill skill, SkillTemplate template) {
+        parseLeveledCondition(conditionsNode, skill, template);
 
         for (var node = conditionsNode.getFirstChild(); nonNull(node); node = node.getNextSibling()) {
             if(nonNull(node.getAttributes().getNamedItem("on-level"))) {
@@ -185,29 +194,22 @@ public class SkillEngine extends EffectParser {
             }
             SkillCondition cond = "condition".equals(node.getNodeName()) ? parseNamedCondition(node) : parseCondition(node);
             if(nonNull(cond)) {
-                var scope = parseEnum(node.getAttributes(), SkillConditionScope.class, "scope");
-                var currentLevel = skill.getMaxLevel();
-                var hash = skillHashCode(skill.getId(), currentLevel);
-                while (currentLevel-- > 0) {
-                    doIfNonNull(skills.get(hash--), s -> s.addCondition(scope, cond));
-                }
+                template.addCondition(parseEnum(node.getAttributes(), SkillConditionScope.class, "scope"), cond, 0);
             }  else {
                 LOGGER.warn("Could not parse skill's ({}) condition {}", skill, node.getNodeName());
             }
         }
     }
 
-    private void parseLeveledCondition(Node conditionsNode, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseLeveledCondition(Node conditionsNode, Skill skill, SkillTemplate template) {
         for (var node = conditionsNode.getFirstChild(); nonNull(node); node = node.getNextSibling()) {
             var level = parseInt(node.getAttributes(), "on-level", -1);
-            if(level < 1 || level > maxLevel) {
+            if(level < 1 || level > template.getMaxLevel()) {
                 continue;
             }
             SkillCondition cond = "condition".equals(node.getNodeName()) ? parseNamedCondition(node) : parseCondition(node);
             if(nonNull(cond)) {
-                var scope = parseEnum(node.getAttributes(), SkillConditionScope.class, "scope");
-                var sk = getOrCloneSkillBasedOnLast(skill.getId(), level);
-                sk.addCondition(scope, cond);
+                template.addCondition(parseEnum(node.getAttributes(), SkillConditionScope.class, "scope"), cond, level);
             }  else {
                 LOGGER.warn("Could not parse skill's ({}) condition {}", skill, node.getNodeName());
             }
@@ -224,26 +226,26 @@ public class SkillEngine extends EffectParser {
         return computeIfNonNull(factory, f -> f.apply(node));
     }
 
-    private void parseSkillEffects(Node node, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseSkillEffects(Node node, Skill skill, SkillTemplate template) {
         for(var child = node.getFirstChild(); nonNull(child); child = child.getNextSibling()) {
             if("effect".equals(child.getNodeName())) {
-                parseNamedEffect(child, skill, maxLevel);
+                parseNamedEffect(child, skill, template);
             } else {
-                parseEffect(child, skill, maxLevel);
+                parseEffect(child, skill, template);
             }
         }
     }
 
-    private void parseEffect(Node node, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseEffect(Node node, Skill skill, SkillTemplate template) {
         var factory = EffectHandler.getInstance().getHandlerFactory(node.getNodeName());
         if(isNull(factory)) {
             LOGGER.error("could not parse skill's {} effect {}", skill, node.getNodeName());
             return;
         }
-        createEffect(factory, node, skill, maxLevel);
+        createEffect(factory, node, template);
     }
 
-    private void parseNamedEffect(Node node, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseNamedEffect(Node node, Skill skill, SkillTemplate template) {
         var effectName = parseString(node.getAttributes(), "name");
         var factory = EffectHandler.getInstance().getHandlerFactory(effectName);
 
@@ -252,13 +254,13 @@ public class SkillEngine extends EffectParser {
             return;
         }
 
-        createEffect(factory, node, skill, maxLevel);
+        createEffect(factory, node, template);
     }
 
-    void createEffect(Function<StatsSet, AbstractEffect> factory, Node node, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    void createEffect(Function<StatsSet, AbstractEffect> factory, Node node, SkillTemplate template) {
         var attr = node.getAttributes();
         var startLevel = parseInt(attr, "start-level");
-        var stopLevel = parseInt(attr, "stop-level", maxLevel);
+        var stopLevel = parseInt(attr, "stop-level", template.getMaxLevel());
         var scope = parseEnum(attr, EffectScope.class, "scope");
 
         var staticStatSet = new StatsSet(parseAttributes(node));
@@ -267,53 +269,33 @@ public class SkillEngine extends EffectParser {
             IntMap<StatsSet> levelInfo = parseEffectChildNodes(node, startLevel, stopLevel, staticStatSet);
 
             if(levelInfo.isEmpty()) {
-                addStaticEffect(factory, skill, startLevel, stopLevel, scope, staticStatSet);
+                template.addEffect(scope, startLevel, stopLevel, factory.apply(staticStatSet));
             } else {
-                for (var i = startLevel; i <= stopLevel; i++) {
-                    var sk = getOrCloneSkillBasedOnLast(skill.getId(), i, false, true);
-                    var statsSet = levelInfo.computeIfAbsent(i, level -> {
-                        for (int j = level; j > 0; j--) {
-                            if(levelInfo.containsKey(j)) {
-                                return levelInfo.get(j);
-                            }
-                        }
-                        return new StatsSet();
-                    });
-                    statsSet.merge(staticStatSet);
-                    sk.addEffect(scope, factory.apply(statsSet));
-                }
+                template.addEffect(scope, startLevel, stopLevel, factory, levelInfo, staticStatSet);
             }
         } else {
-            addStaticEffect(factory, skill, startLevel, stopLevel, scope, staticStatSet);
-        }
-    }
-
-    private void addStaticEffect(Function<StatsSet, AbstractEffect> factory, Skill skill, int startLevel, int stopLevel, EffectScope scope, StatsSet staticStatSet) throws CloneNotSupportedException {
-        var effect = factory.apply(staticStatSet);
-        for (int i = startLevel; i <= stopLevel ; i++) {
-            var sk = getOrCloneSkillBasedOnLast(skill.getId(), i, false, true);
-            sk.addEffect(scope, effect);
+            template.addEffect(scope, startLevel, stopLevel, factory.apply(staticStatSet));
         }
     }
 
-    private void parseSkillAbnormal(Node node, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseSkillAbnormal(Node node, Skill skill, SkillTemplate template) {
         for(var child = node.getFirstChild(); nonNull(child); child = child.getNextSibling()) {
             switch (child.getNodeName()) {
-                case "level" -> parseMappedInt(child, skill, maxLevel, skill::setAbnormalLevel, (level, s) -> s.setAbnormalLevel(level));
-                case "time" -> parseMappedInt(child, skill, maxLevel, skill::setAbnormalTime, (time, s) -> s.setAbnormalTime(time));
-                case "chance" -> parseMappedInt(child, skill, maxLevel, skill::setAbnormalChance, (chance, s) -> s.setAbnormalChance(chance));
+                case "level" -> parseMappedInt(child, skill, template, (level, s) -> s.setAbnormalLevel(level));
+                case "time" -> parseMappedInt(child, skill, template, (time, s) -> s.setAbnormalTime(time));
+                case "chance" -> parseMappedInt(child, skill, template, (chance, s) -> s.setAbnormalChance(chance));
             }
         }
     }
 
-    private void parseSkillConsume(Node node, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseSkillConsume(Node node, Skill skill, SkillTemplate template) {
         for(var child = node.getFirstChild(); nonNull(child); child = child.getNextSibling()) {
             switch (child.getNodeName()) {
-                case "mana-init" -> parseMappedInt(child, skill, maxLevel, skill::setManaInitConsume, (consume, s) -> s.setManaInitConsume(consume));
-                case "mana" -> parseMappedInt(child, skill, maxLevel, skill::setManaConsume, (consume, s) -> s.setManaConsume(consume));
-                case "hp" -> parseMappedInt(child, skill, maxLevel, skill::setHpConsume, (consume, s) -> s.setHpConsume(consume));
-                case "item" -> parseMappedInt(child, skill, maxLevel, skill::setItemConsume, (item, s) -> s.setItemConsume(item));
-                case "item-count" -> parseMappedInt(child, skill, maxLevel, skill::setItemConsumeCount, (count, s) -> s.setItemConsumeCount(count));
+                case "mana-init" -> parseMappedInt(child, skill, template, (consume, s) -> s.setManaInitConsume(consume));
+                case "mana" -> parseMappedInt(child, skill, template, (consume, s) -> s.setManaConsume(consume));
+                case "hp" -> parseMappedInt(child, skill, template, (consume, s) -> s.setHpConsume(consume));
+                case "item" -> parseMappedInt(child, skill, template, (item, s) -> s.setItemConsume(item));
+                case "item-count" -> parseMappedInt(child, skill, template, (count, s) -> s.setItemConsumeCount(count));
             }
         }
     }
@@ -419,62 +401,40 @@ public class SkillEngine extends EffectParser {
 
     }
 
-    private void parseSkillAttributes(Node attributesNode, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseSkillAttributes(Node attributesNode, Skill skill, SkillTemplate template) {
         for(var node = attributesNode.getFirstChild(); nonNull(node); node = node.getNextSibling()) {
             switch (node.getNodeName()) {
-                case "magic-level" -> parseMappedInt(node, skill, maxLevel, skill::setMagicLevel, (magicLevel, s) -> s.setMagicLevel(magicLevel));
-                case "cast-range" -> parseMappedInt(node, skill, maxLevel, skill::setCastRange, (range, s) -> s.setCastRange(range));
-                case "reuse" -> parseMappedInt(node, skill, maxLevel, skill::setReuse, (reuse, s) -> s.setReuse(reuse));
-                case "cool-time" -> parseMappedInt(node, skill, maxLevel, skill::setCoolTime, (time, s) -> s.setCoolTime(time));
-                case "effect-point" -> parseMappedInt(node, skill, maxLevel, skill::setEffectPoint, (points, s) -> s.setEffectPoint(points));
-                case "effect-range" -> parseMappedInt(node, skill, maxLevel, skill::setEffectRange, (range, s) -> s.setEffectRange(range));
-                case "hit-time" -> parseMappedInt(node, skill, maxLevel, skill::setHitTime, (time, s) -> s.setHitTime(time));
-                case "activate-rate" -> parseMappedInt(node, skill, maxLevel, skill::setActivateRate, (rate, s) -> s.setActivateRate(rate));
+                case "magic-level" -> parseMappedInt(node, skill, template, (magicLevel, s) -> s.setMagicLevel(magicLevel));
+                case "cast-range" -> parseMappedInt(node, skill, template, (range, s) -> s.setCastRange(range));
+                case "reuse" -> parseMappedInt(node, skill, template, (reuse, s) -> s.setReuse(reuse));
+                case "cool-time" -> parseMappedInt(node, skill, template, (time, s) -> s.setCoolTime(time));
+                case "effect-point" -> parseMappedInt(node, skill, template, (points, s) -> s.setEffectPoint(points));
+                case "effect-range" -> parseMappedInt(node, skill, template, (range, s) -> s.setEffectRange(range));
+                case "hit-time" -> parseMappedInt(node, skill, template, (time, s) -> s.setHitTime(time));
+                case "activate-rate" -> parseMappedInt(node, skill, template, (rate, s) -> s.setActivateRate(rate));
             }
         }
     }
 
-    private void parseMappedInt(Node node, Skill skill, int maxLevel, IntConsumer setter, IntBiConsumer<Skill> skillSetter) throws CloneNotSupportedException {
+    private void parseMappedInt(Node node, Skill skill, SkillTemplate template, IntBiConsumer<Skill> skillSetter) {
         int lastValue = parseInt(node.getAttributes(), "initial");
-        var lastLevel = skill.getLevel();
-        setter.accept(lastValue);
+        skillSetter.accept(lastValue, skill);
 
         for (var child = node.getFirstChild(); nonNull(child); child = child.getNextSibling()) {
             if (ATTR_VALUE.equals(child.getNodeName())) {
                 var value = Integer.parseInt(child.getTextContent());
                 if (lastValue != value) {
-                    var level = parseInt(child.getAttributes(), "level");
-
-                    var hash = skillHashCode(skill.getId(), ++lastLevel);
-                    var tmp = skills.get(hash);
-
-                    while (nonNull(tmp) && lastLevel++ < level) {
-                        skillSetter.accept(lastValue, tmp);
-                        tmp = skills.get(++hash);
-                    }
-
                     lastValue = value;
-                    if (level <= maxLevel) {
-                        var newSkill = getOrCloneSkillBasedOnLast(skill.getId(), level);
-                        skillSetter.accept(lastValue, newSkill);
-                        lastLevel = level;
+                    var level = parseInt(child.getAttributes(), "level");
+                    if (level <= template.getMaxLevel()) {
+                        template.addValue(level, s -> skillSetter.accept(value, s));
                     }
                 }
             }
         }
-
-        if(lastLevel < maxLevel) {
-            var hash = skillHashCode(skill.getId(), ++lastLevel);
-            var tmp = skills.get(hash);
-
-            while (nonNull(tmp) && lastLevel++ <= maxLevel) {
-                skillSetter.accept(lastValue, tmp);
-                tmp = skills.get(++hash);
-            }
-        }
     }
 
-    private void parseIcon(Node iconNode, Skill skill, int maxLevel) throws CloneNotSupportedException {
+    private void parseIcon(Node iconNode, Skill skill, SkillTemplate template) {
         var lastValue = parseString(iconNode.getAttributes(), "initial");
         skill.setIcon(lastValue);
         for (var node = iconNode.getFirstChild(); nonNull(node); node = node.getNextSibling()) {
@@ -484,40 +444,14 @@ public class SkillEngine extends EffectParser {
                 if (!Objects.equals(lastValue, value)) {
                     lastValue = value;
                     var level = parseInt(node.getAttributes(), "level");
-                    if(level <= maxLevel) {
-                        var newSkill = getOrCloneSkillBasedOnLast(skill.getId(), level);
-                        newSkill.setIcon(lastValue);
+                    if(level <= template.getMaxLevel()) {
+                        template.addValue(level, s -> s.setIcon(value));
                     }
                 }
             }
         }
     }
 
-    private Skill getOrCloneSkillBasedOnLast(int id, int level) throws CloneNotSupportedException {
-        return getOrCloneSkillBasedOnLast(id, level, false, false);
-    }
-
-    private Skill getOrCloneSkillBasedOnLast(int id, int level, boolean keepEffects, boolean keepConditions) throws CloneNotSupportedException {
-        Skill skill = null;
-        var hash = skillHashCode(id, level);
-        int currentLevel = level;
-        while (currentLevel > 0) {
-            skill = skills.get(hash);
-            if(nonNull(skill)) {
-                break;
-            }
-            currentLevel--;
-            hash--;
-        }
-
-        while (nonNull(skill) && currentLevel < level) {
-            skill = skill.clone(keepEffects, keepConditions);
-            skill.setLevel(++currentLevel);
-            skills.put(++hash, skill);
-        }
-        return skill;
-    }
-
     public static void init() {
         ServiceLoader.load(ITargetTypeHandler.class).forEach(TargetHandler.getInstance()::registerHandler);
         ServiceLoader.load(IAffectObjectHandler.class).forEach(AffectObjectHandler.getInstance()::registerHandler);
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.engine.skill.api;
+
+import io.github.joealisson.primitive.IntMap;
+import org.l2j.gameserver.model.StatsSet;
+import org.l2j.gameserver.model.effects.AbstractEffect;
+import org.l2j.gameserver.model.skills.EffectScope;
+import org.l2j.gameserver.model.skills.SkillConditionScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The parsed definition of all levels of a skill.
+ *
+ * Only the constants of the skill are kept on a base {@link Skill}, the values that change by level are kept as steps
+ * together with the conditions and effects bound to its levels. Each level is built from the definition on its first request and cached.
+ *
+ * The conditions and effects are defined following the parse order, as the levels were cloned from the previous level:
+ * a level defined by a value change or an on-level condition starts without conditions and effects,
+ * a level defined by an effect shares the conditions of the previous level, and the levels after the last defined level share all of it.
+ *
+ * @author JoeAlisson
+ */
+final class SkillTemplate {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SkillTemplate.class);
+
+    private final Skill base;
+    private final AtomicReferenceArray<Skill> levels;
+    private final List<LeveledValue> values = new ArrayList<>();
+    private final List<LevelDefinition> definitions = new ArrayList<>();
+
+    SkillTemplate(Skill base) {
+        this.base = base;
+        this.levels = new AtomicReferenceArray<>(base.getMaxLevel());
+        definitions.add(new LevelDefinition(new ArrayList<>(), new ArrayList<>()));
+    }
+
+    int getMaxLevel() {
+        return levels.length();
+    }
+
+    /**
+     * Sets a value to the level and all the next levels until another value of the same attribute is set.
+     * The values of each attribute must be added in level order.
+     */
+    void addValue(int level, Consumer<Skill> setter) {
+        defineLevels(level, false, false);
+        values.add(new LeveledValue(level, setter));
+    }
+
+    /**
+     * @param level the level of the condition, 0 to apply the condition to all defined levels.
+     */
+    void addCondition(SkillConditionScope scope, SkillCondition condition, int level) {
+        if(level == 0) {
+            for (var definition : definitions) {
+                definition.conditions.add(new ScopedCondition(scope, condition));
+            }
+        } else {
+            defineLevels(level, false, false);
+            definitions.get(level - 1).conditions.add(new ScopedCondition(scope, condition));
+        }
+    }
+
+    void addEffect(EffectScope scope, int startLevel, int stopLevel, AbstractEffect effect) {
+        for (int i = Math.max(1, startLevel); i <= stopLevel; i++) {
+            defineLevels(i, false, true);
+            definitions.get(i - 1).effects.add(new LeveledEffect(scope, i, effect, null, null, null));
+        }
+    }
+
+    /**
+     * Adds an effect with parameters changing by level, the effect instance of each level is only created when the level is built.
+     */
+    void addEffect(EffectScope scope, int startLevel, int stopLevel, Function<StatsSet, AbstractEffect> factory, IntMap<StatsSet> levelInfo, StatsSet staticStatSet) {
+        for (int i = Math.max(1, startLevel); i <= stopLevel; i++) {
+            defineLevels(i, false, true);
+            definitions.get(i - 1).effects.add(new LeveledEffect(scope, i, null, factory, levelInfo, staticStatSet));
+        }
+    }
+
+    /**
+     * Defines the levels up to the given level, each new level keeps the same conditions or effects of the previous level or starts without them.
+     */
+    private void defineLevels(int level, boolean keepEffects, boolean keepConditions) {
+        for (int i = definitions.size(); i < level; i++) {
+            final var previous = definitions.get(i - 1);
+            definitions.add(new LevelDefinition(keepConditions ? previous.conditions : new ArrayList<>(), keepEffects ? previous.effects : new ArrayList<>()));
+        }
+    }
+
+    Skill getLevel(int level) {
+        if(level < 1 || level > levels.length()) {
+            return null;
+        }
+
+        var skill = levels.get(level - 1);
+        if(isNull(skill)) {
+            final var built = build(level);
+            skill = levels.compareAndExchange(level - 1, null, built);
+            if(isNull(skill)) {
+                skill = built;
+            }
+        }
+        return skill;
+    }
+
+    private Skill build(int level) {
+        final Skill skill;
+        try {
+            skill = base.clone(false, false);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        skill.setLevel(level);
+
+        for (var value : values) {
+            if(value.level <= level) {
+                value.setter.accept(skill);
+            }
+        }
+
+        final var definition = definitions.get(Math.min(level, definitions.size()) - 1);
+        for (var condition : definition.conditions) {
+            skill.addCondition(condition.scope, condition.condition);
+        }
+
+        for (var effect : definition.effects) {
+            try {
+                skill.addEffect(effect.scope, effect.create());
+            } catch (Exception e) {
+                LOGGER.error("Could not create effect of skill {}", skill, e);
+            }
+        }
+        return skill;
+    }
+
+    private record LeveledValue(int level, Consumer<Skill> setter) {
+    }
+
+    private record LevelDefinition(List<ScopedCondition> conditions, List<LeveledEffect> effects) {
+    }
+
+    private record ScopedCondition(SkillConditionScope scope, SkillCondition condition) {
+    }
+
+    private record LeveledEffect(EffectScope scope, int level, AbstractEffect effect, Function<StatsSet, AbstractEffect> factory, IntMap<StatsSet> levelInfo, StatsSet staticStatSet) {
+
+        private AbstractEffect create() {
+            if(nonNull(effect)) {
+                return effect;
+            }
+
+            StatsSet levelSet = null;
+            for (int i = level; i > 0 && isNull(levelSet); i--) {
+                levelSet = levelInfo.get(i);
+            }
+
+            final var statsSet = isNull(levelSet) ? new StatsSet() : new StatsSet(levelSet);
+            statsSet.merge(staticStatSet);
+            return factory.apply(statsSet);
+        }
+    }
+}
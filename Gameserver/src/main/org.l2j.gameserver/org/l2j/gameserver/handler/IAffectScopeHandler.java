@@ -18,11 +18,13 @@
  */
 package org.l2j.gameserver.handler;
 
+import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.model.WorldObject;
 import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.skills.targets.AffectScope;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -33,4 +35,25 @@ public interface IAffectScopeHandler {
     void forEachAffected(Creature creature, WorldObject target, Skill skill, Consumer<? super WorldObject> action);
 
     Enum<AffectScope> getAffectScopeType();
+
+    /**
+     * Applies the action to the candidates seen by the origin, up to the affect limit.
+     * The line of sight of all candidates is checked in a single batch, sharing the origin resolution on geodata.
+     *
+     * @param affectLimit the max affected creatures, zero or less to affect all of them
+     */
+    default void forEachSeen(WorldObject origin, List<? extends Creature> candidates, int affectLimit, Consumer<? super WorldObject> action) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        int affected = 0;
+        for (Creature creature : GeoEngine.getInstance().canSeeTargets(origin, candidates)) {
+            if (affectLimit > 0 && affected >= affectLimit) {
+                return;
+            }
+            action.accept(creature);
+            affected++;
+        }
+    }
 }
@@ -18,11 +18,12 @@
  */
 package org.l2j.gameserver.idfactory;
 
-import io.github.joealisson.primitive.IntSet;
 import org.l2j.gameserver.data.database.dao.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Consumer;
+
 import static org.l2j.commons.database.DatabaseAccess.getDAO;
 
 public abstract class IdFactory {
@@ -70,8 +71,18 @@ public abstract class IdFactory {
         getDAO(PlayerDAO.class).deleteExpiredSavedSkills(timestamp);
     }
 
-    protected final IntSet extractUsedObjectIDTable()  {
-        return getDAO(IdFactoryDAO.class).findUsedObjectIds();
+    /**
+     * Streams the used object ids to the action, the ids are never loaded all together on memory.
+     */
+    protected final void extractUsedObjectIDTable(Consumer<Integer> action)  {
+        getDAO(IdFactoryDAO.class).findUsedObjectIds(action);
+    }
+
+    /**
+     * Streams the used object ids greater than the object id to the action.
+     */
+    protected final void extractUsedObjectIDTableAbove(int objectId, Consumer<Integer> action)  {
+        getDAO(IdFactoryDAO.class).findUsedObjectIdsAbove(objectId, action);
     }
 
     public boolean isInitialized() {
@@ -90,6 +101,6 @@ public abstract class IdFactory {
     }
 
     private static class Singleton {
-        private static final IdFactory INSTANCE = new BitSetIDFactory();
+        private static final IdFactory INSTANCE = new SegmentedIDFactory();
     }
 }
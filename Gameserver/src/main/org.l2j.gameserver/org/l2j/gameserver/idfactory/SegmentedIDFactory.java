@@ -0,0 +1,451 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.idfactory;
+
+import org.l2j.gameserver.settings.ServerSettings;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.*;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Object id allocator split in segments of {@value #SEGMENT_SIZE} ids.
+ *
+ * Each segment keeps its ids on a bitmap updated with compare and set, so claiming and releasing an id never locks.
+ * The threads are spread over stripes, one for each processor, and each stripe claims from its own segment,
+ * so the threads seldom compete for the same words of the bitmap.
+ *
+ * On startup the used ids are read from database. When the snapshot is enabled, the used ids of the last full scan are
+ * loaded from the snapshot file and only the ids greater than the highest id of the snapshot are read from database.
+ * So the ids lower than the highest id of the snapshot are never claimed while the snapshot is enabled, otherwise the ones
+ * stored after the snapshot would be missed.
+ *
+ * @author JoeAlisson
+ */
+public final class SegmentedIDFactory extends IdFactory {
+
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int WORDS_PER_SEGMENT = SEGMENT_SIZE >> 6;
+    private static final int MAX_SEGMENTS = (int) (((long) FREE_OBJECT_ID_SIZE + SEGMENT_SIZE) >> SEGMENT_BITS);
+
+    /**
+     * A segment with less free ids than this is only reused when there is no room for new segments.
+     * Avoids moving the stripes to the segments with few released ids, reusing them too soon.
+     */
+    private static final int MIN_FREE_TO_REUSE = SEGMENT_SIZE >> 4;
+
+    private static final Path SNAPSHOT_PATH = Path.of("server_store", "idfactory.snapshot");
+    private static final int SNAPSHOT_MAGIC = 0x4C324944;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final AtomicInteger highestSegment = new AtomicInteger(-1);
+    private final AtomicIntegerArray stripes;
+    private final int stripeMask;
+    private final LongAdder usedIds = new LongAdder();
+
+    /**
+     * The ids lower than the floor are never claimed or released.
+     */
+    private int floor;
+
+    SegmentedIDFactory() {
+        stripes = new AtomicIntegerArray(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+        stripeMask = stripes.length() - 1;
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.set(i, -1);
+        }
+
+        initialize();
+        LOGGER.info("{} Identifiers available", size());
+    }
+
+    private void initialize() {
+        try {
+            final long start = System.currentTimeMillis();
+            final var snapshotPath = ServerSettings.dataPackDirectory().resolve(SNAPSHOT_PATH);
+            final var snapshotDays = ServerSettings.idFactorySnapshotDays();
+            if (snapshotDays <= 0) {
+                // the ids claimed by this run are not fenced, so a snapshot stored before can't be trusted anymore
+                deleteSnapshot(snapshotPath);
+            }
+
+            if (snapshotDays > 0 && loadSnapshot(snapshotPath, Duration.ofDays(snapshotDays))) {
+                final int snapshotIds = usedIdCount();
+                extractUsedObjectIDTableAbove(floor - 1 + FIRST_OID, this::markUsed);
+                fence(floor);
+                LOGGER.info("Loaded {} used ids from snapshot and {} from database in {} ms", snapshotIds, usedIdCount() - snapshotIds, System.currentTimeMillis() - start);
+            } else {
+                extractUsedObjectIDTable(this::markUsed);
+                LOGGER.info("Loaded {} used ids from database in {} ms", usedIdCount(), System.currentTimeMillis() - start);
+                if (snapshotDays > 0 && storeSnapshot(snapshotPath)) {
+                    fence(floor);
+                }
+            }
+            initialized = true;
+        } catch (Exception e) {
+            initialized = false;
+            LOGGER.error("Could not be initialized properly", e);
+        }
+    }
+
+    private void markUsed(int objectId) {
+        final int index = objectId - FIRST_OID;
+        if (index < 0) {
+            LOGGER.warn("Object ID {} in DB is less than minimum ID of {}", objectId, FIRST_OID);
+            return;
+        }
+
+        if (segmentOrCreate(index >>> SEGMENT_BITS).mark(index & SEGMENT_MASK)) {
+            usedIds.increment();
+        }
+    }
+
+    /**
+     * Blocks the ids lower than the index on its segment and moves the stripes to the segment, since the lower segments are never claimed.
+     * The blocked ids are not counted as used.
+     */
+    private void fence(int index) {
+        final int segmentIndex = index >>> SEGMENT_BITS;
+        final var segment = segmentOrCreate(segmentIndex);
+        for (int i = 0; i < (index & SEGMENT_MASK); i++) {
+            segment.mark(i);
+        }
+
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.set(i, segmentIndex);
+        }
+    }
+
+    @Override
+    public int getNextId() {
+        final int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        int current = stripes.get(stripe);
+        while (true) {
+            final var segment = current >= 0 ? segments.get(current) : null;
+            if (nonNull(segment)) {
+                final int index = segment.claim();
+                if (index >= 0) {
+                    usedIds.increment();
+                    return index + FIRST_OID;
+                }
+            }
+            stripes.compareAndSet(stripe, current, nextSegment(current));
+            current = stripes.get(stripe);
+        }
+    }
+
+    /**
+     * @return a segment with enough free ids, preferring the existent ones above the current. A new segment is created when all are full.
+     */
+    private int nextSegment(int current) {
+        final int first = floor >>> SEGMENT_BITS;
+        final int highest = highestSegment.get();
+        final int start = Math.max(first, current + 1);
+
+        int candidate = findSegmentWithFreeIds(start, highest, MIN_FREE_TO_REUSE);
+        if (candidate < 0) {
+            candidate = findSegmentWithFreeIds(first, start - 1, MIN_FREE_TO_REUSE);
+        }
+
+        if (candidate < 0) {
+            candidate = createSegment(Math.max(first, highest + 1));
+        }
+
+        if (candidate < 0) {
+            candidate = findSegmentWithFreeIds(first, highest, 1);
+        }
+
+        if (candidate < 0) {
+            throw new IllegalStateException("Ran out of valid Id's.");
+        }
+        return candidate;
+    }
+
+    private int findSegmentWithFreeIds(int from, int to, int minFree) {
+        for (int i = from; i <= to; i++) {
+            final var segment = segments.get(i);
+            if (nonNull(segment) && segment.free.get() >= minFree) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int createSegment(int from) {
+        for (int i = from; i < MAX_SEGMENTS; i++) {
+            if (isNull(segments.get(i))) {
+                segmentOrCreate(i);
+                return i;
+            }
+        }
+
+        // wraps around looking for the lower unused segments
+        for (int i = floor >>> SEGMENT_BITS; i < from; i++) {
+            if (isNull(segments.get(i))) {
+                segmentOrCreate(i);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Segment segmentOrCreate(int segmentIndex) {
+        var segment = segments.get(segmentIndex);
+        if (isNull(segment)) {
+            final var created = new Segment(segmentIndex);
+            if (segments.compareAndSet(segmentIndex, null, created)) {
+                highestSegment.accumulateAndGet(segmentIndex, Math::max);
+                segment = created;
+            } else {
+                segment = segments.get(segmentIndex);
+            }
+        }
+        return segment;
+    }
+
+    @Override
+    public void releaseId(int objectId) {
+        final int index = objectId - FIRST_OID;
+        if (index < 0) {
+            LOGGER.warn("Release objectID {} failed (< {})", objectId, FIRST_OID);
+            return;
+        }
+
+        if (index < floor) {
+            return;
+        }
+
+        final var segment = segments.get(index >>> SEGMENT_BITS);
+        if (nonNull(segment) && segment.release(index & SEGMENT_MASK)) {
+            usedIds.decrement();
+        }
+    }
+
+    @Override
+    public int size() {
+        return FREE_OBJECT_ID_SIZE - usedIdCount();
+    }
+
+    private int usedIdCount() {
+        return (int) usedIds.sum();
+    }
+
+    private void deleteSnapshot(Path path) {
+        try {
+            if (Files.deleteIfExists(path)) {
+                LOGGER.info("Deleted the id factory snapshot {}, the snapshot is disabled", path);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not delete the id factory snapshot {}, delete it before enabling the snapshot again", path, e);
+        }
+    }
+
+    private boolean loadSnapshot(Path path, Duration maxAge) {
+        if (Files.notExists(path)) {
+            return false;
+        }
+
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != SNAPSHOT_MAGIC || input.readInt() != SNAPSHOT_VERSION) {
+                LOGGER.warn("Ignoring id factory snapshot with unknown format {}", path);
+                return false;
+            }
+
+            final long creation = input.readLong();
+            if (System.currentTimeMillis() - creation > maxAge.toMillis()) {
+                LOGGER.info("Id factory snapshot expired, reading all used ids from database");
+                return false;
+            }
+
+            final int snapshotFloor = input.readInt();
+            final int segmentCount = input.readInt();
+            for (int i = 0; i < segmentCount; i++) {
+                final var segment = segmentOrCreate(input.readInt());
+                for (int word = 0; word < WORDS_PER_SEGMENT; word++) {
+                    final long bits = input.readLong() & ~segment.words.get(word);
+                    segment.words.set(word, segment.words.get(word) | bits);
+                    segment.free.addAndGet(-Long.bitCount(bits));
+                    usedIds.add(Long.bitCount(bits));
+                }
+            }
+            floor = snapshotFloor;
+            return true;
+        } catch (Exception e) {
+            LOGGER.warn("Could not load the id factory snapshot {}, reading all used ids from database", path, e);
+            clear();
+            return false;
+        }
+    }
+
+    private void clear() {
+        for (int i = 0; i < MAX_SEGMENTS; i++) {
+            segments.set(i, null);
+        }
+        highestSegment.set(-1);
+        usedIds.reset();
+    }
+
+    /**
+     * Stores the used ids, it must be called only after a full scan of the used ids in database.
+     * The floor is moved to the id after the highest used id.
+     *
+     * @return true if the snapshot was stored
+     */
+    private boolean storeSnapshot(Path path) {
+        try {
+            Files.createDirectories(path.getParent());
+            final var temp = path.resolveSibling(path.getFileName() + ".tmp");
+            final int highest = highestSegment.get();
+
+            int segmentCount = 0;
+            int snapshotFloor = 0;
+            for (int i = 0; i <= highest; i++) {
+                final var segment = segments.get(i);
+                if (nonNull(segment)) {
+                    segmentCount++;
+                    snapshotFloor = Math.max(snapshotFloor, segment.highestUsed() + 1);
+                }
+            }
+
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                output.writeInt(SNAPSHOT_MAGIC);
+                output.writeInt(SNAPSHOT_VERSION);
+                output.writeLong(System.currentTimeMillis());
+                output.writeInt(snapshotFloor);
+                output.writeInt(segmentCount);
+                for (int i = 0; i <= highest; i++) {
+                    final var segment = segments.get(i);
+                    if (nonNull(segment)) {
+                        output.writeInt(i);
+                        for (int word = 0; word < WORDS_PER_SEGMENT; word++) {
+                            output.writeLong(segment.words.get(word));
+                        }
+                    }
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            floor = snapshotFloor;
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Could not store the id factory snapshot {}", path, e);
+            return false;
+        }
+    }
+
+    private static final class Segment {
+        private final int base;
+        private final AtomicLongArray words = new AtomicLongArray(WORDS_PER_SEGMENT);
+        private final AtomicInteger free = new AtomicInteger(SEGMENT_SIZE);
+        private volatile int hint;
+
+        private Segment(int index) {
+            base = index << SEGMENT_BITS;
+            reserveOutOfRange();
+        }
+
+        /**
+         * The indexes after the index of the last valid id would overflow the object id, so they're never claimed.
+         * They are reserved before the segment is published and aren't counted as used.
+         */
+        private void reserveOutOfRange() {
+            for (long offset = (long) FREE_OBJECT_ID_SIZE - base + 1; offset < SEGMENT_SIZE; offset++) {
+                mark((int) offset);
+            }
+        }
+
+        /**
+         * @return the index of the claimed id or -1 if the segment is full
+         */
+        private int claim() {
+            if (free.get() <= 0) {
+                return -1;
+            }
+
+            int word = hint;
+            for (int i = 0; i < WORDS_PER_SEGMENT; i++, word = (word + 1) & (WORDS_PER_SEGMENT - 1)) {
+                long bits;
+                while ((bits = words.get(word)) != -1L) {
+                    final long bit = Long.lowestOneBit(~bits);
+                    if (words.compareAndSet(word, bits, bits | bit)) {
+                        free.decrementAndGet();
+                        hint = word;
+                        return base + (word << 6) + Long.numberOfTrailingZeros(bit);
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return true if the id was free
+         */
+        private boolean mark(int offset) {
+            final int word = offset >>> 6;
+            final long bit = 1L << offset;
+            long bits;
+            do {
+                bits = words.get(word);
+                if ((bits & bit) != 0) {
+                    return false;
+                }
+            } while (!words.compareAndSet(word, bits, bits | bit));
+            free.decrementAndGet();
+            return true;
+        }
+
+        /**
+         * @return true if the id was in use
+         */
+        private boolean release(int offset) {
+            final int word = offset >>> 6;
+            final long bit = 1L << offset;
+            long bits;
+            do {
+                bits = words.get(word);
+                if ((bits & bit) == 0) {
+                    return false;
+                }
+            } while (!words.compareAndSet(word, bits, bits & ~bit));
+            free.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * @return the index of the highest used id or -1 if there is none
+         */
+        private int highestUsed() {
+            for (int word = WORDS_PER_SEGMENT - 1; word >= 0; word--) {
+                final long bits = words.get(word);
+                if (bits != 0) {
+                    return base + (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+                }
+            }
+            return -1;
+        }
+    }
+}
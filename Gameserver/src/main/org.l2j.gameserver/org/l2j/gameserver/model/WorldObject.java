@@ -51,6 +51,7 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
     protected int objectId;
 
     private WorldRegion worldRegion;
+    private int worldCell = -1;
 
     private InstanceType instanceType;
 
@@ -282,6 +283,17 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
         worldRegion = value;
     }
 
+    /**
+     * @return the index of the cell inside the world region where the object is indexed or -1 when not indexed
+     */
+    public final int getWorldCell() {
+        return worldCell;
+    }
+
+    public final void setWorldCell(int cell) {
+        worldCell = cell;
+    }
+
     /**
      * Gets the X coordinate.
      *
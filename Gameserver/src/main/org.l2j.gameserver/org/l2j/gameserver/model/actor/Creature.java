@@ -20,7 +20,6 @@ package org.l2j.gameserver.model.actor;
 
 import io.github.joealisson.primitive.*;
 import org.l2j.commons.threading.ThreadPool;
-import org.l2j.commons.util.EmptyQueue;
 import org.l2j.commons.util.Rnd;
 import org.l2j.gameserver.ai.AttackableAI;
 import org.l2j.gameserver.ai.CreatureAI;
@@ -51,6 +50,7 @@ import org.l2j.gameserver.model.actor.templates.CreatureTemplate;
 import org.l2j.gameserver.model.effects.EffectFlag;
 import org.l2j.gameserver.model.events.EventDispatcher;
 import org.l2j.gameserver.model.events.EventType;
+import org.l2j.gameserver.model.events.ListenersContainer;
 import org.l2j.gameserver.model.events.impl.character.*;
 import org.l2j.gameserver.model.events.listeners.AbstractEventListener;
 import org.l2j.gameserver.model.events.returns.DamageReturn;
@@ -74,6 +74,7 @@ import org.l2j.gameserver.settings.ChampionSettings;
 import org.l2j.gameserver.settings.CharacterSettings;
 import org.l2j.gameserver.settings.NpcSettings;
 import org.l2j.gameserver.taskmanager.AttackStanceTaskManager;
+import org.l2j.gameserver.taskmanager.EffectTaskManager;
 import org.l2j.gameserver.util.GameUtils;
 import org.l2j.gameserver.world.MapRegionManager;
 import org.l2j.gameserver.world.World;
@@ -85,7 +86,6 @@ import org.l2j.gameserver.world.zone.ZoneType;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -162,7 +162,6 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
     private IntMap<Npc> summonedNpcs;
     private CreatureStats stats;
     private CreatureStatus status;
-    private BuffFinishTask buffFinishTask;
     private CreatureTemplate template;
     private SkillChannelizer channelizer;
     private SkillChannelized channelized;
@@ -401,7 +400,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
      */
     public void broadcastPacket(ServerPacket packet) {
         checkBroadcast(packet);
-        World.getInstance().forEachVisibleObject(this, Player.class, packet::sendTo, this::isVisibleFor);
+        World.getInstance().forEachVisibleObject(this, Player.class, packet, ServerPacket::sendTo, WorldObject::isVisibleFor);
     }
 
     /**
@@ -409,7 +408,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
      */
     public void broadcastPacket(ServerPacket packet, int radius) {
         checkBroadcast(packet);
-        World.getInstance().forEachPlayerInRange(this, radius, packet::sendTo, this::isVisibleFor);
+        World.getInstance().forEachVisibleObjectInRange(this, Player.class, radius, packet, ServerPacket::sendTo, WorldObject::isVisibleFor);
     }
 
     protected void checkBroadcast(ServerPacket packet) {
@@ -1140,7 +1139,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
         // Cancel all timers related to this Creature
         TimersManager.getInstance().cancelTimers(getObjectId());
 
-        cancelBuffFinishTask();
+        cancelEffectTasks();
 
         // Set world region to null.
         setWorldRegion(null);
@@ -2014,7 +2013,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
         // broadcastPacket(new MoveToLocation(this));
 
         if (distFraction > 1) {
-            ThreadPool.execute(() -> getAI().notifyEvent(CtrlEvent.EVT_ARRIVED));
+            WorldTimeController.getInstance().notifyArrived(this);
             return true;
         }
 
@@ -3644,31 +3643,38 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
     }
 
     @Override
-    public Queue<AbstractEventListener> getListeners(EventType type) {
-        final Queue<AbstractEventListener> objectListeners = super.getListeners(type);
-        final Queue<AbstractEventListener> templateListeners = template.getListeners(type);
-        final Queue<AbstractEventListener> globalListeners = globalListenerByType(type);
-
-        // Attempt to do not create collection
-        if (objectListeners.isEmpty() && templateListeners.isEmpty() && globalListeners.isEmpty()) {
-            return EmptyQueue.emptyQueue();
-        } else if (!objectListeners.isEmpty() && templateListeners.isEmpty() && globalListeners.isEmpty()) {
+    public AbstractEventListener[] getListenerArray(EventType type) {
+        final var objectListeners = super.getListenerArray(type);
+        final var templateListeners = template.getListenerArray(type);
+        final var globalContainer = globalListeners();
+        final var globalListeners = isNull(globalContainer) ? EMPTY_LISTENERS : globalContainer.getListenerArray(type);
+
+        // Attempt to do not create array
+        if (templateListeners.length == 0 && globalListeners.length == 0) {
             return objectListeners;
-        } else if (!templateListeners.isEmpty() && objectListeners.isEmpty() && globalListeners.isEmpty()) {
+        } else if (objectListeners.length == 0 && globalListeners.length == 0) {
             return templateListeners;
-        } else if (!globalListeners.isEmpty() && objectListeners.isEmpty() && templateListeners.isEmpty()) {
+        } else if (objectListeners.length == 0 && templateListeners.length == 0) {
             return globalListeners;
         }
 
-        final Queue<AbstractEventListener> both = new LinkedBlockingDeque<>(objectListeners.size() + templateListeners.size() + globalListeners.size());
-        both.addAll(objectListeners);
-        both.addAll(templateListeners);
-        both.addAll(globalListeners);
-        return both;
+        final var listeners = Arrays.copyOf(objectListeners, objectListeners.length + templateListeners.length + globalListeners.length);
+        System.arraycopy(templateListeners, 0, listeners, objectListeners.length, templateListeners.length);
+        System.arraycopy(globalListeners, 0, listeners, objectListeners.length + templateListeners.length, globalListeners.length);
+        return listeners;
     }
 
-    protected Queue<AbstractEventListener> globalListenerByType(EventType type) {
-        return EmptyQueue.emptyQueue();
+    @Override
+    public boolean hasListener(EventType type) {
+        final var globalContainer = globalListeners();
+        return super.hasListener(type) || template.hasListener(type) || (nonNull(globalContainer) && globalContainer.hasListener(type));
+    }
+
+    /**
+     * @return the container of the listeners shared by all creatures of the same kind
+     */
+    protected ListenersContainer globalListeners() {
+        return null;
     }
 
     public Race getRace() {
@@ -3839,34 +3845,16 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
         return ElementalType.NONE;
     }
 
-    public void addBuffInfoTime(BuffInfo info)
-    {
-        if (buffFinishTask == null)
-        {
-            buffFinishTask = new BuffFinishTask();
-        }
-        buffFinishTask.addBuffInfo(info);
+    public void addBuffInfoTime(BuffInfo info) {
+        EffectTaskManager.getInstance().scheduleFinish(info);
     }
 
-    public void removeBuffInfoTime(BuffInfo info)
-    {
-        if (buffFinishTask != null)
-        {
-            buffFinishTask.removeBuffInfo(info);
-        }
+    public void removeBuffInfoTime(BuffInfo info) {
+        EffectTaskManager.getInstance().cancelFinish(info);
     }
 
-    public void cancelBuffFinishTask()
-    {
-        if (buffFinishTask != null)
-        {
-            final ScheduledFuture<?> task = buffFinishTask.getTask();
-            if ((task != null) && !task.isCancelled() && !task.isDone())
-            {
-                task.cancel(true);
-            }
-            buffFinishTask = null;
-        }
+    public void cancelEffectTasks() {
+        EffectTaskManager.getInstance().remove(this);
     }
 
     public int getBuffRemainTimeBySkillOrAbormalType(Skill skill) {
@@ -45,8 +45,8 @@ import org.l2j.gameserver.model.entity.Castle;
 import org.l2j.gameserver.model.events.EventDispatcher;
 import org.l2j.gameserver.model.events.EventType;
 import org.l2j.gameserver.model.events.Listeners;
+import org.l2j.gameserver.model.events.ListenersContainer;
 import org.l2j.gameserver.model.events.impl.character.npc.*;
-import org.l2j.gameserver.model.events.listeners.AbstractEventListener;
 import org.l2j.gameserver.model.events.returns.TerminateReturn;
 import org.l2j.gameserver.model.holders.ItemHolder;
 import org.l2j.gameserver.model.instancezone.Instance;
@@ -74,7 +74,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.Queue;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
@@ -1273,7 +1272,7 @@ public class Npc extends Creature {
     }
 
     @Override
-    protected Queue<AbstractEventListener> globalListenerByType(EventType type) {
-        return Listeners.Npcs().getListeners(type);
+    protected ListenersContainer globalListeners() {
+        return Listeners.Npcs();
     }
 }
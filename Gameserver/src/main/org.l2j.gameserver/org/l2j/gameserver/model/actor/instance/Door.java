@@ -23,6 +23,7 @@ import org.l2j.commons.util.Rnd;
 import org.l2j.gameserver.ai.CreatureAI;
 import org.l2j.gameserver.ai.DoorAI;
 import org.l2j.gameserver.data.xml.DoorDataManager;
+import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.item.Item;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.enums.DoorOpenType;
@@ -166,6 +167,7 @@ public final class Door extends Creature {
 
     public void setOpen(boolean open) {
         this.open = open;
+        invalidatePaths();
         if (getChildId() > 0) {
             final Door sibling = getSiblingDoor(getChildId());
             if (sibling != null) {
@@ -346,6 +348,29 @@ public final class Door extends Creature {
         return getTemplate().getName();
     }
 
+    @Override
+    public void doRevive() {
+        super.doRevive();
+        invalidatePaths();
+    }
+
+    /**
+     * Discards the cached paths passing by this door, since they may be blocked or unblocked now.
+     */
+    private void invalidatePaths() {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < 4; i++) {
+            minX = Math.min(minX, getX(i));
+            minY = Math.min(minY, getY(i));
+            maxX = Math.max(maxX, getX(i));
+            maxY = Math.max(maxY, getY(i));
+        }
+        GeoEngine.getInstance().invalidatePaths(minX, minY, maxX, maxY);
+    }
+
     public int getX(int i) {
         return getTemplate().getNodeX()[i];
     }
@@ -398,6 +423,7 @@ public final class Door extends Creature {
         if (!super.doDie(killer)) {
             return false;
         }
+        invalidatePaths();
 
         final boolean isCastle = ((getCastle() != null) && (getCastle().getId() > 0) && getCastle().getSiege().isInProgress());
 
@@ -27,14 +27,12 @@ import org.l2j.gameserver.model.actor.Attackable;
 import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.actor.templates.NpcTemplate;
 import org.l2j.gameserver.model.effects.EffectFlag;
-import org.l2j.gameserver.model.events.EventType;
 import org.l2j.gameserver.model.events.Listeners;
-import org.l2j.gameserver.model.events.listeners.AbstractEventListener;
+import org.l2j.gameserver.model.events.ListenersContainer;
 import org.l2j.gameserver.settings.ChampionSettings;
 import org.l2j.gameserver.util.GameUtils;
 import org.l2j.gameserver.util.MinionList;
 
-import java.util.Queue;
 import java.util.concurrent.ScheduledFuture;
 
 import static java.util.Objects.nonNull;
@@ -128,6 +126,8 @@ public class Monster extends Attackable {
         } else {
             isChampion = false;
         }
+        // the stats finalizers read the champion state
+        getStats().invalidateValues();
 
         super.onRespawn();
     }
@@ -254,8 +254,8 @@ public class Monster extends Attackable {
     }
 
     @Override
-    protected Queue<AbstractEventListener> globalListenerByType(EventType type) {
-        return Listeners.Monsters().getListeners(type);
+    protected ListenersContainer globalListeners() {
+        return Listeners.Monsters();
     }
 
     @Override
@@ -19,6 +19,7 @@
 package org.l2j.gameserver.model.actor.instance;
 
 import io.github.joealisson.primitive.*;
+import org.l2j.commons.database.DatabaseAccess;
 import org.l2j.commons.threading.ThreadPool;
 import org.l2j.commons.util.Rnd;
 import org.l2j.commons.util.Util;
@@ -70,10 +71,9 @@ import org.l2j.gameserver.model.entity.Duel;
 import org.l2j.gameserver.model.entity.Event;
 import org.l2j.gameserver.model.entity.Siege;
 import org.l2j.gameserver.model.events.EventDispatcher;
-import org.l2j.gameserver.model.events.EventType;
 import org.l2j.gameserver.model.events.Listeners;
+import org.l2j.gameserver.model.events.ListenersContainer;
 import org.l2j.gameserver.model.events.impl.character.player.*;
-import org.l2j.gameserver.model.events.listeners.AbstractEventListener;
 import org.l2j.gameserver.model.holders.*;
 import org.l2j.gameserver.model.instancezone.Instance;
 import org.l2j.gameserver.model.interfaces.ILocational;
@@ -118,6 +118,7 @@ import org.l2j.gameserver.settings.ChatSettings;
 import org.l2j.gameserver.settings.FeatureSettings;
 import org.l2j.gameserver.settings.GeneralSettings;
 import org.l2j.gameserver.taskmanager.AttackStanceTaskManager;
+import org.l2j.gameserver.taskmanager.ItemUpdateTaskManager;
 import org.l2j.gameserver.taskmanager.SaveTaskManager;
 import org.l2j.gameserver.util.*;
 import org.l2j.gameserver.world.World;
@@ -4593,10 +4594,17 @@ public final class Player extends Playable {
 
     /**
      * Update Player stats in the characters table of the database.
+     * All player data is stored in a single transaction.
      *
      * @param storeActiveEffects if true the current effects will be stored
      */
     public synchronized void store(boolean storeActiveEffects) {
+        if(!DatabaseAccess.executeInTransaction(() -> storeData(storeActiveEffects))) {
+            LOGGER.warn("Could not store player {}", this);
+        }
+    }
+
+    private void storeData(boolean storeActiveEffects) {
         storeCharBase();
         storeEffect(storeActiveEffects);
         storeItemReuseDelay();
@@ -4627,6 +4635,7 @@ public final class Player extends Playable {
         }
 
         storeRecommendations();
+        ItemUpdateTaskManager.getInstance().storeChanges(objectId);
         if (GeneralSettings.updateItemsOnCharStore()) {
             inventory.updateDatabase();
             if(nonNull(warehouse)) {
@@ -5091,6 +5100,8 @@ public final class Player extends Playable {
                 hennaBaseStats.merge(entry.getKey(), entry.getValue(), Integer::sum);
             }
         }
+        // the base stats finalizer reads the henna values
+        getStats().invalidateValues();
     }
 
     /**
@@ -8043,7 +8054,7 @@ public final class Player extends Playable {
     }
 
     @Override
-    protected Queue<AbstractEventListener> globalListenerByType(EventType type) {
-        return Listeners.players().getListeners(type);
+    protected ListenersContainer globalListeners() {
+        return Listeners.players();
     }
 }
\ No newline at end of file
@@ -30,22 +30,46 @@ import org.l2j.gameserver.model.skills.BuffInfo;
 import org.l2j.gameserver.model.skills.SkillConditionScope;
 import org.l2j.gameserver.model.stats.*;
 import org.l2j.gameserver.settings.CharacterSettings;
+import org.l2j.gameserver.world.WorldTimeController;
 import org.l2j.gameserver.world.zone.ZoneType;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static org.l2j.commons.util.Util.isNullOrEmpty;
 import static org.l2j.gameserver.util.GameUtils.isSummon;
 
+/**
+ * The stats modifiers are kept on primitive arrays indexed by the {@link Stat} ordinal, with bitsets marking the merged stats.
+ *
+ * The final values of the cacheable stats are computed once per stats epoch. The epoch changes on every recalculation
+ * and on the changes of the state read by the finalizers that doesn't recalculate the stats (level, fixed values, move type, hennas,
+ * enchant level of the equipped items and champion state).
+ *
+ * The unconditional additional stats are folded once per change instead of merged one by one on every recalculation,
+ * and the stats modified by the recalculations of a tick are broadcast together by the {@link WorldTimeController}.
+ */
 public class CreatureStats {
+    private static final Stat[] STATS = Stat.values();
+    private static final int BITSET_WORDS = (STATS.length + Long.SIZE - 1) / Long.SIZE;
+
     private final Creature creature;
-    private final Map<Stat, Double> statsAdd = new EnumMap<>(Stat.class);
-    private final Map<Stat, Double> statsMul = new EnumMap<>(Stat.class);
+    private final double[] statsAdd = new double[STATS.length];
+    private final double[] statsMul = new double[STATS.length];
+    private final long[] addedStats = new long[BITSET_WORDS];
+    private final long[] multipliedStats = new long[BITSET_WORDS];
+
+    private final AtomicInteger valuesEpoch = new AtomicInteger(1);
+    private volatile FinalValues finalValues;
+    private volatile MoveType valuesMoveType;
+
     private final Map<Stat, Map<MoveType, Double>> _moveTypeStats = new ConcurrentHashMap<>();
     private final Map<SkillType, Double> reuseStat = Collections.synchronizedMap(new EnumMap<>(SkillType.class));
     private final Map<SkillType, Double> mpConsumeStat = Collections.synchronizedMap(new EnumMap<>(SkillType.class));
@@ -53,6 +77,10 @@ public class CreatureStats {
     private final Map<Stat, Map<Position, Double>> _positionStats = new ConcurrentHashMap<>();
     private final Deque<StatsHolder> _additionalAdd = new ConcurrentLinkedDeque<>();
     private final Deque<StatsHolder> _additionalMul = new ConcurrentLinkedDeque<>();
+    private volatile boolean additionalChanged;
+    private AdditionalStats additionalStats;
+    private final long[] pendingBroadcast = new long[BITSET_WORDS];
+    private boolean broadcastScheduled;
     private final Map<Stat, Double> _fixedValue = new ConcurrentHashMap<>();
 
     private final float[] _attackTraitValues = new float[TraitType.values().length];
@@ -177,6 +205,7 @@ public class CreatureStats {
 
     public void setLevel(byte value) {
         _level = value;
+        invalidateValues();
     }
 
     /**
@@ -659,7 +688,9 @@ public class CreatureStats {
      * @param val
      */
     public void mergeAdd(Stat stat, double val) {
-        statsAdd.merge(stat, val, stat::functionAdd);
+        final int index = stat.ordinal();
+        statsAdd[index] = isSet(addedStats, index) ? stat.functionAdd(statsAdd[index], val) : val;
+        set(addedStats, index);
     }
 
     /**
@@ -669,7 +700,9 @@ public class CreatureStats {
      * @param val
      */
     public void mergeMul(Stat stat, double val) {
-        statsMul.merge(stat, val, stat::functionMul);
+        final int index = stat.ordinal();
+        statsMul[index] = isSet(multipliedStats, index) ? stat.functionMul(statsMul[index], val) : val;
+        set(multipliedStats, index);
     }
 
     /**
@@ -688,7 +721,8 @@ public class CreatureStats {
     public double getAdd(Stat stat, double defaultValue) {
         _lock.readLock().lock();
         try {
-            return statsAdd.getOrDefault(stat, defaultValue);
+            final int index = stat.ordinal();
+            return isSet(addedStats, index) ? statsAdd[index] : defaultValue;
         } finally {
             _lock.readLock().unlock();
         }
@@ -710,8 +744,9 @@ public class CreatureStats {
     public double getMul(Stat stat, double defaultValue) {
         _lock.readLock().lock();
         try {
-            if(statsMul.containsKey(stat)) {
-                return statsMul.get(stat) / 100 + 1;
+            final int index = stat.ordinal();
+            if(isSet(multipliedStats, index)) {
+                return statsMul[index] / 100 + 1;
             }
             return defaultValue;
         } finally {
@@ -734,13 +769,69 @@ public class CreatureStats {
      * @return the final value of the stat
      */
     public double getValue(Stat stat) {
-        final Double fixedValue = _fixedValue.get(stat);
-        return fixedValue != null ? fixedValue : stat.finalize(creature, Optional.empty());
+        if(!_fixedValue.isEmpty()) {
+            final Double fixedValue = _fixedValue.get(stat);
+            if(fixedValue != null) {
+                return fixedValue;
+            }
+        }
+        return stat.isCacheable() ? cachedValue(stat) : stat.finalize(creature, Optional.empty());
+    }
+
+    private double cachedValue(Stat stat) {
+        if(!_moveTypeStats.isEmpty()) {
+            final var moveType = creature.getMoveType();
+            if(moveType != valuesMoveType) {
+                valuesMoveType = moveType;
+                invalidateValues();
+            }
+        }
+
+        final int epoch = valuesEpoch.get();
+        final var values = finalValues();
+        final int index = stat.ordinal();
+        if(values.epochs.getAcquire(index) == epoch) {
+            return values.values[index];
+        }
+
+        final double value = stat.finalize(creature, Optional.empty());
+        synchronized (values) {
+            // a value computed while the stats changed must not be cached on the new epoch
+            if(epoch == valuesEpoch.get()) {
+                values.values[index] = value;
+                values.epochs.setRelease(index, epoch);
+            }
+        }
+        return value;
+    }
+
+    private FinalValues finalValues() {
+        var values = finalValues;
+        if(isNull(values)) {
+            synchronized (this) {
+                values = finalValues;
+                if(isNull(values)) {
+                    finalValues = values = new FinalValues();
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Discards the cached final values of the stats.
+     * Should be called when a state read by the stats finalizers changes without a stats recalculation.
+     */
+    public void invalidateValues() {
+        // the epoch 0 is the epoch of the values never computed
+        if(valuesEpoch.incrementAndGet() == 0) {
+            valuesEpoch.incrementAndGet();
+        }
     }
 
     protected void resetStats() {
-        statsAdd.clear();
-        statsMul.clear();
+        Arrays.fill(addedStats, 0);
+        Arrays.fill(multipliedStats, 0);
         _vampiricSum = 0;
     }
 
@@ -750,12 +841,17 @@ public class CreatureStats {
      * @param broadcast
      */
     public final void recalculateStats(boolean broadcast) {
-        // Copy old data before wiping it out
-        final Map<Stat, Double> oldAdds = !broadcast ? Collections.emptyMap() : new EnumMap<>(statsAdd);
-        final Map<Stat, Double> oldMuls = !broadcast ? Collections.emptyMap() : new EnumMap<>(statsMul);
+        final ModifiersSnapshot snapshot = broadcast ? ModifiersSnapshot.acquire() : null;
+        long[] modified = null;
 
         _lock.writeLock().lock();
         try {
+            // Copy old data before wiping it out
+            if (broadcast) {
+                snapshot.copy(this);
+            }
+            invalidateValues();
+
             // Wipe all the data
             resetStats();
 
@@ -764,11 +860,7 @@ public class CreatureStats {
             activeSummonAbilityChange();
 
             // Merge with additional stats
-            for (StatsHolder holder : _additionalAdd) {
-                if(holder.verifyCondition(creature)) {
-                    mergeAdd(holder.getStat(), holder.getValue());
-                }
-            }
+            mergeAdditionalStats();
 
             for (StatsHolder holder : _additionalMul) {
                 if(holder.verifyCondition(creature)) {
@@ -778,23 +870,97 @@ public class CreatureStats {
 
             _attackSpeedMultiplier = Formulas.calcAtkSpdMultiplier(creature);
             _mAttackSpeedMultiplier = Formulas.calcMAtkSpdMultiplier(creature);
+
+            if (broadcast) {
+                modified = snapshot.changedStats(this);
+            }
+            // the values read while recalculating may have seen partial modifiers
+            invalidateValues();
         } finally {
             _lock.writeLock().unlock();
+            if (broadcast) {
+                snapshot.release();
+            }
         }
 
         onRecalculateStats(broadcast);
 
         if (broadcast) {
-            Set<Stat> modified = EnumSet.noneOf(Stat.class);
-            for (Stat stat : Stat.all()) {
-                if(isStatChanged(oldAdds, oldMuls, stat)){
-                    modified.add(stat);
+            scheduleBroadcast(modified);
+        }
+    }
+
+    private void mergeAdditionalStats() {
+        if (additionalChanged) {
+            additionalChanged = false;
+            additionalStats = AdditionalStats.fold(_additionalAdd);
+        }
+
+        if (nonNull(additionalStats)) {
+            final var added = additionalStats.addedStats;
+            for (int word = 0; word < BITSET_WORDS; word++) {
+                for (long bits = added[word]; bits != 0; bits &= bits - 1) {
+                    final int index = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    mergeAdd(STATS[index], additionalStats.statsAdd[index]);
+                }
+            }
+
+            for (StatsHolder holder : additionalStats.conditionals) {
+                if(holder.verifyCondition(creature)) {
+                    mergeAdd(holder.getStat(), holder.getValue());
                 }
             }
-            creature.broadcastModifiedStats(modified);
         }
     }
 
+    private void scheduleBroadcast(long[] modified) {
+        synchronized (pendingBroadcast) {
+            boolean hasModified = false;
+            for (int word = 0; word < BITSET_WORDS; word++) {
+                pendingBroadcast[word] |= modified[word];
+                hasModified |= modified[word] != 0;
+            }
+
+            if (!hasModified || broadcastScheduled) {
+                return;
+            }
+            broadcastScheduled = true;
+        }
+        WorldTimeController.getInstance().scheduleStatsBroadcast(this);
+    }
+
+    /**
+     * Broadcasts the stats modified since the last broadcast.
+     * Should be called only by the World Time Controller, once per tick.
+     */
+    public void broadcastModifiedStats() {
+        final long[] modified = new long[BITSET_WORDS];
+        synchronized (pendingBroadcast) {
+            System.arraycopy(pendingBroadcast, 0, modified, 0, BITSET_WORDS);
+            Arrays.fill(pendingBroadcast, 0);
+            broadcastScheduled = false;
+        }
+        creature.broadcastModifiedStats(toStats(modified));
+    }
+
+    private static Set<Stat> toStats(long[] bitset) {
+        final Set<Stat> stats = EnumSet.noneOf(Stat.class);
+        for (int word = 0; word < bitset.length; word++) {
+            for (long bits = bitset[word]; bits != 0; bits &= bits - 1) {
+                stats.add(STATS[word * Long.SIZE + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        return stats;
+    }
+
+    private static boolean isSet(long[] bitset, int index) {
+        return (bitset[index / Long.SIZE] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bitset, int index) {
+        bitset[index / Long.SIZE] |= 1L << index;
+    }
+
     private void activeSummonAbilityChange() {
         if (isSummon(creature) &&  nonNull(creature.getActingPlayer()) && creature.getActingPlayer().hasAbnormalType(AbnormalType.ABILITY_CHANGE)) {
             for (BuffInfo info : creature.getActingPlayer().getEffectList().getEffects()) {
@@ -840,10 +1006,6 @@ public class CreatureStats {
         }
     }
 
-    protected boolean isStatChanged(Map<Stat, Double> oldAdds, Map<Stat, Double> oldMuls, Stat stat) {
-        return !( Objects.equals( statsAdd.get(stat), oldAdds.get(stat) ) && Objects.equals( statsMul.get(stat), oldMuls.get(stat) ));
-    }
-
     private boolean canActivate(BuffInfo info, AbstractEffect effect) {
         return effect.canStart(info.getEffector(), info.getEffected(), info.getSkill()) && effect.canPump(info.getEffector(), info.getEffected(), info.getSkill());
     }
@@ -875,6 +1037,7 @@ public class CreatureStats {
 
     public void mergeMoveTypeValue(Stat stat, MoveType type, double value) {
         _moveTypeStats.computeIfAbsent(stat, key -> new ConcurrentHashMap<>()).merge(type, value, Double::sum);
+        invalidateValues();
     }
 
     public double getReuseTypeValue(SkillType magicType) {
@@ -940,7 +1103,9 @@ public class CreatureStats {
      * @return
      */
     public boolean addAdditionalStat(Stat stat, double value) {
-        return _additionalAdd.add(new StatsHolder(stat, value));
+        final boolean added = _additionalAdd.add(new StatsHolder(stat, value));
+        additionalChanged = true;
+        return added;
     }
 
     /**
@@ -954,6 +1119,7 @@ public class CreatureStats {
             final StatsHolder holder = it.next();
             if ((holder.getStat() == stat) && (holder.getValue() == value)) {
                 it.remove();
+                additionalChanged = true;
                 return true;
             }
         }
@@ -966,7 +1132,9 @@ public class CreatureStats {
      * @return true if the there wasn't previously set fixed value, {@code false} otherwise
      */
     public boolean addFixedValue(Stat stat, Double value) {
-        return _fixedValue.put(stat, value) == null;
+        final boolean added = _fixedValue.put(stat, value) == null;
+        invalidateValues();
+        return added;
     }
 
     /**
@@ -974,6 +1142,101 @@ public class CreatureStats {
      * @return {@code true} if fixed value is removed, {@code false} otherwise
      */
     public boolean removeFixedValue(Stat stat) {
-        return _fixedValue.remove(stat) != null;
+        final boolean removed = _fixedValue.remove(stat) != null;
+        invalidateValues();
+        return removed;
+    }
+
+    /**
+     * The additional stats without condition folded by stat, the merge functions of the stats are associative.
+     */
+    private static final class AdditionalStats {
+        private final double[] statsAdd = new double[STATS.length];
+        private final long[] addedStats = new long[BITSET_WORDS];
+        private final List<StatsHolder> conditionals = new ArrayList<>();
+
+        private static AdditionalStats fold(Collection<StatsHolder> holders) {
+            if (holders.isEmpty()) {
+                return null;
+            }
+
+            final var additional = new AdditionalStats();
+            for (StatsHolder holder : holders) {
+                if (holder.hasCondition()) {
+                    additional.conditionals.add(holder);
+                    continue;
+                }
+
+                final var stat = holder.getStat();
+                final int index = stat.ordinal();
+                additional.statsAdd[index] = isSet(additional.addedStats, index) ? stat.functionAdd(additional.statsAdd[index], holder.getValue()) : holder.getValue();
+                set(additional.addedStats, index);
+            }
+            return additional;
+        }
+    }
+
+    /**
+     * The final values of the stats with the epoch they were computed on.
+     */
+    private static final class FinalValues {
+        private final double[] values = new double[STATS.length];
+        private final AtomicIntegerArray epochs = new AtomicIntegerArray(STATS.length);
+    }
+
+    /**
+     * The stats modifiers before a recalculation, used to find the stats changed by it.
+     * A snapshot is reused by the thread, unless a recalculation happens while other is in progress on the same thread.
+     */
+    private static final class ModifiersSnapshot {
+        private static final ThreadLocal<ModifiersSnapshot> LOCAL = ThreadLocal.withInitial(ModifiersSnapshot::new);
+
+        private final double[] statsAdd = new double[STATS.length];
+        private final double[] statsMul = new double[STATS.length];
+        private final long[] addedStats = new long[BITSET_WORDS];
+        private final long[] multipliedStats = new long[BITSET_WORDS];
+        private boolean inUse;
+
+        private static ModifiersSnapshot acquire() {
+            var snapshot = LOCAL.get();
+            if (snapshot.inUse) {
+                snapshot = new ModifiersSnapshot();
+            }
+            snapshot.inUse = true;
+            return snapshot;
+        }
+
+        private void release() {
+            inUse = false;
+        }
+
+        private void copy(CreatureStats stats) {
+            System.arraycopy(stats.statsAdd, 0, statsAdd, 0, STATS.length);
+            System.arraycopy(stats.statsMul, 0, statsMul, 0, STATS.length);
+            System.arraycopy(stats.addedStats, 0, addedStats, 0, BITSET_WORDS);
+            System.arraycopy(stats.multipliedStats, 0, multipliedStats, 0, BITSET_WORDS);
+        }
+
+        private long[] changedStats(CreatureStats stats) {
+            final long[] changed = new long[BITSET_WORDS];
+            for (int word = 0; word < BITSET_WORDS; word++) {
+                // the stats merged only before or only after the recalculation are changed
+                final long presenceChanged = (addedStats[word] ^ stats.addedStats[word]) | (multipliedStats[word] ^ stats.multipliedStats[word]);
+                long merged = (stats.addedStats[word] | stats.multipliedStats[word]) & ~presenceChanged;
+
+                for (; merged != 0; merged &= merged - 1) {
+                    final int index = word * Long.SIZE + Long.numberOfTrailingZeros(merged);
+                    if (isChanged(addedStats, statsAdd, stats.statsAdd, index) || isChanged(multipliedStats, statsMul, stats.statsMul, index)) {
+                        changed[word] |= 1L << index;
+                    }
+                }
+                changed[word] |= presenceChanged;
+            }
+            return changed;
+        }
+
+        private static boolean isChanged(long[] bitset, double[] oldValues, double[] newValues, int index) {
+            return isSet(bitset, index) && Double.compare(oldValues[index], newValues[index]) != 0;
+        }
     }
 }
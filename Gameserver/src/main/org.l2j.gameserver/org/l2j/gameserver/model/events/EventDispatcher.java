@@ -25,8 +25,6 @@ import org.l2j.gameserver.model.events.returns.AbstractEventReturn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Queue;
-
 import static java.util.Objects.nonNull;
 
 /**
@@ -98,14 +96,14 @@ public final class EventDispatcher {
                 // Local listeners container first.
                 for (ListenersContainer container : containers) {
                     if ((callback == null) || !callback.abort()) {
-                        callback = notifyToListeners(container.getListeners(event.getType()), event, callbackClass, callback);
+                        callback = notifyToListeners(container.getListenerArray(event.getType()), event, callbackClass, callback);
                     }
                 }
             }
 
             // Global listener container.
             if ((callback == null) || !callback.abort()) {
-                callback = notifyToListeners(Listeners.Global().getListeners(event.getType()), event, callbackClass, callback);
+                callback = notifyToListeners(Listeners.Global().getListenerArray(event.getType()), event, callbackClass, callback);
             }
 
             return callback;
@@ -123,18 +121,18 @@ public final class EventDispatcher {
         T callback = null;
         // Local listener container first.
         if (container != null) {
-            callback = notifyToListeners(container.getListeners(event.getType()), event, callbackClass, callback);
+            callback = notifyToListeners(container.getListenerArray(event.getType()), event, callbackClass, callback);
         }
 
         // Global listener container.
         if ((callback == null) || !callback.abort()) {
-            callback = notifyToListeners(Listeners.Global().getListeners(event.getType()), event, callbackClass, callback);
+            callback = notifyToListeners(Listeners.Global().getListenerArray(event.getType()), event, callbackClass, callback);
         }
 
         return callback;
     }
 
-    private <T extends AbstractEventReturn> T notifyToListeners(Queue<AbstractEventListener> listeners, IBaseEvent event, Class<T> returnBackClass, T callback) {
+    private <T extends AbstractEventReturn> T notifyToListeners(AbstractEventListener[] listeners, IBaseEvent event, Class<T> returnBackClass, T callback) {
         for (AbstractEventListener listener : listeners) {
             try {
                 final T rb = listener.executeEvent(event, returnBackClass);
@@ -18,20 +18,33 @@
  */
 package org.l2j.gameserver.model.events;
 
-import org.l2j.commons.util.EmptyQueue;
 import org.l2j.gameserver.model.events.listeners.AbstractEventListener;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Predicate;
 
+import static java.util.Objects.isNull;
+
 /**
+ * Holds the listeners by {@link EventType}.
+ *
+ * The listeners of each type are kept in an immutable array sorted by priority, replaced on each register and unregister.
+ * So the dispatch iterates the array without locks or copies. A bitmask of the types with listeners answers {@link #hasListener(EventType)}.
+ *
  * @author UnAfraid
+ * @author JoeAlisson
  */
 public class ListenersContainer {
-    private volatile Map<EventType, Queue<AbstractEventListener>> _listeners = null;
+    public static final AbstractEventListener[] EMPTY_LISTENERS = new AbstractEventListener[0];
+    private static final int TYPES = EventType.values().length;
+
+    private volatile Map<EventType, AbstractEventListener[]> _listeners = null;
+    private volatile AtomicLongArray typesMask = null;
 
     /**
      * Registers listener for a callback when specified event is executed.
@@ -43,10 +56,30 @@ public class ListenersContainer {
         if ((listener == null)) {
             throw new NullPointerException("Listener cannot be null!");
         }
-        getListeners().computeIfAbsent(listener.getType(), k -> new PriorityBlockingQueue<>()).add(listener);
+        getListeners().compute(listener.getType(), (type, listeners) -> {
+            final var result = insertByPriority(isNull(listeners) ? EMPTY_LISTENERS : listeners, listener);
+            typesMask.getAndAccumulate(type.ordinal() >> 6, 1L << type.ordinal(), (mask, bit) -> mask | bit);
+            return result;
+        });
         return listener;
     }
 
+    /**
+     * Inserts the listener after the listeners with the same or higher priority, keeping the registration order on the same priority.
+     */
+    private static AbstractEventListener[] insertByPriority(AbstractEventListener[] listeners, AbstractEventListener listener) {
+        int index = listeners.length;
+        while (index > 0 && listeners[index - 1].getPriority() < listener.getPriority()) {
+            index--;
+        }
+
+        final var result = new AbstractEventListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, result, 0, index);
+        result[index] = listener;
+        System.arraycopy(listeners, index, result, index + 1, listeners.length - index);
+        return result;
+    }
+
     /**
      * Unregisters listener for a callback when specified event is executed.
      *
@@ -62,30 +95,74 @@ public class ListenersContainer {
             throw new IllegalAccessError("Listeners container doesn't had " + listener.getType() + " event type added!");
         }
 
-        _listeners.get(listener.getType()).remove(listener);
+        _listeners.computeIfPresent(listener.getType(), (type, listeners) -> {
+            final var result = remove(listeners, listener);
+            if (result.length == 0) {
+                typesMask.getAndAccumulate(type.ordinal() >> 6, 1L << type.ordinal(), (mask, bit) -> mask & ~bit);
+            }
+            return result;
+        });
         return listener;
     }
 
+    private static AbstractEventListener[] remove(AbstractEventListener[] listeners, AbstractEventListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                final var result = new AbstractEventListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, result, 0, i);
+                System.arraycopy(listeners, i + 1, result, i, result.length - i);
+                return result;
+            }
+        }
+        return listeners;
+    }
+
     /**
      * @param type
-     * @return {@code List} of {@link AbstractEventListener} by the specified type
+     * @return unmodifiable {@code List} of {@link AbstractEventListener} by the specified type
      */
-    public Queue<AbstractEventListener> getListeners(EventType type) {
-        return (_listeners != null) && _listeners.containsKey(type) ? _listeners.get(type) : EmptyQueue.emptyQueue();
+    public List<AbstractEventListener> getListeners(EventType type) {
+        final var listeners = getListenerArray(type);
+        return listeners.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(listeners));
+    }
+
+    /**
+     * The returned array must not be modified.
+     *
+     * @param type
+     * @return the listeners of the type sorted by priority
+     */
+    public AbstractEventListener[] getListenerArray(EventType type) {
+        final var listeners = _listeners;
+        if (isNull(listeners)) {
+            return EMPTY_LISTENERS;
+        }
+        return listeners.getOrDefault(type, EMPTY_LISTENERS);
     }
 
     public void removeListenerIf(EventType type, Predicate<? super AbstractEventListener> filter) {
-        getListeners(type).stream().filter(filter).forEach(AbstractEventListener::unregisterMe);
+        for (AbstractEventListener listener : getListenerArray(type)) {
+            if (filter.test(listener)) {
+                listener.unregisterMe();
+            }
+        }
     }
 
     public void removeListenerIf(Predicate<? super AbstractEventListener> filter) {
         if (_listeners != null) {
-            getListeners().values().forEach(queue -> queue.stream().filter(filter).forEach(AbstractEventListener::unregisterMe));
+            for (AbstractEventListener[] listeners : _listeners.values()) {
+                for (AbstractEventListener listener : listeners) {
+                    if (filter.test(listener)) {
+                        listener.unregisterMe();
+                    }
+                }
+            }
         }
     }
 
     public boolean hasListener(EventType type) {
-        return !getListeners(type).isEmpty();
+        final var mask = typesMask;
+        return mask != null && (mask.get(type.ordinal() >> 6) & (1L << type.ordinal())) != 0;
     }
 
     /**
@@ -93,10 +170,11 @@ public class ListenersContainer {
      *
      * @return the listeners container map.
      */
-    private Map<EventType, Queue<AbstractEventListener>> getListeners() {
+    private Map<EventType, AbstractEventListener[]> getListeners() {
         if (_listeners == null) {
             synchronized (this) {
                 if (_listeners == null) {
+                    typesMask = new AtomicLongArray((TYPES + 63) >> 6);
                     _listeners = new ConcurrentHashMap<>();
                 }
             }
@@ -335,7 +335,8 @@ public abstract class ItemContainer {
             }
         }
 
-        sourceItem.updateDatabase(true);
+        // the moved count must leave the source at once, otherwise a crash keeps it on both items
+        sourceItem.updateDatabaseImmediately();
         if ((targetItem != sourceItem) && (targetItem != null)) {
             targetItem.updateDatabase();
         }
@@ -373,7 +374,7 @@ public abstract class ItemContainer {
             removeItem(item);
         } else {
             item.changeCount(process, -count, actor, reference);
-            item.updateDatabase(true);
+            item.updateDatabaseImmediately();
             item = ItemEngine.getInstance().createItem(process, item.getId(), count, actor, reference);
             item.changeOwner(getOwnerId());
         }
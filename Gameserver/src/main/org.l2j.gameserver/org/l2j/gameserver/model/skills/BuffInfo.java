@@ -18,7 +18,6 @@
  */
 package org.l2j.gameserver.model.skills;
 
-import org.l2j.commons.threading.ThreadPool;
 import org.l2j.commons.util.Util;
 import org.l2j.gameserver.engine.item.Item;
 import org.l2j.gameserver.engine.skill.api.Skill;
@@ -27,20 +26,19 @@ import org.l2j.gameserver.model.WorldObject;
 import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.actor.Summon;
 import org.l2j.gameserver.model.effects.AbstractEffect;
-import org.l2j.gameserver.model.effects.EffectTaskInfo;
-import org.l2j.gameserver.model.effects.EffectTickTask;
 import org.l2j.gameserver.model.options.Options;
 import org.l2j.gameserver.model.stats.Formulas;
 import org.l2j.gameserver.network.SystemMessageId;
 import org.l2j.gameserver.network.serverpackets.SystemMessage;
 import org.l2j.gameserver.settings.CharacterSettings;
+import org.l2j.gameserver.taskmanager.EffectTaskManager;
+import org.l2j.gameserver.taskmanager.EffectTaskManager.EffectTask;
 import org.l2j.gameserver.world.WorldTimeController;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 
 import static org.l2j.gameserver.util.GameUtils.isPlayer;
 import static org.l2j.gameserver.util.GameUtils.isSummon;
@@ -69,7 +67,7 @@ public final class BuffInfo {
     /**
      * Effect tasks for ticks.
      */
-    private volatile Map<AbstractEffect, EffectTaskInfo> _tasks;
+    private volatile Map<AbstractEffect, EffectTask> _tasks;
 
     /**
      * Abnormal time.
@@ -121,10 +119,10 @@ public final class BuffInfo {
      * Adds an effect task to this buff info.<br>
      * Uses double-checked locking to initialize the map if it's necessary.
      *
-     * @param effect         the effect that owns the task
-     * @param effectTaskInfo the task info
+     * @param effect     the effect that owns the task
+     * @param effectTask the task
      */
-    private void addTask(AbstractEffect effect, EffectTaskInfo effectTaskInfo) {
+    private void addTask(AbstractEffect effect, EffectTask effectTask) {
         if (_tasks == null) {
             synchronized (this) {
                 if (_tasks == null) {
@@ -132,7 +130,7 @@ public final class BuffInfo {
                 }
             }
         }
-        _tasks.put(effect, effectTaskInfo);
+        _tasks.put(effect, effectTask);
     }
 
     /**
@@ -141,7 +139,7 @@ public final class BuffInfo {
      * @param effect the effect
      * @return the task
      */
-    private EffectTaskInfo getEffectTask(AbstractEffect effect) {
+    private EffectTask getEffectTask(AbstractEffect effect) {
         return (_tasks == null) ? null : _tasks.get(effect);
     }
 
@@ -304,13 +302,9 @@ public final class BuffInfo {
             // Call on start.
             effect.onStart(_effector, _effected, skill, _item);
 
-            // If it's a continuous effect, if has ticks schedule a task with period, otherwise schedule a simple task to end it.
+            // If it's a continuous effect with ticks, schedule its ticks with the effected's other effects.
             if (effect.getTicks() > 0) {
-                // The task for the effect ticks.
-                final EffectTickTask effectTask = new EffectTickTask(this, effect);
-                var effectTickRatio = CharacterSettings.effectTickRatio() * effect.getTicks();
-                final ScheduledFuture<?> scheduledFuture = ThreadPool.scheduleAtFixedRate(effectTask, effectTickRatio, effectTickRatio);
-                addTask(effect, new EffectTaskInfo(scheduledFuture));
+                addTask(effect, EffectTaskManager.getInstance().scheduleTicks(this, effect, (long) CharacterSettings.effectTickRatio() * effect.getTicks()));
             }
         }
     }
@@ -330,9 +324,9 @@ public final class BuffInfo {
         }
 
         if (!continueForever && skill.isToggle()) {
-            final EffectTaskInfo task = getEffectTask(effect);
+            final EffectTask task = getEffectTask(effect);
             if (task != null) {
-                task.getScheduledFuture().cancel(true); // Don't allow to finish current run.
+                task.cancel();
                 _effected.getEffectList().stopSkillEffects(true, skill); // Remove the buff from the effect list.
             }
         }
@@ -341,8 +335,8 @@ public final class BuffInfo {
     public void finishEffects() {
         // Cancels the ticking task.
         if (_tasks != null) {
-            for (EffectTaskInfo effectTask : _tasks.values()) {
-                effectTask.getScheduledFuture().cancel(true); // Don't allow to finish current run.
+            for (EffectTask effectTask : _tasks.values()) {
+                effectTask.cancel();
             }
         }
 
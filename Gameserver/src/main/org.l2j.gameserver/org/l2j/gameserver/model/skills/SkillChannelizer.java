@@ -143,11 +143,9 @@ public class SkillChannelizer implements Runnable {
             }
             channelized = targetList;
 
-            for (Creature character : channelized) {
+            for (Creature character : GeoEngine.getInstance().canSeeTargets(_channelizer, channelized)) {
                 if (!GameUtils.checkIfInRange(skill.getEffectRange(), _channelizer, character, true)) {
                     continue;
-                } else if (!GeoEngine.getInstance().canSeeTarget(_channelizer, character)) {
-                    continue;
                 }
 
                 if (skill.getChannelingSkillId() > 0) {
@@ -128,5 +128,15 @@ public interface IStatsFunction {
         return max(minValue, value);
     }
 
+    /**
+     * The final values are cached by the creature stats until the next recalculation, so a finalizer depending on
+     * state that changes without recalculating the stats (zones, posture, mount) must not be cached.
+     *
+     * @return true if the value depends only on the stats modifiers, level and equipment of the creature
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+
     double calc(Creature creature, Optional<Double> base, Stat stat);
 }
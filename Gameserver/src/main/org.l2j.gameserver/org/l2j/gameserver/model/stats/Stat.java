@@ -24,7 +24,7 @@ import org.l2j.gameserver.model.stats.finalizers.*;
 import java.util.EnumSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
 
 /**
  * Enum of basic stats.
@@ -293,8 +293,9 @@ public enum Stat {
     private static final EnumSet<Stat> CACHE = EnumSet.allOf(Stat.class);
 
     private final IStatsFunction _valueFinalizer;
-    private final BiFunction<Double, Double, Double> _addFunction;
-    private final BiFunction<Double, Double, Double> _mulFunction;
+    private final DoubleBinaryOperator _addFunction;
+    private final DoubleBinaryOperator _mulFunction;
+    private final boolean cacheable;
     private boolean hasDefaultFinalizer ;
 
     Stat() {
@@ -307,10 +308,11 @@ public enum Stat {
 
     }
 
-    Stat(IStatsFunction valueFinalizer, BiFunction<Double, Double, Double> addFunction, BiFunction<Double, Double, Double> mulFunction) {
+    Stat(IStatsFunction valueFinalizer, DoubleBinaryOperator addFunction, DoubleBinaryOperator mulFunction) {
         _valueFinalizer = valueFinalizer;
         _addFunction = addFunction;
         _mulFunction = mulFunction;
+        cacheable = valueFinalizer.isCacheable();
     }
 
     public static Set<Stat> all() {
@@ -342,14 +344,22 @@ public enum Stat {
     }
 
     public double functionAdd(double oldValue, double value) {
-        return _addFunction.apply(oldValue, value);
+        return _addFunction.applyAsDouble(oldValue, value);
     }
 
     public double functionMul(double oldValue, double value) {
-        return _mulFunction.apply(oldValue, value);
+        return _mulFunction.applyAsDouble(oldValue, value);
     }
 
     public boolean hasDefaultFinalizer() {
         return hasDefaultFinalizer;
     }
+
+    /**
+     * @return true if the final value of the stat can be cached until the next stats recalculation
+     * @see IStatsFunction#isCacheable()
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
 }
@@ -48,6 +48,10 @@ public class StatsHolder {
         return _value;
     }
 
+    public boolean hasCondition() {
+        return _condition != null;
+    }
+
     public boolean verifyCondition(Creature creature) {
         return (_condition == null) || _condition.test(creature, this);
     }
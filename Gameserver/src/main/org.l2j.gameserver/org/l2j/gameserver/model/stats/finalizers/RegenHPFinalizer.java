@@ -72,6 +72,11 @@ public class RegenHPFinalizer implements IStatsFunction {
         return 1.5; // If all is true, then modifier will be 50% more
     }
 
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
     @Override
     public double calc(Creature creature, Optional<Double> base, Stat stat) {
         throwIfPresent(base);
@@ -46,6 +46,11 @@ import static org.l2j.gameserver.util.GameUtils.isPlayer;
  * @author UnAfraid
  */
 public class RegenMPFinalizer implements IStatsFunction {
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
     @Override
     public double calc(Creature creature, Optional<Double> base, Stat stat) {
         throwIfPresent(base);
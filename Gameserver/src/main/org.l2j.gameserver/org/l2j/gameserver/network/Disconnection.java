@@ -24,6 +24,7 @@ import org.l2j.gameserver.model.actor.instance.Player;
 import org.l2j.gameserver.model.events.EventDispatcher;
 import org.l2j.gameserver.model.events.impl.character.player.OnPlayerLogout;
 import org.l2j.gameserver.taskmanager.AttackStanceTaskManager;
+import org.l2j.gameserver.taskmanager.SaveTaskManager;
 import org.l2j.gameserver.util.GameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -103,7 +104,7 @@ public final class Disconnection {
     private void storeMe() {
         if (nonNull(player)) {
             try {
-                player.storeMe();
+                SaveTaskManager.getInstance().saveNow(player);
             } catch (Exception e) {
                 LOGGER.error(e.getMessage(), e);
             }
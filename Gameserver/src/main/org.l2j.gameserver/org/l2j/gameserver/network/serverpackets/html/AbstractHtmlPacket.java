@@ -19,6 +19,7 @@
 package org.l2j.gameserver.network.serverpackets.html;
 
 import org.l2j.gameserver.cache.HtmCache;
+import org.l2j.gameserver.cache.HtmlTemplate;
 import org.l2j.gameserver.enums.HtmlActionScope;
 import org.l2j.gameserver.model.actor.instance.Player;
 import org.l2j.gameserver.network.serverpackets.ServerPacket;
@@ -26,15 +27,23 @@ import org.l2j.gameserver.util.GameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.regex.Matcher;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 /**
  * @author HorridoJoho
  */
 public abstract class AbstractHtmlPacket extends ServerPacket {
     public static final char VAR_PARAM_START_CHAR = '$';
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractHtmlPacket.class);
+    private static final String REGEX_CHARS = "\\^$.|?*+()[]{}";
 
     private final int _npcObjId;
     private String html = null;
+    private HtmlTemplate template;
+    private String[] slotValues;
     private boolean _disabledValidation = false;
 
     protected AbstractHtmlPacket() {
@@ -68,19 +77,77 @@ public abstract class AbstractHtmlPacket extends ServerPacket {
     }
 
     public final boolean setFile(Player player, String path) {
-        final String content = HtmCache.getInstance().getHtm(player, path);
-        if (content == null) {
+        final var fileTemplate = HtmCache.getInstance().getTemplate(player, path);
+        if (isNull(fileTemplate)) {
             setHtml("<html><body>My Text is missing:<br>" + path + "</body></html>");
             LOGGER.warn("missing html page " + path);
             return false;
         }
 
-        setHtml(content);
+        if (fileTemplate.isHtmlDocument() && !isTooLong(fileTemplate.getHtml())) {
+            template = fileTemplate;
+            slotValues = new String[fileTemplate.slotCount()];
+            html = null;
+        } else {
+            setHtml(fileTemplate.getHtml());
+        }
         return true;
     }
 
+    /**
+     * Replaces all occurrences of the pattern by the value.
+     *
+     * When the html came from a file, the placeholders are filled on its template slots and the html is rendered only once.
+     * Otherwise the pattern is replaced on the html, as a regular expression when it has any regex special char.
+     */
     public final void replace(String pattern, String value) {
-        html = html.replaceAll(pattern, value.replaceAll("\\$", "\\\\\\$"));
+        if (nonNull(template)) {
+            if (fillSlot(pattern, value)) {
+                return;
+            }
+            html = getHtml();
+            template = null;
+            slotValues = null;
+        }
+
+        if (isRegex(pattern)) {
+            html = html.replaceAll(pattern, Matcher.quoteReplacement(value));
+        } else {
+            html = html.replace(pattern, value);
+        }
+    }
+
+    /**
+     * @return true if the replacement was resolved on the template slots
+     */
+    private boolean fillSlot(String pattern, String value) {
+        if (!HtmlTemplate.isPlaceholder(pattern)) {
+            return false;
+        }
+
+        final int slot = template.slotOf(pattern);
+        if (slot < 0 || nonNull(slotValues[slot])) {
+            // the placeholder is not on the html or it was already replaced
+            return true;
+        }
+
+        // a value with placeholders may be filled by the next replacements, so it must be on the html
+        if (value.indexOf(HtmlTemplate.PLACEHOLDER_CHAR) >= 0) {
+            return false;
+        }
+
+        slotValues[slot] = value;
+        html = null;
+        return true;
+    }
+
+    private static boolean isRegex(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (REGEX_CHARS.indexOf(pattern.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public final void replace(String pattern, CharSequence value) {
@@ -110,7 +177,12 @@ public abstract class AbstractHtmlPacket extends ServerPacket {
         }
 
         if (player != null) {
-            GameUtils.buildHtmlActionCache(player, getScope(), _npcObjId, html);
+            final var actions = nonNull(template) ? template.actions(slotValues) : null;
+            if (nonNull(actions)) {
+                GameUtils.buildHtmlActionCache(player, getScope(), _npcObjId, actions);
+            } else {
+                GameUtils.buildHtmlActionCache(player, getScope(), _npcObjId, getHtml());
+            }
         }
     }
 
@@ -119,21 +191,34 @@ public abstract class AbstractHtmlPacket extends ServerPacket {
     }
 
     public final String getHtml() {
+        if (isNull(html) && nonNull(template)) {
+            html = template.render(slotValues);
+        }
         return html;
     }
 
     public final void setHtml(String html) {
+        template = null;
+        slotValues = null;
+
         if (!html.contains("<html") && !html.startsWith("..\\L2")) {
             html = "<html><body>" + html + "</body></html>";
         }
 
-        if (html.length() > 17200) {
-            LOGGER.warn("Html is too long! this will crash the client!", new Throwable());
+        if (isTooLong(html)) {
             html = "Html is too long!";
         }
 
         this.html = html;
     }
 
+    private static boolean isTooLong(String html) {
+        if (html.length() > 17200) {
+            LOGGER.warn("Html is too long! this will crash the client!", new Throwable());
+            return true;
+        }
+        return false;
+    }
+
     public abstract HtmlActionScope getScope();
 }
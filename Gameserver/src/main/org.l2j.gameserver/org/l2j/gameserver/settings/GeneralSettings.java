@@ -45,6 +45,8 @@ public class GeneralSettings {
     private static IllegalActionPunishmentType defaultPunishment;
     private static boolean disableChatInJail;
     private static int autoSavePlayerTime;
+    private static int playerSaveWriters;
+    private static int playerSaveQueueSize;
     private static Duration saveDroppedItemInterval;
     private static boolean clearDroppedItems;
     private static boolean destroyPlayerDroppedItem;
@@ -126,6 +128,8 @@ public class GeneralSettings {
         defaultPunishment = settingsFile.getEnum("DefaultPunish", IllegalActionPunishmentType.class, IllegalActionPunishmentType.KICK);
         disableChatInJail = settingsFile.getBoolean("JailDisableChat", true);
         autoSavePlayerTime = settingsFile.getInt("PlayerDataStoreInterval", 20);
+        playerSaveWriters = settingsFile.getInt("PlayerDataStoreWriters", 2);
+        playerSaveQueueSize = settingsFile.getInt("PlayerDataStoreQueueSize", 1024);
 
         skillCheckEnabled = settingsFile.getBoolean("SkillCheckEnable", false);
         noSpawn = settingsFile.getBoolean("AltDevNoSpawns", false);
@@ -268,6 +272,14 @@ public class GeneralSettings {
         return autoSavePlayerTime;
     }
 
+    public static int playerSaveWriters() {
+        return playerSaveWriters;
+    }
+
+    public static int playerSaveQueueSize() {
+        return playerSaveQueueSize;
+    }
+
     public static boolean skillCheckEnabled() {
         return skillCheckEnabled;
     }
@@ -57,6 +57,8 @@ public class ServerSettings {
     private static int maxPlayerPerHWID;
     private static int maxThreadPoolSize;
     private static int parallelismThreshold;
+    private static int timingWheelPrecision;
+    private static int idFactorySnapshotDays;
 
     private ServerSettings() {
         // helper class
@@ -79,6 +81,8 @@ public class ServerSettings {
         threadPoolSize = determinePoolSize(settingsFile, "ThreadPoolSize", processors);
         maxThreadPoolSize = determinePoolSize(settingsFile, "MaxThreadPoolSize", threadPoolSize * 10);
         parallelismThreshold = settingsFile.getInt("ParallelismThreshold", 1000);
+        timingWheelPrecision = Math.max(1, settingsFile.getInt("TimingWheelPrecision", 100));
+        idFactorySnapshotDays = Math.max(0, settingsFile.getInt("IdFactorySnapshotDays", 0));
         acceptedProtocols =  settingsFile.getIntArray("AllowedProtocolRevisions", ";");
 
         scheduleRestart = settingsFile.getBoolean("ServerRestartScheduleEnabled", false);
@@ -162,6 +166,14 @@ public class ServerSettings {
         return parallelismThreshold;
     }
 
+    public static int timingWheelPrecision() {
+        return timingWheelPrecision;
+    }
+
+    public static int idFactorySnapshotDays() {
+        return idFactorySnapshotDays;
+    }
+
     public static int[] acceptedProtocols() {
         return acceptedProtocols;
     }
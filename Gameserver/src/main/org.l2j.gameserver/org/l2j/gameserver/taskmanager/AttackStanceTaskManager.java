@@ -18,18 +18,18 @@
  */
 package org.l2j.gameserver.taskmanager;
 
-import org.l2j.commons.threading.ThreadPool;
+import org.l2j.commons.threading.TimingWheel;
+import org.l2j.commons.threading.TimingWheel.Timeout;
 import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.actor.Summon;
 import org.l2j.gameserver.network.serverpackets.AutoAttackStop;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.Objects.nonNull;
 import static org.l2j.gameserver.util.GameUtils.isPlayer;
 import static org.l2j.gameserver.util.GameUtils.isSummon;
 
@@ -42,23 +42,31 @@ import static org.l2j.gameserver.util.GameUtils.isSummon;
 public class AttackStanceTaskManager {
     public static final long COMBAT_TIME = 15_000;
     protected static final Logger LOGGER = LoggerFactory.getLogger(AttackStanceTaskManager.class);
-    protected static final Map<Creature, Long> _attackStanceTasks = new ConcurrentHashMap<>();
+    protected static final Map<Creature, Timeout> _attackStanceTasks = new ConcurrentHashMap<>();
 
     /**
      * Instantiates a new attack stance task manager.
      */
     private AttackStanceTaskManager() {
-        ThreadPool.scheduleAtFixedRate(new FightModeScheduler(), 0, 1000);
     }
 
     /**
      * Adds the attack stance task.
+     * A pending task is moved to the end of the combat time in place, so a hit doesn't schedule a new task.
      *
      * @param actor the actor
      */
     public void addAttackStanceTask(Creature actor) {
         if (actor != null) {
-            _attackStanceTasks.put(actor, System.currentTimeMillis());
+            final var timeout = _attackStanceTasks.get(actor);
+            if (nonNull(timeout) && timeout.reschedule(COMBAT_TIME)) {
+                return;
+            }
+
+            final var previous = _attackStanceTasks.put(actor, TimingWheel.schedule(() -> stopAttackStance(actor), COMBAT_TIME));
+            if (nonNull(previous)) {
+                previous.cancel();
+            }
         }
     }
 
@@ -72,7 +80,10 @@ public class AttackStanceTaskManager {
             if (isSummon(actor)) {
                 actor = actor.getActingPlayer();
             }
-            _attackStanceTasks.remove(actor);
+            final var timeout = _attackStanceTasks.remove(actor);
+            if (nonNull(timeout)) {
+                timeout.cancel();
+            }
         }
     }
 
@@ -92,44 +103,31 @@ public class AttackStanceTaskManager {
         return false;
     }
 
-    public static AttackStanceTaskManager getInstance() {
-        return Singleton.INSTANCE;
-    }
-
-    private static class Singleton {
-        private static final AttackStanceTaskManager INSTANCE = new AttackStanceTaskManager();
-    }
-
-    protected class FightModeScheduler implements Runnable {
-        @Override
-        public void run() {
-            final long current = System.currentTimeMillis();
+    private void stopAttackStance(Creature actor) {
+        final var timeout = _attackStanceTasks.get(actor);
+        if (nonNull(timeout) && timeout.isExpired() && _attackStanceTasks.remove(actor, timeout)) {
             try {
-                final Iterator<Entry<Creature, Long>> iter = _attackStanceTasks.entrySet().iterator();
-                Entry<Creature, Long> e;
-                Creature actor;
-                while (iter.hasNext()) {
-                    e = iter.next();
-                    if ((current - e.getValue()) > COMBAT_TIME) {
-                        actor = e.getKey();
-                        if (actor != null) {
-                            actor.broadcastPacket(new AutoAttackStop(actor.getObjectId()));
-                            actor.getAI().setAutoAttacking(false);
-                            if (isPlayer(actor) && actor.hasSummon()) {
-                                final Summon pet = actor.getPet();
-                                if (pet != null) {
-                                    pet.broadcastPacket(new AutoAttackStop(pet.getObjectId()));
-                                }
-                                actor.getServitors().values().forEach(s -> s.broadcastPacket(new AutoAttackStop(s.getObjectId())));
-                            }
-                        }
-                        iter.remove();
+                actor.broadcastPacket(new AutoAttackStop(actor.getObjectId()));
+                actor.getAI().setAutoAttacking(false);
+                if (isPlayer(actor) && actor.hasSummon()) {
+                    final Summon pet = actor.getPet();
+                    if (pet != null) {
+                        pet.broadcastPacket(new AutoAttackStop(pet.getObjectId()));
                     }
+                    actor.getServitors().values().forEach(s -> s.broadcastPacket(new AutoAttackStop(s.getObjectId())));
                 }
             } catch (Exception e) {
                 // Unless caught here, players remain in attack positions.
-                LOGGER.warn("Error in FightModeScheduler: " + e.getMessage(), e);
+                LOGGER.warn("Error stopping attack stance: " + e.getMessage(), e);
             }
         }
     }
+
+    public static AttackStanceTaskManager getInstance() {
+        return Singleton.INSTANCE;
+    }
+
+    private static class Singleton {
+        private static final AttackStanceTaskManager INSTANCE = new AttackStanceTaskManager();
+    }
 }
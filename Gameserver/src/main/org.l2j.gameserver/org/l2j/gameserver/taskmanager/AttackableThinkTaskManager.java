@@ -20,52 +20,97 @@ package org.l2j.gameserver.taskmanager;
 
 import org.l2j.commons.threading.ThreadPool;
 import org.l2j.gameserver.ai.CreatureAI;
+import org.l2j.gameserver.ai.CtrlIntention;
 import org.l2j.gameserver.model.actor.Attackable;
+import org.l2j.gameserver.world.WorldRegion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 
-
+import static java.util.Objects.isNull;
 
 /**
+ * Executes the think of the attackables each second.
+ *
+ * The attackables are partitioned in shards by its {@link WorldRegion} and the shards think in parallel, so a slow think only delays its shard.
+ * Attackables in inactive regions are skipped and the ones without players around think less often, unless they are fighting.
+ *
  * @author Mobius
+ * @author JoeAlisson
  */
 public class AttackableThinkTaskManager
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttackableThinkTaskManager.class);
+
+    private static final long THINK_INTERVAL = 1000;
+    /**
+     * The amount of cycles between thinks of the attackables without players in the surrounding regions.
+     */
+    private static final int IDLE_THINK_CYCLES = 3;
+
     private final Set<Attackable> attackables = ConcurrentHashMap.newKeySet();
-    private boolean working = false;
+    private final AtomicBoolean working = new AtomicBoolean();
+    private final ThinkShard[] shards;
+    private long cycle;
 
     public AttackableThinkTaskManager() {
-        ThreadPool.scheduleAtFixedRate(() ->
-        {
-            if (working) {
-                return;
-            }
-            working = true;
-
-            CreatureAI ai;
-            for (Attackable attackable : attackables)
-            {
-                if (attackable.hasAI())
-                {
-                    ai = attackable.getAI();
-                    if (ai != null)
-                    {
-                        ai.onEvtThink();
-                    }
-                    else
-                    {
-                        remove(attackable);
-                    }
+        shards = new ThinkShard[Math.max(1, Runtime.getRuntime().availableProcessors())];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ThinkShard(i);
+        }
+        ThreadPool.scheduleAtFixedRate(this::think, THINK_INTERVAL, THINK_INTERVAL);
+    }
+
+    private void think() {
+        if (!working.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            cycle++;
+            for (Attackable attackable : attackables) {
+                final WorldRegion region = attackable.getWorldRegion();
+                if (isNull(region) || !region.isActive() || !shouldThink(attackable, region)) {
+                    continue;
                 }
-                else
-                {
-                    remove(attackable);
+                shards[Math.floorMod(region.hashCode(), shards.length)].attackables.add(attackable);
+            }
+
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>(shards.length);
+            for (ThinkShard shard : shards) {
+                if (!shard.attackables.isEmpty()) {
+                    tasks.add(ForkJoinTask.adapt(shard::think));
                 }
             }
+            ThreadPool.invokeForked(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } catch (Exception e) {
+            LOGGER.warn("Error executing attackables think", e);
+        } finally {
+            working.set(false);
+        }
+    }
+
+    /**
+     * The attackables fighting always think, the others think less often when there is no player around.
+     */
+    private boolean shouldThink(Attackable attackable, WorldRegion region) {
+        if (!attackable.hasAI()) {
+            remove(attackable);
+            return false;
+        }
 
-            working = false;
-        }, 1000, 1000);
+        final var intention = attackable.getAI().getIntention();
+        if (intention == CtrlIntention.AI_INTENTION_ATTACK || intention == CtrlIntention.AI_INTENTION_CAST || region.getPlayersCountInSurround() > 0) {
+            return true;
+        }
+        return (cycle + attackable.getObjectId()) % IDLE_THINK_CYCLES == 0;
     }
 
     public void add(Attackable attackable) {
@@ -77,6 +122,16 @@ public class AttackableThinkTaskManager
         attackables.remove(attackable);
     }
 
+    public CharSequence getStats() {
+        final var stats = new StringBuilder("Attackable Think Shards\n");
+        stats.append("=================================================\n");
+        stats.append("\tAttackables: ......... ").append(attackables.size()).append("\n");
+        for (ThinkShard shard : shards) {
+            shard.appendStats(stats);
+        }
+        return stats;
+    }
+
     public static AttackableThinkTaskManager getInstance()
     {
         return SingletonHolder.INSTANCE;
@@ -86,4 +141,57 @@ public class AttackableThinkTaskManager
     {
         protected static final AttackableThinkTaskManager INSTANCE = new AttackableThinkTaskManager();
     }
+
+    private class ThinkShard {
+        /**
+         * Think latency histogram, the bucket n counts the thinks that took less than 2^n microseconds. The last bucket counts the slower ones.
+         */
+        private static final int LATENCY_BUCKETS = 16;
+
+        private final int id;
+        private final List<Attackable> attackables = new ArrayList<>();
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+
+        private ThinkShard(int id) {
+            this.id = id;
+        }
+
+        private void think() {
+            try {
+                for (Attackable attackable : attackables) {
+                    final long start = System.nanoTime();
+                    try {
+                        final CreatureAI ai = attackable.getAI();
+                        if (isNull(ai)) {
+                            remove(attackable);
+                            continue;
+                        }
+                        ai.onEvtThink();
+                    } catch (Exception e) {
+                        LOGGER.warn("Error on think of {}", attackable, e);
+                    }
+                    record(System.nanoTime() - start);
+                }
+            } finally {
+                attackables.clear();
+            }
+        }
+
+        private void record(long nanos) {
+            final long micros = nanos / 1000;
+            final int bucket = Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            latencies.incrementAndGet(bucket);
+        }
+
+        private void appendStats(StringBuilder stats) {
+            stats.append("\tShard ").append(id).append(" think latency (us):");
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                final long count = latencies.get(i);
+                if (count > 0) {
+                    stats.append(' ').append(i == LATENCY_BUCKETS - 1 ? ">=" : "<").append(1L << (i == LATENCY_BUCKETS - 1 ? i - 1 : i)).append('=').append(count);
+                }
+            }
+            stats.append("\n");
+        }
+    }
 }
@@ -18,7 +18,8 @@
  */
 package org.l2j.gameserver.taskmanager;
 
-import org.l2j.commons.threading.ThreadPool;
+import org.l2j.commons.threading.TimingWheel;
+import org.l2j.commons.threading.TimingWheel.Timeout;
 import org.l2j.gameserver.model.actor.Attackable;
 import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.actor.templates.NpcTemplate;
@@ -28,28 +29,24 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.Objects.nonNull;
 
 /**
  * @author NosBit
  */
 public final class DecayTaskManager {
 
-    private static final Map<Creature, Long> DECAY_SCHEDULES = new ConcurrentHashMap<>();
+    private static final Map<Creature, Timeout> DECAY_SCHEDULES = new ConcurrentHashMap<>();
 
     private DecayTaskManager() {
-        ThreadPool.scheduleAtFixedRate(() ->
-        {
-            final long time = System.currentTimeMillis();
-            for (Entry<Creature, Long> entry : DECAY_SCHEDULES.entrySet())
-            {
-                if (time > entry.getValue())
-                {
-                    final Creature creature = entry.getKey();
-                    DECAY_SCHEDULES.remove(creature);
-                    creature.onDecay();
-                }
-            }
-        }, 0, 1000);
+    }
+
+    private void decay(Creature creature) {
+        // when the decay is rescheduled or cancelled the creature is mapped to a pending timeout or not mapped at all
+        final var timeout = DECAY_SCHEDULES.get(creature);
+        if (nonNull(timeout) && timeout.isExpired() && DECAY_SCHEDULES.remove(creature, timeout)) {
+            creature.onDecay();
+        }
     }
 
     /**
@@ -75,7 +72,10 @@ public final class DecayTaskManager {
             delay += NpcSettings.spoiledCorpseExtendTime();
         }
 
-		DECAY_SCHEDULES.put(character, System.currentTimeMillis() + delay * 1000);
+        final var previous = DECAY_SCHEDULES.put(character, TimingWheel.schedule(() -> decay(character), delay * 1000));
+        if (nonNull(previous)) {
+            previous.cancel();
+        }
     }
 
     /**
@@ -83,9 +83,11 @@ public final class DecayTaskManager {
      *
      * @param creature the character
      */
-	public void cancel(Creature creature)
-	{
-		DECAY_SCHEDULES.remove(creature);
+    public void cancel(Creature creature) {
+        final var timeout = DECAY_SCHEDULES.remove(creature);
+        if (nonNull(timeout)) {
+            timeout.cancel();
+        }
     }
 
     /**
@@ -94,10 +96,9 @@ public final class DecayTaskManager {
      * @param creature the character
      * @return if a decay task exists the remaining time, {@code Long.MAX_VALUE} otherwise
      */
-	public long getRemainingTime(Creature creature)
-	{
-		final Long time = DECAY_SCHEDULES.get(creature);
-		return time != null ? time - System.currentTimeMillis() : Long.MAX_VALUE;
+    public long getRemainingTime(Creature creature) {
+        final var timeout = DECAY_SCHEDULES.get(creature);
+        return nonNull(timeout) ? timeout.getRemainingTime() : Long.MAX_VALUE;
     }
 
     @Override
@@ -106,20 +107,18 @@ public final class DecayTaskManager {
         ret.append("============= DecayTask Manager Report ============");
         ret.append(System.lineSeparator());
         ret.append("Tasks count: ");
-		ret.append(DECAY_SCHEDULES.size());
+        ret.append(DECAY_SCHEDULES.size());
         ret.append(System.lineSeparator());
         ret.append("Tasks dump:");
         ret.append(System.lineSeparator());
 
-		final long time = System.currentTimeMillis();
-		for (Entry<Creature, Long> entry : DECAY_SCHEDULES.entrySet())
-		{
+        for (Entry<Creature, Timeout> entry : DECAY_SCHEDULES.entrySet()) {
             ret.append("Class/Name: ");
             ret.append(entry.getKey().getClass().getSimpleName());
             ret.append('/');
             ret.append(entry.getKey().getName());
             ret.append(" decay timer: ");
-			ret.append(entry.getValue() - time);
+            ret.append(entry.getValue().getRemainingTime());
             ret.append(System.lineSeparator());
         }
 
@@ -0,0 +1,286 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.taskmanager;
+
+import org.l2j.commons.threading.ThreadPool;
+import org.l2j.gameserver.model.actor.Creature;
+import org.l2j.gameserver.model.effects.AbstractEffect;
+import org.l2j.gameserver.model.skills.BuffInfo;
+import org.l2j.gameserver.settings.CharacterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Executes the ticks of the continuous effects and finishes the effects when its abnormal time is over.
+ *
+ * The time is split in buckets of {@link CharacterSettings#effectTickRatio()} milliseconds and the effect ticks are aligned to the buckets.
+ * On each bucket the due ticks and finishes of a creature are processed in a single pass, the creatures are processed in batches on the thread pool.
+ *
+ * @author JoeAlisson
+ */
+public final class EffectTaskManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EffectTaskManager.class);
+    private static final int CREATURES_PER_TASK = 32;
+
+    private final Map<Creature, CreatureEffects> creatures = new ConcurrentHashMap<>();
+    private final long bucketDuration;
+    private final long startTime;
+
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong busySkips = new AtomicLong();
+    private final AtomicLong totalLag = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile long lastLag;
+
+    private EffectTaskManager() {
+        bucketDuration = Math.max(1, CharacterSettings.effectTickRatio());
+        startTime = System.currentTimeMillis();
+        ThreadPool.scheduleAtFixedRate(this::tick, bucketDuration, bucketDuration);
+    }
+
+    /**
+     * Schedules the ticks of the effect, the first tick is executed after a period.
+     *
+     * @param info the buff info that owns the effect
+     * @param effect the effect that ticks
+     * @param period the period between ticks in milliseconds
+     * @return the task that can be used to cancel the ticks
+     */
+    public EffectTask scheduleTicks(BuffInfo info, AbstractEffect effect, long period) {
+        final var task = new EffectTask(info, effect, Math.max(1, (period + bucketDuration - 1) / bucketDuration));
+        task.nextBucket = bucketOf(System.currentTimeMillis() + period);
+        creatures.compute(info.getEffected(), (creature, effects) -> {
+            if (isNull(effects)) {
+                effects = new CreatureEffects(creature);
+            }
+            effects.tasks.add(task);
+            return effects;
+        });
+        return task;
+    }
+
+    /**
+     * Schedules the finish of the buff info after its abnormal time.
+     */
+    public void scheduleFinish(BuffInfo info) {
+        final long start = System.currentTimeMillis();
+        creatures.compute(info.getEffected(), (creature, effects) -> {
+            if (isNull(effects)) {
+                effects = new CreatureEffects(creature);
+            }
+            effects.finishes.put(info, start);
+            return effects;
+        });
+    }
+
+    public void cancelFinish(BuffInfo info) {
+        creatures.computeIfPresent(info.getEffected(), (creature, effects) -> {
+            effects.finishes.remove(info);
+            return effects.isEmpty() ? null : effects;
+        });
+    }
+
+    /**
+     * Cancels all ticks and finishes of the creature.
+     */
+    public void remove(Creature creature) {
+        final var effects = creatures.remove(creature);
+        if (nonNull(effects)) {
+            effects.tasks.forEach(EffectTask::cancel);
+        }
+    }
+
+    /**
+     * @return the bucket of the time, rounded up so the tasks are never executed before its time
+     */
+    private long bucketOf(long time) {
+        return (time - startTime + bucketDuration - 1) / bucketDuration;
+    }
+
+    private void tick() {
+        if (creatures.isEmpty()) {
+            return;
+        }
+
+        final long bucket = (System.currentTimeMillis() - startTime) / bucketDuration;
+        List<CreatureEffects> batch = new ArrayList<>(CREATURES_PER_TASK);
+        for (CreatureEffects effects : creatures.values()) {
+            batch.add(effects);
+            if (batch.size() == CREATURES_PER_TASK) {
+                process(batch, bucket);
+                batch = new ArrayList<>(CREATURES_PER_TASK);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            process(batch, bucket);
+        }
+    }
+
+    private void process(List<CreatureEffects> batch, long bucket) {
+        ThreadPool.execute(() -> {
+            recordLag(System.currentTimeMillis() - (startTime + bucket * bucketDuration));
+            for (CreatureEffects effects : batch) {
+                try {
+                    effects.process(bucket);
+                } catch (Exception e) {
+                    LOGGER.warn("Error processing effects of {}", effects.creature, e);
+                }
+
+                if (effects.isEmpty()) {
+                    creatures.computeIfPresent(effects.creature, (creature, current) -> current == effects && current.isEmpty() ? null : current);
+                }
+            }
+        });
+    }
+
+    private void recordLag(long lag) {
+        batches.incrementAndGet();
+        lastLag = lag;
+        totalLag.addAndGet(lag);
+        maxLag.accumulateAndGet(lag, Math::max);
+    }
+
+    public CharSequence getStats() {
+        final long batchCount = batches.get();
+        return new StringBuilder("Effect Tasks\n")
+            .append("=================================================\n")
+            .append("\tCreatures: ........... ").append(creatures.size()).append("\n")
+            .append("\tBucket (ms): ......... ").append(bucketDuration).append("\n")
+            .append("\tPasses: .............. ").append(passes.get()).append("\n")
+            .append("\tTicks: ............... ").append(ticks.get()).append("\n")
+            .append("\tBusy Skips: .......... ").append(busySkips.get()).append("\n")
+            .append("\tLast Lag (ms): ....... ").append(lastLag).append("\n")
+            .append("\tAverage Lag (ms): .... ").append(batchCount > 0 ? totalLag.get() / (double) batchCount : 0).append("\n")
+            .append("\tMax Lag (ms): ........ ").append(maxLag.get()).append("\n");
+    }
+
+    public static EffectTaskManager getInstance() {
+        return Singleton.INSTANCE;
+    }
+
+    private static final class Singleton {
+        private static final EffectTaskManager INSTANCE = new EffectTaskManager();
+    }
+
+    private final class CreatureEffects {
+        private final Creature creature;
+        private final Queue<EffectTask> tasks = new ConcurrentLinkedQueue<>();
+        private final Map<BuffInfo, Long> finishes = new ConcurrentHashMap<>();
+        private final AtomicBoolean processing = new AtomicBoolean();
+
+        private CreatureEffects(Creature creature) {
+            this.creature = creature;
+        }
+
+        private void process(long bucket) {
+            // a slow pass of the previous bucket is still running, the due ticks are executed on the next pass
+            if (!processing.compareAndSet(false, true)) {
+                busySkips.incrementAndGet();
+                return;
+            }
+
+            try {
+                passes.incrementAndGet();
+                processTicks(bucket);
+                processFinishes();
+            } finally {
+                processing.set(false);
+            }
+        }
+
+        private void processTicks(long bucket) {
+            for (var iterator = tasks.iterator(); iterator.hasNext(); ) {
+                final var task = iterator.next();
+                if (task.cancelled) {
+                    iterator.remove();
+                } else if (task.nextBucket <= bucket) {
+                    task.nextBucket += task.period;
+                    ticks.incrementAndGet();
+                    try {
+                        task.info.onTick(task.effect);
+                    } catch (Exception e) {
+                        LOGGER.warn("Error on tick of effect {} of {}", task.effect, creature, e);
+                    }
+                }
+            }
+        }
+
+        private void processFinishes() {
+            if (finishes.isEmpty()) {
+                return;
+            }
+
+            final long now = System.currentTimeMillis();
+            for (var entry : finishes.entrySet()) {
+                final var info = entry.getKey();
+                if (now - entry.getValue() >= info.getAbnormalTime() * 1000L) {
+                    creature.getEffectList().stopSkillEffects(false, info.getSkill().getId());
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return tasks.isEmpty() && finishes.isEmpty();
+        }
+    }
+
+    /**
+     * The ticks of a continuous effect.
+     */
+    public static final class EffectTask {
+        private final BuffInfo info;
+        private final AbstractEffect effect;
+        private final long period;
+        private long nextBucket;
+        private volatile boolean cancelled;
+
+        private EffectTask(BuffInfo info, AbstractEffect effect, long period) {
+            this.info = info;
+            this.effect = effect;
+            this.period = period;
+        }
+
+        /**
+         * Cancels the next ticks, a tick already running is not interrupted.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.taskmanager;
+
+import org.l2j.commons.database.DatabaseAccess;
+import org.l2j.commons.threading.ThreadPool;
+import org.l2j.gameserver.engine.item.Item;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Deferred write of the items count changes.
+ *
+ * The items are grouped by owner and each item is written once per flush, no matter how many times its count changed.
+ * The items of an owner are written together in a single transaction.
+ *
+ * @author JoeAlisson
+ */
+public final class ItemUpdateTaskManager {
+
+    private static final long FLUSH_INTERVAL = 10000;
+
+    private final Map<Integer, Set<Item>> pending = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    private ItemUpdateTaskManager() {
+        ThreadPool.scheduleAtFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL);
+    }
+
+    /**
+     * Schedules the write of the item changes.
+     */
+    public void add(Item item) {
+        requests.increment();
+        // computing on the map bin, so the item is never added to a set being flushed
+        pending.compute(item.getOwnerId(), (owner, items) -> {
+            if (isNull(items)) {
+                items = ConcurrentHashMap.newKeySet();
+            }
+            items.add(item);
+            return items;
+        });
+    }
+
+    /**
+     * Writes the pending changes of the items owned by the owner on the caller thread.
+     */
+    public void storeChanges(int ownerId) {
+        final var items = pending.remove(ownerId);
+        if (nonNull(items)) {
+            store(items);
+        }
+    }
+
+    /**
+     * Writes the pending changes of all items.
+     */
+    public void flush() {
+        for (Integer owner : pending.keySet()) {
+            storeChanges(owner);
+        }
+    }
+
+    /**
+     * The items of a rolled back transaction schedule themselves again.
+     */
+    private void store(Set<Item> items) {
+        if (DatabaseAccess.executeInTransaction(() -> items.forEach(Item::storeChanges))) {
+            writes.add(items.size());
+        }
+    }
+
+    public CharSequence getStats() {
+        return new StringBuilder("Item Update\n")
+            .append("=================================================\n")
+            .append("\tPending Owners: ...... ").append(pending.size()).append("\n")
+            .append("\tRequests: ............ ").append(requests.sum()).append("\n")
+            .append("\tWrites: .............. ").append(writes.sum()).append("\n");
+    }
+
+    public static ItemUpdateTaskManager getInstance() {
+        return Singleton.INSTANCE;
+    }
+
+    private static final class Singleton {
+        private static final ItemUpdateTaskManager INSTANCE = new ItemUpdateTaskManager();
+    }
+}
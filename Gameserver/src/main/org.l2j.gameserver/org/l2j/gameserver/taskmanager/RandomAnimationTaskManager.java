@@ -18,51 +18,58 @@
  */
 package org.l2j.gameserver.taskmanager;
 
-import org.l2j.commons.threading.ThreadPool;
+import org.l2j.commons.threading.TimingWheel;
+import org.l2j.commons.threading.TimingWheel.Timeout;
 import org.l2j.commons.util.Rnd;
 import org.l2j.gameserver.model.actor.Npc;
 import org.l2j.gameserver.settings.GeneralSettings;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.Objects.nonNull;
+
 /**
  * @author Mobius
  */
 public class RandomAnimationTaskManager
 {
-    private static final Map<Npc, Long> PENDING_ANIMATIONS = new ConcurrentHashMap<>();
+    private static final Map<Npc, Timeout> PENDING_ANIMATIONS = new ConcurrentHashMap<>();
 
     public RandomAnimationTaskManager()
     {
-        ThreadPool.scheduleAtFixedRate(() ->
-        {
-            long time = System.currentTimeMillis();
-            for (Entry<Npc, Long> entry : PENDING_ANIMATIONS.entrySet())
-            {
-                if (time > entry.getValue())
-                {
-                    final Npc npc = entry.getKey();
-					if (npc.isInActiveRegion() && !npc.isDead() && !npc.isInCombat() && !npc.isMoving() && !npc.hasBlockActions())
-                    {
-                        npc.onRandomAnimation(Rnd.get(2, 3));
-                    }
-                    PENDING_ANIMATIONS.put(npc, time + GeneralSettings.randomNpcAnimation() * 1000L);
-                }
+    }
+
+    private void animate(Npc npc) {
+        final var timeout = PENDING_ANIMATIONS.get(npc);
+        if (nonNull(timeout) && timeout.isExpired()) {
+            if (npc.isInActiveRegion() && !npc.isDead() && !npc.isInCombat() && !npc.isMoving() && !npc.hasBlockActions()) {
+                npc.onRandomAnimation(Rnd.get(2, 3));
+            }
+            // the npc is kept only if not removed while animating
+            final var next = schedule(npc);
+            if (!PENDING_ANIMATIONS.replace(npc, timeout, next)) {
+                next.cancel();
             }
-        }, 0, 1000);
+        }
+    }
+
+    private Timeout schedule(Npc npc) {
+        return TimingWheel.schedule(() -> animate(npc), GeneralSettings.randomNpcAnimation() * 1000L);
     }
 
     public void add(Npc npc) {
         if (npc.hasRandomAnimation()) {
-            PENDING_ANIMATIONS.putIfAbsent(npc, System.currentTimeMillis() + GeneralSettings.randomNpcAnimation() * 1000L);
+            PENDING_ANIMATIONS.computeIfAbsent(npc, this::schedule);
         }
     }
 
     public void remove(Npc npc)
     {
-        PENDING_ANIMATIONS.remove(npc);
+        final var timeout = PENDING_ANIMATIONS.remove(npc);
+        if (nonNull(timeout)) {
+            timeout.cancel();
+        }
     }
 
     public static RandomAnimationTaskManager getInstance()
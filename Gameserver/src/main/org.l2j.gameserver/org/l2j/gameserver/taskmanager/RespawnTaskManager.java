@@ -18,41 +18,43 @@
  */
 package org.l2j.gameserver.taskmanager;
 
-import org.l2j.commons.threading.ThreadPool;
+import org.l2j.commons.threading.TimingWheel;
+import org.l2j.commons.threading.TimingWheel.Timeout;
 import org.l2j.gameserver.model.Spawn;
 import org.l2j.gameserver.model.actor.Npc;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.Objects.nonNull;
+
 /**
  * @author Mobius
  */
 public class RespawnTaskManager {
 
-	private static final Map<Npc, Long> PENDING_RESPAWNS = new ConcurrentHashMap<>();
+	private static final Map<Npc, Timeout> PENDING_RESPAWNS = new ConcurrentHashMap<>();
 
 	public RespawnTaskManager() {
-		ThreadPool.scheduleAtFixedRate(() -> {
-			final long time = System.currentTimeMillis();
+	}
 
-			for (Entry<Npc, Long> entry : PENDING_RESPAWNS.entrySet()) {
-				if (time > entry.getValue()) {
-				final Npc npc = entry.getKey();
-				PENDING_RESPAWNS.remove(npc);
-				final Spawn spawn = npc.getSpawn();
-				if (spawn != null) {
-					spawn.respawnNpc(npc);
-					spawn._scheduledCount--;
-				}
+	private void respawn(Npc npc) {
+		final var timeout = PENDING_RESPAWNS.get(npc);
+		if (nonNull(timeout) && timeout.isExpired() && PENDING_RESPAWNS.remove(npc, timeout)) {
+			final Spawn spawn = npc.getSpawn();
+			if (spawn != null) {
+				spawn.respawnNpc(npc);
+				spawn._scheduledCount--;
 			}
-		} }, 0, 1000);
+		}
 	}
 
 	public void add(Npc npc, long time)
 	{
-		PENDING_RESPAWNS.put(npc, time);
+		final var previous = PENDING_RESPAWNS.put(npc, TimingWheel.schedule(() -> respawn(npc), time - System.currentTimeMillis()));
+		if (nonNull(previous)) {
+			previous.cancel();
+		}
 	}
 	
 	public static RespawnTaskManager getInstance()
@@ -18,30 +18,57 @@
  */
 package org.l2j.gameserver.taskmanager;
 
+import org.l2j.commons.threading.PriorityThreadFactory;
 import org.l2j.commons.threading.ThreadPool;
 import org.l2j.gameserver.model.actor.instance.Player;
 import org.l2j.gameserver.settings.GeneralSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.util.Collections;
-import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static org.l2j.commons.util.Util.falseIfNullOrElse;
 
 /**
+ * Write-behind persistence of the players.
+ *
+ * The players due to save are queued and stored in background by a small pool of writer threads, each player in a single transaction.
+ * A player already waiting on the queue is not queued again, so the save requests are coalesced until the player is written.
+ * When the queue is full the player is stored by the requesting thread, slowing down the producers until the writers catch up.
+ *
  * @author JoeAlisson
  */
 public class SaveTaskManager {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SaveTaskManager.class);
+
     private final Map<Player, Long> playerSaveStamp = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Set<Player> queued = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Player> queue;
+    private final ExecutorService writers;
     private ScheduledFuture<?> scheduledTask;
+    private volatile boolean running = true;
+
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalSaveTime = new LongAdder();
+    private final AtomicLong maxSaveTime = new AtomicLong();
 
     private SaveTaskManager() {
+        queue = new LinkedBlockingQueue<>(Math.max(1, GeneralSettings.playerSaveQueueSize()));
+
+        final int writerCount = Math.max(1, GeneralSettings.playerSaveWriters());
+        writers = Executors.newFixedThreadPool(writerCount, new PriorityThreadFactory("PlayerSaveWriter", Thread.NORM_PRIORITY));
+        for (int i = 0; i < writerCount; i++) {
+            writers.execute(this::write);
+        }
     }
 
     public void registerPlayer(Player player) {
@@ -68,18 +95,112 @@ public class SaveTaskManager {
     }
 
     private void save(long nextSave, Map.Entry<Player, Long> entry) {
-        entry.getKey().storeMe();
+        scheduleSave(entry.getKey());
         entry.setValue(nextSave);
     }
 
+    /**
+     * Queues the player to be stored by the writer threads.
+     */
+    public void scheduleSave(Player player) {
+        if(!queued.add(player)) {
+            coalesced.increment();
+            return;
+        }
+
+        if(!running || !queue.offer(player)) {
+            queued.remove(player);
+            rejected.increment();
+            store(player);
+        }
+    }
+
+    /**
+     * Stores the player immediately, discarding its pending save.
+     */
+    public void saveNow(Player player) {
+        if(queued.remove(player)) {
+            queue.remove(player);
+        }
+        store(player);
+    }
+
+    private void write() {
+        while (running) {
+            try {
+                final var player = queue.poll(1, TimeUnit.SECONDS);
+                // a request made while the player is being stored queues it again
+                if(nonNull(player) && queued.remove(player)) {
+                    store(player);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void store(Player player) {
+        final long start = System.nanoTime();
+        try {
+            player.storeMe();
+        } catch (Exception e) {
+            LOGGER.error("Could not store {}", player, e);
+        }
+
+        final long duration = System.nanoTime() - start;
+        saves.increment();
+        totalSaveTime.add(duration);
+        maxSaveTime.accumulateAndGet(duration, Math::max);
+    }
+
     public void remove(Player player) {
         playerSaveStamp.remove(player);
+        if(queued.remove(player)) {
+            queue.remove(player);
+        }
+
         if(playerSaveStamp.isEmpty() && nonNull(scheduledTask) && !scheduledTask.isDone()) {
             scheduledTask.cancel(false);
             scheduledTask = null;
         }
     }
 
+    /**
+     * Stores all queued players on the caller thread and stops the writers.
+     */
+    public void shutdown() {
+        running = false;
+        writers.shutdown();
+
+        Player player;
+        while (nonNull(player = queue.poll())) {
+            if(queued.remove(player)) {
+                store(player);
+            }
+        }
+
+        try {
+            if(!writers.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("Player save writers didn't finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public CharSequence getStats() {
+        final long count = saves.sum();
+        return new StringBuilder("Player Save\n")
+            .append("=================================================\n")
+            .append("\tQueue Depth: ......... ").append(queue.size()).append("\n")
+            .append("\tSaves: ............... ").append(count).append("\n")
+            .append("\tCoalesced: ........... ").append(coalesced.sum()).append("\n")
+            .append("\tSaved by Requester: .. ").append(rejected.sum()).append("\n")
+            .append("\tAverage Save (ms): ... ").append(count > 0 ? totalSaveTime.sum() / count / 1_000_000.0 : 0).append("\n")
+            .append("\tMax Save (ms): ....... ").append(maxSaveTime.get() / 1_000_000.0).append("\n");
+    }
+
     public static SaveTaskManager getInstance() {
         return Singleton.INSTANCE;
     }
@@ -66,6 +66,8 @@ import static org.l2j.gameserver.util.MathUtil.isInsideRadius3D;
  */
 public final class GameUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(GameUtils.class);
+    private static final String BYPASS_ATTRIBUTE = "=\"bypass ";
+    private static final String LINK_ATTRIBUTE = "=\"link ";
     private static final NumberFormat ADENA_FORMATTER = NumberFormat.getIntegerInstance(Locale.ENGLISH);
 
     public static void handleIllegalPlayerAction(Player actor, String message) {
@@ -184,62 +186,87 @@ public final class GameUtils {
         return dateFormat.format(date.getTime());
     }
 
-    private static void buildHtmlBypassCache(Player player, HtmlActionScope scope, String html) {
-        final String htmlLower = html.toLowerCase(Locale.ENGLISH);
-        int bypassEnd = 0;
-        int bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
-        int bypassStartEnd;
-        while (bypassStart != -1) {
-            bypassStartEnd = bypassStart + 9;
-            bypassEnd = htmlLower.indexOf("\"", bypassStartEnd);
-            if (bypassEnd == -1) {
-                break;
+    /**
+     * Parses the bypass and link actions of the html.
+     *
+     * @param html the html code to parse
+     * @return the actions found on the html
+     */
+    public static List<String> parseHtmlActions(String html) {
+        final List<String> actions = new ArrayList<>();
+        forEachHtmlActionContent(html, bypass -> actions.add(toBypassAction(bypass)), link -> {
+            final var action = toLinkAction(link);
+            if (nonNull(action)) {
+                actions.add(action);
             }
+        });
+        return actions;
+    }
 
-            final int hParamPos = htmlLower.indexOf("-h ", bypassStartEnd);
-            String bypass;
-            if ((hParamPos != -1) && (hParamPos < bypassEnd)) {
-                bypass = html.substring(hParamPos + 3, bypassEnd).trim();
-            } else {
-                bypass = html.substring(bypassStartEnd, bypassEnd).trim();
-            }
+    /**
+     * Scans the html for the content of the bypass and link actions, the content is the text after the action type until the closing quote.
+     *
+     * @param html the html code to scan
+     * @param bypassAction the action to be executed with the content of each bypass
+     * @param linkAction the action to be executed with the content of each link
+     */
+    public static void forEachHtmlActionContent(String html, Consumer<String> bypassAction, Consumer<String> linkAction) {
+        final String htmlLower = html.toLowerCase(Locale.ENGLISH);
+        forEachAttributeContent(html, htmlLower, BYPASS_ATTRIBUTE, bypassAction);
+        forEachAttributeContent(html, htmlLower, LINK_ATTRIBUTE, linkAction);
+    }
 
-            final int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
-            if (firstParameterStart != -1) {
-                bypass = bypass.substring(0, firstParameterStart + 1);
+    private static void forEachAttributeContent(String html, String htmlLower, String attribute, Consumer<String> action) {
+        int start = htmlLower.indexOf(attribute);
+        while (start != -1) {
+            final int contentStart = start + attribute.length();
+            final int end = htmlLower.indexOf('"', contentStart);
+            if (end == -1) {
+                break;
             }
-
-            player.addHtmlAction(scope, bypass);
-            bypassStart = htmlLower.indexOf("=\"bypass ", bypassEnd);
+            action.accept(html.substring(contentStart, end));
+            start = htmlLower.indexOf(attribute, end);
         }
     }
 
-    private static void buildHtmlLinkCache(Player player, HtmlActionScope scope, String html) {
-        final String htmlLower = html.toLowerCase(Locale.ENGLISH);
-        int linkEnd = 0;
-        int linkStart = htmlLower.indexOf("=\"link ", linkEnd);
-        int linkStartEnd;
-        while (linkStart != -1) {
-            linkStartEnd = linkStart + 7;
-            linkEnd = htmlLower.indexOf("\"", linkStartEnd);
-            if (linkEnd == -1) {
+    /**
+     * @param content the bypass content
+     * @return the bypass cached to validate the player requests, the bypass parameters are replaced by {@link AbstractHtmlPacket#VAR_PARAM_START_CHAR}
+     */
+    public static String toBypassAction(String content) {
+        String bypass = content;
+        for (int i = 0; i <= content.length() - 3; i++) {
+            if (content.regionMatches(true, i, "-h ", 0, 3)) {
+                bypass = content.substring(i + 3);
                 break;
             }
+        }
+        bypass = bypass.trim();
 
-            final String htmlLink = html.substring(linkStartEnd, linkEnd).trim();
-            if (htmlLink.isEmpty()) {
-                LOGGER.warn("Html link path is empty!");
-                continue;
-            }
+        final int firstParameterStart = bypass.indexOf(AbstractHtmlPacket.VAR_PARAM_START_CHAR);
+        if (firstParameterStart != -1) {
+            bypass = bypass.substring(0, firstParameterStart + 1);
+        }
+        return bypass;
+    }
 
-            if (htmlLink.contains("..")) {
-                LOGGER.warn("Html link path is invalid: " + htmlLink);
-                continue;
-            }
-            // let's keep an action cache with "link " lowercase literal kept
-            player.addHtmlAction(scope, "link " + htmlLink);
-            linkStart = htmlLower.indexOf("=\"link ", linkEnd);
+    /**
+     * @param content the link content
+     * @return the link cached to validate the player requests or null if the link is invalid
+     */
+    public static String toLinkAction(String content) {
+        final String htmlLink = content.trim();
+        if (htmlLink.isEmpty()) {
+            LOGGER.warn("Html link path is empty!");
+            return null;
         }
+
+        if (htmlLink.contains("..")) {
+            LOGGER.warn("Html link path is invalid: " + htmlLink);
+            return null;
+        }
+        // let's keep an action cache with "link " lowercase literal kept
+        return "link " + htmlLink;
     }
 
     /**
@@ -253,12 +280,29 @@ public final class GameUtils {
      * @param html     the html code to parse
      */
     public static void buildHtmlActionCache(Player player, HtmlActionScope scope, int npcObjId, String html) {
-        if ((player == null) || (scope == null) || (npcObjId < 0) || (html == null)) {
+        if (html == null) {
+            throw new IllegalArgumentException();
+        }
+        buildHtmlActionCache(player, scope, npcObjId, parseHtmlActions(html));
+    }
+
+    /**
+     * Builds the html action cache for the specified scope with actions already parsed.
+     *
+     * @param player   the player to build the html action cache for
+     * @param scope    the scope to build the html action cache for
+     * @param npcObjId the npc object id the html actions are cached for
+     * @param actions  the actions of the html
+     * @see #parseHtmlActions(String)
+     */
+    public static void buildHtmlActionCache(Player player, HtmlActionScope scope, int npcObjId, Collection<String> actions) {
+        if ((player == null) || (scope == null) || (npcObjId < 0) || (actions == null)) {
             throw new IllegalArgumentException();
         }
         player.setHtmlActionOriginObjectId(scope, npcObjId);
-        buildHtmlBypassCache(player, scope, html);
-        buildHtmlLinkCache(player, scope, html);
+        for (String action : actions) {
+            player.addHtmlAction(scope, action);
+        }
     }
 
     /**
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.world;
+
+import org.l2j.commons.threading.ThreadPool;
+import org.l2j.gameserver.model.actor.stat.CreatureStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Coalesces the broadcasts of the modified stats.
+ *
+ * The recalculations of a creature's stats on the same tick are broadcast once, with all the stats modified by them.
+ * The broadcasts are dispatched in batches on the thread pool at the start of the next tick.
+ *
+ * @author JoeAlisson
+ */
+final class ModifiedStatsBroadcaster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModifiedStatsBroadcaster.class);
+    private static final int BROADCASTS_PER_TASK = 32;
+
+    private final Queue<CreatureStats> pending = new ConcurrentLinkedQueue<>();
+
+    void schedule(CreatureStats stats) {
+        pending.add(stats);
+    }
+
+    /**
+     * Should be called only by the World Time Controller thread.
+     */
+    void tick() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<CreatureStats> batch = new ArrayList<>(BROADCASTS_PER_TASK);
+        CreatureStats stats;
+        while ((stats = pending.poll()) != null) {
+            batch.add(stats);
+            if (batch.size() == BROADCASTS_PER_TASK) {
+                broadcast(batch);
+                batch = new ArrayList<>(BROADCASTS_PER_TASK);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            broadcast(batch);
+        }
+    }
+
+    private void broadcast(List<CreatureStats> batch) {
+        ThreadPool.execute(() -> {
+            for (CreatureStats stats : batch) {
+                try {
+                    stats.broadcastModifiedStats();
+                } catch (Exception e) {
+                    LOGGER.warn("Error broadcasting modified stats of {}", stats.getCreature(), e);
+                }
+            }
+        });
+    }
+}
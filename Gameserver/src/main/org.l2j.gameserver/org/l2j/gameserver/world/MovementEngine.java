@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2019-2021 L2JOrg
+ *
+ * This file is part of the L2JOrg project.
+ *
+ * L2JOrg is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * L2JOrg is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2j.gameserver.world;
+
+import org.l2j.commons.threading.ThreadPool;
+import org.l2j.gameserver.ai.CtrlEvent;
+import org.l2j.gameserver.model.actor.Creature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Updates the position of the moving creatures on each tick.
+ *
+ * The creatures are grouped by {@link WorldRegion} and the groups are updated in parallel on the fork join pool.
+ * The arrival notifications of the tick are dispatched together after all positions are updated.
+ *
+ * @author JoeAlisson
+ */
+final class MovementEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MovementEngine.class);
+
+    /**
+     * Below this amount of moving creatures the tick is updated in the caller thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 256;
+    /**
+     * Amount of creatures updated by a single task, small regions are merged until this size.
+     */
+    private static final int BATCH_SIZE = 128;
+    private static final int ARRIVALS_PER_TASK = 64;
+
+    /**
+     * The moving creatures mapped to the generation of their last registration.
+     */
+    private final Map<Creature, Long> movingObjects = new ConcurrentHashMap<>();
+    private final AtomicLong registrations = new AtomicLong();
+    private final Queue<Creature> arrivals = new ConcurrentLinkedQueue<>();
+    private final Map<WorldRegion, List<Creature>> creaturesByRegion = new HashMap<>();
+    private final List<Creature> finished = Collections.synchronizedList(new ArrayList<>());
+    private final long tickBudget;
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private volatile long lastTickDuration;
+    private volatile long maxTickDuration;
+    private volatile long totalTickDuration;
+    private volatile int lastMovingCount;
+
+    MovementEngine(long tickBudget) {
+        this.tickBudget = tickBudget;
+    }
+
+    void register(Creature creature) {
+        movingObjects.put(creature, registrations.incrementAndGet());
+    }
+
+    /**
+     * Schedules the {@link CtrlEvent#EVT_ARRIVED} notification to the end of the current tick.
+     */
+    void arrived(Creature creature) {
+        arrivals.add(creature);
+    }
+
+    /**
+     * Updates the position of all moving creatures, removing the ones that finished the movement.
+     * Should be called only by the World Time Controller thread.
+     */
+    void tick() {
+        final long start = System.nanoTime();
+        final long generation = registrations.get();
+        final int moving = movingObjects.size();
+
+        if (moving < PARALLEL_THRESHOLD) {
+            for (Creature creature : movingObjects.keySet()) {
+                if (updatePosition(creature)) {
+                    unregister(creature, generation);
+                }
+            }
+        } else {
+            updateInParallel(generation);
+        }
+
+        dispatchArrivals();
+        recordTick(moving, System.nanoTime() - start);
+    }
+
+    private void updateInParallel(long generation) {
+        for (Creature creature : movingObjects.keySet()) {
+            creaturesByRegion.computeIfAbsent(creature.getWorldRegion(), r -> new ArrayList<>()).add(creature);
+        }
+
+        final List<List<Creature>> batches = new ArrayList<>();
+        List<Creature> batch = new ArrayList<>(BATCH_SIZE);
+        for (List<Creature> creatures : creaturesByRegion.values()) {
+            if (batch.size() + creatures.size() > BATCH_SIZE && !batch.isEmpty()) {
+                batches.add(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+            batch.addAll(creatures);
+        }
+
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        ThreadPool.invokeForked(new UpdatePositionTask(batches, 0, batches.size()));
+
+        // removing only after all updates so a creature that starts a new movement on arrival is kept
+        for (Creature creature : finished) {
+            unregister(creature, generation);
+        }
+        finished.clear();
+        creaturesByRegion.clear();
+    }
+
+    private static boolean updatePosition(Creature creature) {
+        try {
+            return creature.updatePosition();
+        } catch (Exception e) {
+            LOGGER.warn("Error updating position of {}", creature, e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes the creature that finished its movement, unless it was registered again after the generation, since the new movement must be kept.
+     */
+    private void unregister(Creature creature, long generation) {
+        final Long registration = movingObjects.get(creature);
+        if (nonNull(registration) && registration <= generation) {
+            movingObjects.remove(creature, registration);
+        }
+    }
+
+    private void dispatchArrivals() {
+        if (arrivals.isEmpty()) {
+            return;
+        }
+
+        List<Creature> batch = new ArrayList<>(ARRIVALS_PER_TASK);
+        Creature creature;
+        while ((creature = arrivals.poll()) != null) {
+            batch.add(creature);
+            if (batch.size() == ARRIVALS_PER_TASK) {
+                notifyArrivals(batch);
+                batch = new ArrayList<>(ARRIVALS_PER_TASK);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            notifyArrivals(batch);
+        }
+    }
+
+    private void notifyArrivals(List<Creature> creatures) {
+        ThreadPool.execute(() -> {
+            for (Creature creature : creatures) {
+                try {
+                    creature.getAI().notifyEvent(CtrlEvent.EVT_ARRIVED);
+                } catch (Exception e) {
+                    LOGGER.warn("Error notifying arrival of {}", creature, e);
+                }
+            }
+        });
+    }
+
+    private void recordTick(int moving, long duration) {
+        ticks.incrementAndGet();
+        lastMovingCount = moving;
+        lastTickDuration = duration;
+        totalTickDuration += duration;
+
+        if (duration > maxTickDuration) {
+            maxTickDuration = duration;
+        }
+
+        if (duration > tickBudget) {
+            final long count = overruns.incrementAndGet();
+            LOGGER.debug("Movement tick took {} ms with {} moving creatures, overruns {}", duration / 1_000_000, moving, count);
+        }
+    }
+
+    CharSequence getStats() {
+        final long tickCount = ticks.get();
+        return new StringBuilder("Movement Engine\n")
+            .append("=================================================\n")
+            .append("\tMoving Creatures: .... ").append(lastMovingCount).append("\n")
+            .append("\tTicks: ............... ").append(tickCount).append("\n")
+            .append("\tOverruns: ............ ").append(overruns.get()).append("\n")
+            .append("\tLast Tick (ms): ...... ").append(lastTickDuration / 1_000_000.0).append("\n")
+            .append("\tAverage Tick (ms): ... ").append(tickCount > 0 ? totalTickDuration / tickCount / 1_000_000.0 : 0).append("\n")
+            .append("\tMax Tick (ms): ....... ").append(maxTickDuration / 1_000_000.0).append("\n");
+    }
+
+    private class UpdatePositionTask extends RecursiveAction {
+        private final List<List<Creature>> batches;
+        private final int from;
+        private final int to;
+
+        private UpdatePositionTask(List<List<Creature>> batches, int from, int to) {
+            this.batches = batches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new UpdatePositionTask(batches, from, middle), new UpdatePositionTask(batches, middle, to));
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                for (Creature creature : batches.get(i)) {
+                    if (updatePosition(creature)) {
+                        finished.add(creature);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -46,6 +46,8 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -66,7 +68,8 @@ public final class World {
     /**
      * Bit shift, defines number of regions note, shifting by 15 will result in regions corresponding to map tiles shifting by 11 divides one tile to 16x16 regions.
      */
-    private static final int SHIFT_BY = 11;
+    static final int SHIFT_BY = 11;
+    static final int REGION_SIZE = 1 << SHIFT_BY;
     public static final int TILE_SIZE = 32768;
     /**
      * Map dimensions.
@@ -84,13 +87,17 @@ public final class World {
     /**
      * Calculated offset used so top left region is 0,0
      */
-    private static final int OFFSET_X = Math.abs(MAP_MIN_X >> SHIFT_BY);
-    private static final int OFFSET_Y = Math.abs(MAP_MIN_Y >> SHIFT_BY);
+    static final int OFFSET_X = Math.abs(MAP_MIN_X >> SHIFT_BY);
+    static final int OFFSET_Y = Math.abs(MAP_MIN_Y >> SHIFT_BY);
     /**
      * Number of regions.
      */
     private static final int REGIONS_X = (MAP_MAX_X >> SHIFT_BY) + OFFSET_X;
     private static final int REGIONS_Y = (MAP_MAX_Y >> SHIFT_BY) + OFFSET_Y;
+    /**
+     * Range used to visit the visible objects regardless the distance.
+     */
+    private static final int NO_RANGE = -1;
     /**
      * Map containing all the players in game.
      */
@@ -335,7 +342,13 @@ public final class World {
         }
 
         oldRegion.removeVisibleObject(object);
-        oldRegion.forEachObjectInSurrounding(Creature.class, other ->  forgetEachOther(object, other), other -> !object.equals(other));
+        for (WorldRegion region : oldRegion.surroundingRegions()) {
+            for (WorldObject other : region.objects()) {
+                if(isCreature(other) && !object.equals(other)) {
+                    forgetEachOther(object, other);
+                }
+            }
+        }
     }
 
     public void switchRegionIfNeed(WorldObject object) {
@@ -349,6 +362,8 @@ public final class World {
             }
             newRegion.addVisibleObject(object);
             switchRegion(object, oldRegion, newRegion);
+        } else if (nonNull(newRegion)) {
+            newRegion.updateCell(object);
         }
     }
 
@@ -413,7 +428,7 @@ public final class World {
             return includeReference && clazz.isInstance(reference) ? clazz.cast(reference) : null;
         }
 
-        return region.findAnyObjectInSurrounding(clazz, and(isVisibleInRange(reference, range, includeReference), filter));
+        return region.findAnyObjectInSurrounding(clazz, reference, range, includeReference, filter);
     }
 
     public <T extends WorldObject> T findFirstVisibleObject(WorldObject reference, Class<T> clazz, int range, boolean includeReference, Predicate<T> filter, Comparator<T> comparator) {
@@ -423,7 +438,7 @@ public final class World {
             return includeReference && clazz.isInstance(reference)? clazz.cast(reference) : null;
         }
 
-        return region.findFirstObjectInSurrounding(clazz, and(isVisibleInRange(reference, range, includeReference), filter), comparator);
+        return region.findFirstObjectInSurrounding(clazz, reference, range, includeReference, filter, comparator);
     }
 
     public boolean hasVisiblePlayer(WorldObject object) {
@@ -433,7 +448,7 @@ public final class World {
             return false;
         }
 
-        return region.hasObjectInSurrounding(Player.class, isVisibleInRange(object, PartySettings.partyRange(), false));
+        return region.hasObjectInSurrounding(Player.class, object, PartySettings.partyRange(), p -> true);
     }
 
     public <T extends WorldObject> boolean hasAnyVisibleObjectInRange(WorldObject reference, Class<T> clazz, int range, Predicate<T> filter) {
@@ -441,20 +456,46 @@ public final class World {
         if(isNull(region)) {
             return false;
         }
-        return region.hasObjectInSurrounding(clazz, and(isVisibleInRange(reference, range, false), filter));
+        return region.hasObjectInSurrounding(clazz, reference, range, filter);
     }
 
     public <T extends WorldObject> void forEachVisibleObject(WorldObject reference, Class<T> clazz, Consumer<T> action) {
         var region = getRegion(reference);
         if(nonNull(region)) {
-            region.forEachObjectInSurrounding(clazz, action, isVisible(reference));
+            region.forEachObjectInSurrounding(clazz, reference, NO_RANGE, false, action, o -> true);
         }
     }
 
     public <T extends WorldObject> void forEachVisibleObject(WorldObject reference, Class<T> clazz, Consumer<T> action, Predicate<T> filter) {
         var region = getRegion(reference);
         if(nonNull(region)) {
-            region.forEachObjectInSurrounding(clazz, action, and(isVisible(reference), filter));
+            region.forEachObjectInSurrounding(clazz, reference, NO_RANGE, false, action, filter);
+        }
+    }
+
+    /**
+     * Visits the visible objects of the given class passing the context to the action.
+     * Using non-capturing action and filter, like method references {@code ServerPacket::sendTo}, the visit doesn't allocate any object.
+     *
+     * @param reference the object used as reference of the visibility
+     * @param clazz the class of the visited objects
+     * @param context the context passed to action
+     * @param action the action executed with the context and each visited object
+     * @param filter the filter tested with the reference and each visible object
+     */
+    public <T extends WorldObject, C> void forEachVisibleObject(WorldObject reference, Class<T> clazz, C context, BiConsumer<? super C, ? super T> action, BiPredicate<? super WorldObject, ? super T> filter) {
+        forEachVisibleObjectInRange(reference, clazz, NO_RANGE, context, action, filter);
+    }
+
+    /**
+     * Visits the visible objects of the given class in range passing the context to the action.
+     *
+     * @see #forEachVisibleObject(WorldObject, Class, Object, BiConsumer, BiPredicate)
+     */
+    public <T extends WorldObject, C> void forEachVisibleObjectInRange(WorldObject reference, Class<T> clazz, int range, C context, BiConsumer<? super C, ? super T> action, BiPredicate<? super WorldObject, ? super T> filter) {
+        var region = getRegion(reference);
+        if(nonNull(region)) {
+            region.forEachObjectInSurrounding(clazz, reference, range, context, action, filter);
         }
     }
 
@@ -465,7 +506,7 @@ public final class World {
             return Collections.emptyList();
         }
 
-        return region.findAllObjectsInSurrounding(clazz, and(isVisibleInRange(reference, range, false), filter));
+        return region.findAllObjectsInSurrounding(clazz, reference, range, filter);
     }
 
     public void forEachPlayerInRange(WorldObject reference, int range, Consumer<Player> action, Predicate<Player> filter) {
@@ -482,7 +523,17 @@ public final class World {
             return;
         }
 
-        region.forEachObjectInSurrounding(clazz, action, and(isVisibleInRange(reference, range, false), filter));
+        region.forEachObjectInSurrounding(clazz, reference, range, false, action, filter);
+    }
+
+    /**
+     * Visits the visible objects inside the box, only the cells of the surrounding regions overlapping the box are scanned.
+     */
+    public <T extends WorldObject> void forEachVisibleObjectInBox(WorldObject reference, Class<T> clazz, int minX, int minY, int maxX, int maxY, Consumer<T> action, Predicate<T> filter) {
+        var region = getRegion(reference);
+        if (nonNull(region)) {
+            region.forEachObjectInBox(clazz, reference, minX, minY, maxX, maxY, action, filter);
+        }
     }
 
     public <T extends WorldObject> void forVisibleObjectsInRange(WorldObject reference, Class<T> clazz, int range, int maxObjects, Predicate<T> filter, Consumer<? super T> action) {
@@ -495,7 +546,7 @@ public final class World {
             return;
         }
 
-        region.forEachObjectInSurroundingLimiting(clazz, maxObjects, and(isVisibleInRange(reference, range, includeReference), filter), action);
+        region.forEachObjectInSurroundingLimiting(clazz, reference, range, includeReference, maxObjects, filter, action);
     }
 
     public <T extends WorldObject> void forVisibleOrderedObjectsInRange(WorldObject reference, Class<T> clazz, int range, int maxObjects, Predicate<T> filter, Comparator<T> comparator, Consumer<? super T> action) {
@@ -505,7 +556,7 @@ public final class World {
             return;
         }
 
-        region.forEachOrderedObjectInSurrounding(clazz, maxObjects, comparator, and(isVisibleInRange(reference, range, false), filter), action);
+        region.forEachOrderedObjectInSurrounding(clazz, reference, range, maxObjects, comparator, filter, action);
     }
 
     public <T extends WorldObject> void forAnyVisibleObject(WorldObject reference, Class<T> clazz, Consumer<T> action, Predicate<T> filter) {
@@ -518,7 +569,7 @@ public final class World {
         if(isNull(region)) {
             return;
         }
-        region.forAnyObjectInSurrounding(clazz, action, and(isVisibleInRange(reference, range, false), filter));
+        region.forAnyObjectInSurrounding(clazz, reference, range, action, filter);
     }
 
     public <T extends WorldObject> boolean checkAnyVisibleObjectInRange(WorldObject reference, Class<T> clazz, int range, Predicate<T> filter) {
@@ -528,7 +579,7 @@ public final class World {
             return false;
         }
 
-        return region.hasObjectInSurrounding(clazz, and(isVisibleInRange(reference, range, false), filter));
+        return region.hasObjectInSurrounding(clazz, reference, range, filter);
     }
 
     /**
@@ -631,19 +682,6 @@ public final class World {
         FenceDataManager.init();
     }
 
-    private static <T extends WorldObject> Predicate<T> isVisible(WorldObject reference) {
-        return isVisible(reference, false);
-    }
-
-    private static <T extends WorldObject> Predicate<T> isVisible(WorldObject reference, boolean includeReference) {
-        return object -> nonNull(object) && (includeReference || !object.equals(reference)) &&
-                Objects.equals(object.getInstanceWorld(), reference.getInstanceWorld());
-    }
-
-    private static <T extends WorldObject> Predicate<T> isVisibleInRange(WorldObject reference, int range, boolean includeReference){
-        return object -> isVisible(reference, includeReference).test(object) && MathUtil.isInsideRadius3D(reference, object, range);
-    }
-
     public static World getInstance() {
         return Singleton.INSTANCE;
     }
@@ -22,23 +22,24 @@ import io.github.joealisson.primitive.CHashIntMap;
 import io.github.joealisson.primitive.IntMap;
 import org.l2j.commons.threading.ThreadPool;
 import org.l2j.gameserver.ai.CtrlIntention;
+import org.l2j.gameserver.engine.item.Item;
 import org.l2j.gameserver.model.WorldObject;
 import org.l2j.gameserver.model.actor.Attackable;
 import org.l2j.gameserver.model.actor.Npc;
+import org.l2j.gameserver.model.actor.Summon;
+import org.l2j.gameserver.model.actor.instance.Player;
 import org.l2j.gameserver.settings.GeneralSettings;
 import org.l2j.gameserver.taskmanager.RandomAnimationTaskManager;
 import org.l2j.gameserver.util.MathUtil;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static java.lang.Math.abs;
 import static java.util.Objects.isNull;
@@ -51,7 +52,56 @@ import static org.l2j.gameserver.util.GameUtils.isPlayer;
  */
 public final class WorldRegion {
 
+    private static final int PLAYER = 0;
+    private static final int NPC = 1;
+    private static final int SUMMON = 2;
+    private static final int ITEM = 3;
+    private static final int OTHER = 4;
+    private static final int KINDS = 5;
+    private static final int ALL_KINDS = (1 << KINDS) - 1;
+    private static final Class<?>[] KIND_TYPES = { Player.class, Npc.class, Summon.class, Item.class };
+
+    /**
+     * Each region is split in a grid of cells, the cells have 512 units side.
+     */
+    private static final int CELL_SHIFT = 9;
+    private static final int CELLS_PER_SIDE = World.REGION_SIZE >> CELL_SHIFT;
+    private static final int CELL_MASK = CELLS_PER_SIDE - 1;
+    /**
+     * Queries with range greater than this are answered by the kind buckets, since they would touch most of the cells anyway.
+     */
+    private static final int MAX_CELL_QUERY_RANGE = World.REGION_SIZE >> 1;
+    private static final int NO_RANGE = -1;
+
+    /**
+     * Keeps the cell of an object consistent with its region membership. The cells are updated by the movement threads while
+     * other threads add and remove the objects, so both changes are made under the lock of the object stripe.
+     * No other lock is taken while holding a stripe lock.
+     */
+    private static final int CELL_LOCK_STRIPES = 256;
+    private static final Object[] CELL_LOCKS = new Object[CELL_LOCK_STRIPES];
+
+    static {
+        Arrays.setAll(CELL_LOCKS, i -> new Object());
+    }
+
+    private static final ClassValue<Integer> KINDS_MASK = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return computeKindsMask(type);
+        }
+    };
+
     private final IntMap<WorldObject> objects = new CHashIntMap<>();
+    /**
+     * The same objects of {@link #objects} split by kind, so typed queries only walk the relevant objects.
+     */
+    @SuppressWarnings("unchecked")
+    private final IntMap<WorldObject>[] buckets = new IntMap[KINDS];
+    /**
+     * The same objects of {@link #objects} split by position, the cells are created when the first object enter on it.
+     */
+    private final AtomicReferenceArray<IntMap<WorldObject>> cells = new AtomicReferenceArray<>(CELLS_PER_SIDE * CELLS_PER_SIDE);
     private final Object taskLocker = new Object();
     private final int regionX;
     private final int regionY;
@@ -64,6 +114,9 @@ public final class WorldRegion {
     WorldRegion(int regionX, int regionY) {
         this.regionX = regionX;
         this.regionY = regionY;
+        for (int i = 0; i < KINDS; i++) {
+            buckets[i] = new CHashIntMap<>();
+        }
     }
 
     public void addVisibleObject(WorldObject object) {
@@ -71,7 +124,14 @@ public final class WorldRegion {
             return;
         }
 
-        if (isNull(objects.put(object.getObjectId(), object)) && isPlayer(object)) {
+        final boolean added;
+        synchronized (cellLockOf(object)) {
+            buckets[kindOf(object)].put(object.getObjectId(), object);
+            moveToCell(object);
+            added = isNull(objects.put(object.getObjectId(), object));
+        }
+
+        if (added && isPlayer(object)) {
             // If this is the first player to enter the region, activate self and neighbors.
             playersInside.getAndIncrement();
             if (!active) {
@@ -161,7 +221,19 @@ public final class WorldRegion {
             return;
         }
 
-        if (nonNull(objects.remove(object.getObjectId())) && isPlayer(object)) {
+        final boolean removed;
+        synchronized (cellLockOf(object)) {
+            buckets[kindOf(object)].remove(object.getObjectId());
+            removed = nonNull(objects.remove(object.getObjectId()));
+            // the cell belongs to the region the object is in, it's only cleared by its region
+            final int cell = object.getWorldCell();
+            if (removed && cell >= 0) {
+                removeFromCell(object, cell);
+                object.setWorldCell(-1);
+            }
+        }
+
+        if (removed && isPlayer(object)) {
             playersInside.getAndDecrement();
             if (areNeighborsEmpty()) {
                 startDeactivation();
@@ -178,48 +250,36 @@ public final class WorldRegion {
         return true;
     }
 
-    <T extends WorldObject> void forEachObjectInSurrounding(Class<T> clazz, Consumer<T> action, Predicate<T> filter) {
-        T casted;
-        for (WorldRegion region : surroundingRegions) {
-            for (WorldObject object : region.objects.values()) {
-                if(clazz.isInstance(object) && filter.test(casted = clazz.cast(object) )){
-                    action.accept(casted);
-                }
-            }
-        }
+    <T extends WorldObject> void forEachObjectInSurrounding(Class<T> clazz, WorldObject reference, int range, boolean includeReference, Consumer<T> action, Predicate<T> filter) {
+        visitSurrounding(clazz, reference, range, includeReference, Integer.MAX_VALUE, filter, WorldRegion::test, action, WorldRegion::accept);
     }
 
-    <T extends WorldObject> void forEachObjectInSurroundingLimiting(Class<T> clazz, int limit, Predicate<T> filter, Consumer<? super T> action) {
-        T casted;
-        int accepted = 0;
-        for (var region : surroundingRegions) {
-            for (var object : region.objects.values()) {
-                if(clazz.isInstance(object) && filter.test(casted = clazz.cast(object) )){
-                    action.accept(casted);
-                    if(++accepted > limit) {
-                        return;
-                    }
-                }
-            }
-        }
+    <T extends WorldObject, C> void forEachObjectInSurrounding(Class<T> clazz, WorldObject reference, int range, C context, BiConsumer<? super C, ? super T> action, BiPredicate<? super WorldObject, ? super T> filter) {
+        visitSurrounding(clazz, reference, range, false, Integer.MAX_VALUE, reference, filter, context, action);
     }
 
-    <T extends WorldObject> void forEachOrderedObjectInSurrounding(Class<T> clazz, int maxObjects, Comparator<T> comparator, Predicate<T> filter, Consumer<? super T> action) {
-        filteredSurroundingObjects(clazz, filter).sorted(comparator).limit(maxObjects).forEach(action);
+    <T extends WorldObject> void forEachObjectInBox(Class<T> clazz, WorldObject reference, int minX, int minY, int maxX, int maxY, Consumer<T> action, Predicate<T> filter) {
+        visitCells(clazz, reference, minX, minY, maxX, maxY, NO_RANGE, false, Integer.MAX_VALUE, filter, WorldRegion::test, action, WorldRegion::accept);
     }
 
-    private <T extends WorldObject> Stream<T> filteredSurroundingObjects(Class<T> clazz, Predicate<T> filter) {
-        return Arrays.stream(surroundingRegions).flatMap(r -> r.objects.values().stream()).filter(o -> applyInstanceFilter(o, clazz, filter)).map(clazz::cast);
+    <T extends WorldObject> void forEachObjectInSurroundingLimiting(Class<T> clazz, WorldObject reference, int range, boolean includeReference, int limit, Predicate<T> filter, Consumer<? super T> action) {
+        visitSurrounding(clazz, reference, range, includeReference, limit, filter, WorldRegion::test, action, WorldRegion::accept);
     }
 
-    <T extends WorldObject> void forAnyObjectInSurrounding(Class<T> clazz, Consumer<T> action, Predicate<T> filter) {
-        for (WorldRegion region : surroundingRegions) {
-            for (WorldObject object : region.objects.values()) {
-                if(applyInstanceFilter(object, clazz, filter)) {
-                    action.accept(clazz.cast(object));
-                    return;
-                }
-            }
+    <T extends WorldObject> void forEachOrderedObjectInSurrounding(Class<T> clazz, WorldObject reference, int range, int maxObjects, Comparator<T> comparator, Predicate<T> filter, Consumer<? super T> action) {
+        if (maxObjects <= 0) {
+            return;
+        }
+
+        final var selection = new OrderedSelection<>(maxObjects, comparator);
+        visitSurrounding(clazz, reference, range, false, Integer.MAX_VALUE, filter, WorldRegion::test, selection, OrderedSelection::offer);
+        selection.forEach(action);
+    }
+
+    <T extends WorldObject> void forAnyObjectInSurrounding(Class<T> clazz, WorldObject reference, int range, Consumer<T> action, Predicate<T> filter) {
+        final T object = findAnyObjectInSurrounding(clazz, reference, range, false, filter);
+        if (nonNull(object)) {
+            action.accept(object);
         }
     }
 
@@ -236,34 +296,155 @@ public final class WorldRegion {
         return null;
     }
 
-    <T extends WorldObject> List<T> findAllObjectsInSurrounding(Class<T> clazz, Predicate<T> filter) {
-        return filteredSurroundingObjects(clazz, filter).collect(Collectors.toList());
+    <T extends WorldObject> List<T> findAllObjectsInSurrounding(Class<T> clazz, WorldObject reference, int range, Predicate<T> filter) {
+        final List<T> result = new ArrayList<>();
+        forEachObjectInSurrounding(clazz, reference, range, false, result::add, filter);
+        return result;
+    }
+
+    <T extends WorldObject> T findAnyObjectInSurrounding(Class<T> clazz, WorldObject reference, int range, boolean includeReference, Predicate<T> filter) {
+        return visitSurrounding(clazz, reference, range, includeReference, 0, filter, WorldRegion::test, null, WorldRegion::ignore);
+    }
+
+    <T extends WorldObject> T findFirstObjectInSurrounding(Class<T> clazz, WorldObject reference, int range, boolean includeReference, Predicate<T> filter, Comparator<T> comparator) {
+        final var selection = new OrderedSelection<>(1, comparator);
+        visitSurrounding(clazz, reference, range, includeReference, Integer.MAX_VALUE, filter, WorldRegion::test, selection, OrderedSelection::offer);
+        return selection.first();
+    }
+
+    <T extends WorldObject> boolean hasObjectInSurrounding(Class<T> clazz, WorldObject reference, int range, Predicate<T> filter) {
+        return nonNull(findAnyObjectInSurrounding(clazz, reference, range, false, filter));
     }
 
-    <T extends WorldObject> T findAnyObjectInSurrounding(Class<T> clazz, Predicate<T> filter) {
+    /**
+     * Visits the objects of the surrounding regions visible to the reference and accepted by the filter, stopping when more than limit objects are accepted.
+     * Small ranges only touch the cells overlapping the query area, otherwise the objects of the kinds compatible with clazz are visited.
+     * <p>
+     * The filter and the action receive its state as a context argument, so the callers pass non-capturing functions and the visit doesn't allocate any object.
+     *
+     * @return the object where the visit stopped or null
+     */
+    private <T extends WorldObject, F, C> T visitSurrounding(Class<T> clazz, WorldObject reference, int range, boolean includeReference, int limit,
+                                                             F filterContext, BiPredicate<? super F, ? super T> filter, C context, BiConsumer<? super C, ? super T> action) {
+        if (range >= 0 && range <= MAX_CELL_QUERY_RANGE) {
+            return visitCells(clazz, reference, reference.getX() - range, reference.getY() - range, reference.getX() + range, reference.getY() + range,
+                    range, includeReference, limit, filterContext, filter, context, action);
+        }
+
+        final int kinds = kindsOf(clazz);
+        int accepted = 0;
+        T casted;
         for (WorldRegion region : surroundingRegions) {
-            for (WorldObject object : region.objects.values()) {
-                if(applyInstanceFilter(object, clazz, filter)) {
-                    return clazz.cast(object);
+            for (int kind = 0; kind < KINDS; kind++) {
+                if ((kinds & (1 << kind)) == 0) {
+                    continue;
+                }
+                for (WorldObject object : region.buckets[kind].values()) {
+                    if (clazz.isInstance(object) && isVisible(reference, object, range, includeReference) && filter.test(filterContext, casted = clazz.cast(object))) {
+                        action.accept(context, casted);
+                        if (++accepted > limit) {
+                            return casted;
+                        }
+                    }
                 }
             }
         }
         return null;
     }
 
-    <T extends WorldObject> T findFirstObjectInSurrounding(Class<T> clazz, Predicate<T> filter, Comparator<T> comparator) {
-        return filteredSurroundingObjects(clazz, filter).min(comparator).orElse(null);
-    }
-
-    <T extends WorldObject> boolean hasObjectInSurrounding(Class<T> clazz, Predicate<T> filter) {
+    /**
+     * Same as {@link #visitSurrounding(Class, WorldObject, int, boolean, int, Object, BiPredicate, Object, BiConsumer)} restricted to the objects inside the box.
+     */
+    private <T extends WorldObject, F, C> T visitCells(Class<T> clazz, WorldObject reference, int minX, int minY, int maxX, int maxY, int range, boolean includeReference, int limit,
+                                                       F filterContext, BiPredicate<? super F, ? super T> filter, C context, BiConsumer<? super C, ? super T> action) {
+        int accepted = 0;
+        T casted;
         for (WorldRegion region : surroundingRegions) {
-            for (WorldObject object : region.objects.values()) {
-                if(applyInstanceFilter(object, clazz, filter)) {
-                    return true;
+            final int regionMinX = region.minX();
+            final int regionMinY = region.minY();
+            final int fromX = Math.max(minX, regionMinX) - regionMinX;
+            final int toX = Math.min(maxX, regionMinX + World.REGION_SIZE - 1) - regionMinX;
+            final int fromY = Math.max(minY, regionMinY) - regionMinY;
+            final int toY = Math.min(maxY, regionMinY + World.REGION_SIZE - 1) - regionMinY;
+
+            if (fromX > toX || fromY > toY) {
+                continue;
+            }
+
+            for (int cellY = fromY >> CELL_SHIFT; cellY <= toY >> CELL_SHIFT; cellY++) {
+                for (int cellX = fromX >> CELL_SHIFT; cellX <= toX >> CELL_SHIFT; cellX++) {
+                    final var cell = region.cells.get(cellY * CELLS_PER_SIDE + cellX);
+                    if (isNull(cell)) {
+                        continue;
+                    }
+                    for (WorldObject object : cell.values()) {
+                        if (clazz.isInstance(object) && object.getX() >= minX && object.getX() <= maxX && object.getY() >= minY && object.getY() <= maxY
+                                && isVisible(reference, object, range, includeReference) && filter.test(filterContext, casted = clazz.cast(object))) {
+                            action.accept(context, casted);
+                            if (++accepted > limit) {
+                                return casted;
+                            }
+                        }
+                    }
                 }
             }
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Moves the object to the cell of its current position, when the object is indexed in this region.
+     */
+    void updateCell(WorldObject object) {
+        synchronized (cellLockOf(object)) {
+            if (object.getWorldCell() >= 0 && objects.containsKey(object.getObjectId())) {
+                moveToCell(object);
+            }
+        }
+    }
+
+    private static Object cellLockOf(WorldObject object) {
+        return CELL_LOCKS[object.getObjectId() & (CELL_LOCK_STRIPES - 1)];
+    }
+
+    private void moveToCell(WorldObject object) {
+        final int cell = cellOf(object);
+        final int oldCell = object.getWorldCell();
+        if (cell != oldCell) {
+            if (oldCell >= 0) {
+                removeFromCell(object, oldCell);
+            }
+            addToCell(object, cell);
+        }
+    }
+
+    private void addToCell(WorldObject object, int cell) {
+        var objectsInCell = cells.get(cell);
+        if (isNull(objectsInCell)) {
+            cells.compareAndSet(cell, null, new CHashIntMap<>());
+            objectsInCell = cells.get(cell);
+        }
+        objectsInCell.put(object.getObjectId(), object);
+        object.setWorldCell(cell);
+    }
+
+    private void removeFromCell(WorldObject object, int cell) {
+        final var objectsInCell = cells.get(cell);
+        if (nonNull(objectsInCell)) {
+            objectsInCell.remove(object.getObjectId());
+        }
+    }
+
+    private static int cellOf(WorldObject object) {
+        return ((object.getY() >> CELL_SHIFT) & CELL_MASK) * CELLS_PER_SIDE + ((object.getX() >> CELL_SHIFT) & CELL_MASK);
+    }
+
+    private int minX() {
+        return (regionX - World.OFFSET_X) << World.SHIFT_BY;
+    }
+
+    private int minY() {
+        return (regionY - World.OFFSET_Y) << World.SHIFT_BY;
     }
 
     WorldObject getObject(int objectId) {
@@ -300,8 +481,70 @@ public final class WorldRegion {
     }
 
 
-    private static <T extends WorldObject> boolean applyInstanceFilter(WorldObject object, Class<T> clazz, Predicate<T> filter) {
-        return clazz.isInstance(object) && filter.test(clazz.cast(object));
+    private static <T> boolean test(Predicate<? super T> filter, T object) {
+        return filter.test(object);
+    }
+
+    private static <T> void accept(Consumer<? super T> action, T object) {
+        action.accept(object);
+    }
+
+    private static void ignore(Object context, Object object) {
+        // the object is only searched
+    }
+
+    /**
+     * Checks if the object is visible to the reference, without creating intermediate predicates.
+     *
+     * @param range the max distance between the objects, a negative value skips the distance check
+     */
+    private static boolean isVisible(WorldObject reference, WorldObject object, int range, boolean includeReference) {
+        return nonNull(object) && (includeReference || !object.equals(reference)) && Objects.equals(object.getInstanceWorld(), reference.getInstanceWorld())
+                && (range < 0 || MathUtil.isInsideRadius3D(reference, object, range));
+    }
+
+    private static int kindOf(WorldObject object) {
+        if (object instanceof Player) {
+            return PLAYER;
+        } else if (object instanceof Npc) {
+            return NPC;
+        } else if (object instanceof Summon) {
+            return SUMMON;
+        } else if (object instanceof Item) {
+            return ITEM;
+        }
+        return OTHER;
+    }
+
+    private static int kindsOf(Class<?> clazz) {
+        return KINDS_MASK.get(clazz);
+    }
+
+    /**
+     * Resolves which buckets can hold instances of the class.
+     * Interfaces can be implemented by any subclass, so all buckets must be visited.
+     */
+    private static int computeKindsMask(Class<?> clazz) {
+        if (clazz.isInterface()) {
+            return ALL_KINDS;
+        }
+
+        int mask = 0;
+        boolean isKindSubtype = false;
+        for (int kind = 0; kind < KIND_TYPES.length; kind++) {
+            var kindType = KIND_TYPES[kind];
+            if (kindType.isAssignableFrom(clazz)) {
+                isKindSubtype = true;
+                mask |= 1 << kind;
+            } else if (clazz.isAssignableFrom(kindType)) {
+                mask |= 1 << kind;
+            }
+        }
+
+        if (!isKindSubtype) {
+            mask |= 1 << OTHER;
+        }
+        return mask;
     }
 
     @Override
@@ -325,6 +568,54 @@ public final class WorldRegion {
         return playersCount;
     }
 
+    /**
+     * Retains the best objects according to the comparator, in order.
+     */
+    private static final class OrderedSelection<T> {
+        private final int maxObjects;
+        private final Comparator<? super T> comparator;
+        private Object[] selected;
+        private int size;
+
+        private OrderedSelection(int maxObjects, Comparator<? super T> comparator) {
+            this.maxObjects = maxObjects;
+            this.comparator = comparator;
+            this.selected = new Object[Math.min(maxObjects, 16)];
+        }
+
+        @SuppressWarnings("unchecked")
+        private void offer(T object) {
+            if (size == maxObjects) {
+                if (comparator.compare(object, (T) selected[size - 1]) >= 0) {
+                    return;
+                }
+                size--;
+            } else if (size == selected.length) {
+                selected = Arrays.copyOf(selected, (int) Math.min(maxObjects, size * 2L));
+            }
+
+            int index = size;
+            while (index > 0 && comparator.compare(object, (T) selected[index - 1]) < 0) {
+                selected[index] = selected[index - 1];
+                index--;
+            }
+            selected[index] = object;
+            size++;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T first() {
+            return size > 0 ? (T) selected[0] : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void forEach(Consumer<? super T> action) {
+            for (int i = 0; i < size; i++) {
+                action.accept((T) selected[i]);
+            }
+        }
+    }
+
     private class NeighborsTask implements Runnable {
         private final boolean isActivating;
 
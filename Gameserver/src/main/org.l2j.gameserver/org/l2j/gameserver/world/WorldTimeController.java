@@ -19,6 +19,7 @@
 package org.l2j.gameserver.world;
 
 import org.l2j.gameserver.model.actor.Creature;
+import org.l2j.gameserver.model.actor.stat.CreatureStats;
 import org.l2j.gameserver.model.events.EventDispatcher;
 import org.l2j.gameserver.model.events.impl.server.OnDayNightChange;
 import org.l2j.gameserver.model.skills.CommonSkill;
@@ -31,6 +32,7 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.System.currentTimeMillis;
 
@@ -50,7 +52,8 @@ public final class WorldTimeController extends Thread {
     private static final int SECONDS_PER_IN_GAME_DAY = MILLIS_PER_IN_GAME_DAY / 1000;
     private static final int TICKS_PER_IN_GAME_DAY = SECONDS_PER_IN_GAME_DAY * TICKS_PER_SECOND;
 
-    private final Set<Creature> movingObjects = ConcurrentHashMap.newKeySet();
+    private final MovementEngine movementEngine = new MovementEngine(TimeUnit.MILLISECONDS.toNanos(MILLIS_IN_TICK));
+    private final ModifiedStatsBroadcaster statsBroadcaster = new ModifiedStatsBroadcaster();
     private final Set<Creature> shadowSenseCharacters = ConcurrentHashMap.newKeySet();
 
     private final long referenceTime;
@@ -103,7 +106,29 @@ public final class WorldTimeController extends Thread {
             return;
         }
 
-        movingObjects.add(cha);
+        movementEngine.register(cha);
+    }
+
+    /**
+     * Notify the AI of the Creature with EVT_ARRIVED at the end of the current movement tick.
+     *
+     * @param creature the Creature that finished its movement
+     */
+    public final void notifyArrived(Creature creature) {
+        movementEngine.arrived(creature);
+    }
+
+    /**
+     * Schedules the broadcast of the modified stats to the next tick.
+     *
+     * @param stats the stats with modifications to be broadcast
+     */
+    public final void scheduleStatsBroadcast(CreatureStats stats) {
+        statsBroadcaster.schedule(stats);
+    }
+
+    public CharSequence getMovementStats() {
+        return movementEngine.getStats();
     }
 
     /**
@@ -114,11 +139,12 @@ public final class WorldTimeController extends Thread {
      * <ul>
      * <li>Update the position of each Creature</li>
      * <li>If movement is finished, the Creature is removed from movingObjects</li>
-     * <li>Create a task to update the _knownObject and _knowPlayers of each Creature that finished its movement and of their already known WorldObject then notify AI with EVT_ARRIVED</li>
+     * <li>Notify AI with EVT_ARRIVED of each Creature that finished its movement, after all positions are updated</li>
      * </ul>
+     * The creatures are updated in parallel by region when there are many moving creatures.
      */
     private void moveObjects() {
-        movingObjects.removeIf(Creature::updatePosition);
+        movementEngine.tick();
     }
 
     public final void stopTimer() {
@@ -136,6 +162,12 @@ public final class WorldTimeController extends Thread {
         while (!shutdown) {
             nextTickTime = ((currentTimeMillis() / MILLIS_IN_TICK) * MILLIS_IN_TICK) + 100;
 
+            try {
+                statsBroadcaster.tick();
+            } catch (Throwable e) {
+                LOGGER.warn(e.getLocalizedMessage(), e);
+            }
+
             try {
                 moveObjects();
             } catch (Throwable e) {
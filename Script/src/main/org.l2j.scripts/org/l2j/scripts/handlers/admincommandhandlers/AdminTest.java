@@ -19,6 +19,7 @@
 package org.l2j.scripts.handlers.admincommandhandlers;
 
 import org.l2j.commons.threading.ThreadPool;
+import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.engine.skill.api.SkillEngine;
 import org.l2j.gameserver.handler.IAdminCommandHandler;
@@ -26,7 +27,12 @@ import org.l2j.gameserver.model.WorldObject;
 import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.actor.instance.Player;
 import org.l2j.gameserver.network.serverpackets.MagicSkillUse;
+import org.l2j.gameserver.taskmanager.AttackableThinkTaskManager;
+import org.l2j.gameserver.taskmanager.EffectTaskManager;
+import org.l2j.gameserver.taskmanager.ItemUpdateTaskManager;
+import org.l2j.gameserver.taskmanager.SaveTaskManager;
 import org.l2j.gameserver.util.BuilderUtil;
+import org.l2j.gameserver.world.WorldTimeController;
 
 import java.util.NoSuchElementException;
 import java.util.StringTokenizer;
@@ -50,6 +56,13 @@ public class AdminTest implements IAdminCommandHandler
 		if (command.equals("admin_stats"))
 		{
 			activeChar.sendMessage(ThreadPool.getInstance().getStats().toString());
+			activeChar.sendMessage(WorldTimeController.getInstance().getMovementStats().toString());
+			activeChar.sendMessage(AttackableThinkTaskManager.getInstance().getStats().toString());
+			activeChar.sendMessage(GeoEngine.getInstance().getPathFindingStats().toString());
+			activeChar.sendMessage(GeoEngine.getInstance().getSightStats().toString());
+			activeChar.sendMessage(SaveTaskManager.getInstance().getStats().toString());
+			activeChar.sendMessage(ItemUpdateTaskManager.getInstance().getStats().toString());
+			activeChar.sendMessage(EffectTaskManager.getInstance().getStats().toString());
 		}
 		else if (command.startsWith("admin_skill_test"))
 		{
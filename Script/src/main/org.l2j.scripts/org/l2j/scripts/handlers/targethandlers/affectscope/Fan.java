@@ -24,6 +24,8 @@ import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.skills.targets.AffectScope;
 import org.l2j.gameserver.world.World;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -36,12 +38,14 @@ public class Fan extends FanPB {
 	@Override
 	public void forEachAffected(Creature creature, WorldObject target, Skill skill, Consumer<? super WorldObject> action) {
 		var filter = fanFilterOf(creature, skill);
-		World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, skill.getFanRadius(), action::accept, filter);
+		final List<Creature> candidates = new ArrayList<>();
+		World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, skill.getFanRadius(), candidates::add, filter);
 
 		// Add object of origin since its skipped in the forEachVisibleObjectInRange method.
 		if (filter.test(creature)) {
-			action.accept(creature);
+			candidates.add(creature);
 		}
+		forEachSeen(creature, candidates, skill.getAffectLimit(), action);
 	}
 	
 	@Override
@@ -18,7 +18,6 @@
  */
 package org.l2j.scripts.handlers.targethandlers.affectscope;
 
-import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.handler.AffectObjectHandler;
 import org.l2j.gameserver.handler.IAffectObjectHandler;
@@ -28,7 +27,8 @@ import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.skills.targets.AffectScope;
 import org.l2j.gameserver.world.World;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -44,21 +44,24 @@ public class FanPB implements IAffectScopeHandler {
 
     @Override
     public void forEachAffected(Creature creature, WorldObject target, Skill skill, Consumer<? super WorldObject> action) {
-        World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, skill.getFanRadius(), action::accept, fanFilterOf(creature, skill));
+        final List<Creature> candidates = new ArrayList<>();
+        World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, skill.getFanRadius(), candidates::add, fanFilterOf(creature, skill));
+        forEachSeen(creature, candidates, skill.getAffectLimit(), action);
     }
 
+    /**
+     * The line of sight and the affect limit aren't checked by the filter, so the candidates can be checked in a single batch.
+     */
     protected Predicate<Creature> fanFilterOf(Creature activeChar, Skill skill) {
         final IAffectObjectHandler affectObject = AffectObjectHandler.getInstance().getHandler(skill.getAffectObject());
         final double headingAngle = convertHeadingToDegree(activeChar.getHeading());
         final int fanStartAngle = skill.getFanStartAngle();
         final int fanAngle = skill.getFanAngle();
         final double fanHalfAngle = fanAngle / 2.; // Half left and half right.
-        final int affectLimit = skill.getAffectLimit();
-        // Target checks.
-        final AtomicInteger affected = new AtomicInteger(0);
 
+        // Target checks.
         return creature -> {
-            if (creature.isDead() || ((affectLimit > 0) && (affected.get() >= affectLimit))) {
+            if (creature.isDead()) {
                 return false;
             }
 
@@ -66,15 +69,7 @@ public class FanPB implements IAffectScopeHandler {
                 return false;
             }
 
-            if ((affectObject != null) && !affectObject.checkAffectedObject(activeChar, creature)) {
-                return false;
-            }
-            if (!GeoEngine.getInstance().canSeeTarget(activeChar, creature)) {
-                return false;
-            }
-
-            affected.incrementAndGet();
-            return true;
+            return (affectObject == null) || affectObject.checkAffectedObject(activeChar, creature);
         };
     }
 
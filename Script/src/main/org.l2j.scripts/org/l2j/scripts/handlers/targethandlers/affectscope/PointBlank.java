@@ -18,7 +18,6 @@
  */
 package org.l2j.scripts.handlers.targethandlers.affectscope;
 
-import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.handler.AffectObjectHandler;
 import org.l2j.gameserver.handler.IAffectObjectHandler;
@@ -31,7 +30,8 @@ import org.l2j.gameserver.model.skills.targets.AffectScope;
 import org.l2j.gameserver.model.skills.targets.TargetType;
 import org.l2j.gameserver.world.World;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -53,34 +53,21 @@ public class PointBlank implements IAffectScopeHandler
 		final int affectLimit = skill.getAffectLimit();
 		
 		// Target checks.
-		final AtomicInteger affected = new AtomicInteger(0);
 		final Predicate<Creature> filter = c ->
 		{
-			if ((affectLimit > 0) && (affected.get() >= affectLimit))
-			{
-				return false;
-			}
 			if (affectObject != null)
 			{
 				if (c.isDead() && (skill.getAffectObject() != AffectObject.OBJECT_DEAD_NPC_BODY))
 				{
 					return false;
 				}
-				if (!affectObject.checkAffectedObject(creature, c))
-				{
-					return false;
-				}
-			}
-			if (!GeoEngine.getInstance().canSeeTarget(target, c))
-			{
-				return false;
+				return affectObject.checkAffectedObject(creature, c);
 			}
-			
-			affected.incrementAndGet();
 			return true;
 		};
 		
-		// Check and add targets.
+		// Check and add targets, the line of sight is checked for all of them at once.
+		final List<Creature> candidates = new ArrayList<>();
 		if (skill.getTargetType() == TargetType.GROUND)
 		{
 			if (isPlayable(creature))
@@ -88,26 +75,14 @@ public class PointBlank implements IAffectScopeHandler
 				final Location worldPosition = creature.getActingPlayer().getCurrentSkillWorldPosition();
 				if (worldPosition != null)
 				{
-					World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, (int) (affectRange + calculateDistance2D(creature, worldPosition)), c ->
-					{
-						if (!isInsideRadius3D(c, worldPosition, affectRange))
-						{
-							return;
-						}
-						if (filter.test(c))
-						{
-							action.accept(c);
-						}
-					});
+					World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, (int) (affectRange + calculateDistance2D(creature, worldPosition)), candidates::add,
+						c -> isInsideRadius3D(c, worldPosition, affectRange) && filter.test(c));
 				}
 			}
 		} else {
-			World.getInstance().forEachVisibleObjectInRange(target, Creature.class, affectRange, c -> {
-				if (filter.test(c)) {
-					action.accept(c);
-				}
-			});
+			World.getInstance().forEachVisibleObjectInRange(target, Creature.class, affectRange, candidates::add, filter);
 		}
+		forEachSeen(target, candidates, affectLimit, action);
 	}
 	
 	@Override
@@ -19,7 +19,6 @@
  */
 package org.l2j.scripts.handlers.targethandlers.affectscope;
 
-import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.handler.AffectObjectHandler;
 import org.l2j.gameserver.handler.IAffectObjectHandler;
@@ -31,7 +30,8 @@ import org.l2j.gameserver.model.skills.targets.AffectScope;
 import org.l2j.gameserver.model.skills.targets.TargetType;
 import org.l2j.gameserver.world.World;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -55,13 +55,8 @@ public class Range implements IAffectScopeHandler
 		
 		// Target checks.
 		final TargetType targetType = skill.getTargetType();
-		final AtomicInteger affected = new AtomicInteger(0);
 		final Predicate<Creature> filter = c ->
 		{
-			if ((affectLimit > 0) && (affected.get() >= affectLimit))
-			{
-				return false;
-			}
 			if (c.isDead() && (targetType != TargetType.NPC_BODY) && (targetType != TargetType.PC_BODY))
 			{
 				return false;
@@ -70,20 +65,11 @@ public class Range implements IAffectScopeHandler
 			{
 				return false;
 			}
-			if ((c != target) && (affectObject != null) && !affectObject.checkAffectedObject(creature, c))
-			{
-				return false;
-			}
-			if (!GeoEngine.getInstance().canSeeTarget(target, c))
-			{
-				return false;
-			}
-			
-			affected.incrementAndGet();
-			return true;
+			return (c == target) || (affectObject == null) || affectObject.checkAffectedObject(creature, c);
 		};
 		
-		// Check and add targets.
+		// Check and add targets, the line of sight is checked for all of them at once.
+		final List<Creature> candidates = new ArrayList<>();
 		if (targetType == TargetType.GROUND)
 		{
 			if (isPlayable(creature))
@@ -91,17 +77,8 @@ public class Range implements IAffectScopeHandler
 				final Location worldPosition = creature.getActingPlayer().getCurrentSkillWorldPosition();
 				if (worldPosition != null)
 				{
-					World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, (int) (affectRange + calculateDistance2D(creature, worldPosition)), c ->
-					{
-						if (!isInsideRadius3D(c, worldPosition, affectRange))
-						{
-							return;
-						}
-						if (filter.test(c))
-						{
-							action.accept(c);
-						}
-					});
+					World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, (int) (affectRange + calculateDistance2D(creature, worldPosition)), candidates::add,
+						c -> isInsideRadius3D(c, worldPosition, affectRange) && filter.test(c));
 				}
 			}
 		}
@@ -110,17 +87,12 @@ public class Range implements IAffectScopeHandler
 			// Add object of origin since its skipped in the forEachVisibleObjectInRange method.
 			if (isCreature(target) && filter.test((Creature) target))
 			{
-				action.accept(target);
+				candidates.add((Creature) target);
 			}
 			
-			World.getInstance().forEachVisibleObjectInRange(target, Creature.class, affectRange, c ->
-			{
-				if (filter.test(c))
-				{
-					action.accept(c);
-				}
-			});
+			World.getInstance().forEachVisibleObjectInRange(target, Creature.class, affectRange, candidates::add, filter);
 		}
+		forEachSeen(target, candidates, affectLimit, action);
 	}
 	
 	@Override
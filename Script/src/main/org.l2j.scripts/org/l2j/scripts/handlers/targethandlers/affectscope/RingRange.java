@@ -18,7 +18,6 @@
  */
 package org.l2j.scripts.handlers.targethandlers.affectscope;
 
-import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.handler.AffectObjectHandler;
 import org.l2j.gameserver.handler.IAffectObjectHandler;
@@ -28,7 +27,8 @@ import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.skills.targets.AffectScope;
 import org.l2j.gameserver.world.World;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -50,14 +50,8 @@ public class RingRange implements IAffectScopeHandler
 		final int startRange = skill.getFanRadius();
 		
 		// Target checks.
-		final AtomicInteger affected = new AtomicInteger(0);
 		final Predicate<Creature> filter = c ->
 		{
-			if ((affectLimit > 0) && (affected.get() >= affectLimit))
-			{
-				return false;
-			}
-			
 			if (c.isDead())
 			{
 				return false;
@@ -69,28 +63,13 @@ public class RingRange implements IAffectScopeHandler
 				return false;
 			}
 			
-			if ((affectObject != null) && !affectObject.checkAffectedObject(creature, c))
-			{
-				return false;
-			}
-			
-			if (!GeoEngine.getInstance().canSeeTarget(target, c))
-			{
-				return false;
-			}
-			
-			affected.incrementAndGet();
-			return true;
+			return (affectObject == null) || affectObject.checkAffectedObject(creature, c);
 		};
 		
-		// Check and add targets.
-		World.getInstance().forEachVisibleObjectInRange(target, Creature.class, affectRange, c ->
-		{
-			if (filter.test(c))
-			{
-				action.accept(c);
-			}
-		});
+		// Check and add targets, the line of sight is checked for all of them at once.
+		final List<Creature> candidates = new ArrayList<>();
+		World.getInstance().forEachVisibleObjectInRange(target, Creature.class, affectRange, candidates::add, filter);
+		forEachSeen(target, candidates, affectLimit, action);
 	}
 	
 	@Override
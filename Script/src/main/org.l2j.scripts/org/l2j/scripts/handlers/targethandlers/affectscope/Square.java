@@ -24,6 +24,8 @@ import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.skills.targets.AffectScope;
 import org.l2j.gameserver.world.World;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -39,13 +41,14 @@ public class Square extends SquarePB {
 		final int radius = (int) Math.sqrt(((double)squareLength * squareLength) + ((double)squareWidth * squareWidth));
 		var filter = squareFilterOf(creature, skill, squareLength, squareWidth);
 
-		World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, radius, action::accept, filter);
+		final List<Creature> candidates = new ArrayList<>();
+		World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, radius, candidates::add, filter);
 
 		// Add object of origin since its skipped in the forEachVisibleObjectInRange method.
 		if (filter.test(creature)) {
-			action.accept(creature);
+			candidates.add(creature);
 		}
-
+		forEachSeen(creature, candidates, skill.getAffectLimit(), action);
 	}
 	
 	@Override
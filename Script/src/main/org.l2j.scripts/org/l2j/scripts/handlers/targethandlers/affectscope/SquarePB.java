@@ -18,7 +18,6 @@
  */
 package org.l2j.scripts.handlers.targethandlers.affectscope;
 
-import org.l2j.gameserver.engine.geo.GeoEngine;
 import org.l2j.gameserver.engine.skill.api.Skill;
 import org.l2j.gameserver.handler.AffectObjectHandler;
 import org.l2j.gameserver.handler.IAffectObjectHandler;
@@ -28,7 +27,8 @@ import org.l2j.gameserver.model.actor.Creature;
 import org.l2j.gameserver.model.skills.targets.AffectScope;
 import org.l2j.gameserver.world.World;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -47,13 +47,17 @@ public class SquarePB implements IAffectScopeHandler {
 		final int squareWidth = skill.getFanAngle();
 		final int radius = (int) Math.sqrt((double) squareLength * squareLength + (double) squareWidth * squareWidth);
 
-		World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, radius, action::accept, squareFilterOf(creature, skill, squareLength, squareWidth));
+		final List<Creature> candidates = new ArrayList<>();
+		World.getInstance().forEachVisibleObjectInRange(creature, Creature.class, radius, candidates::add, squareFilterOf(creature, skill, squareLength, squareWidth));
+		forEachSeen(creature, candidates, skill.getAffectLimit(), action);
 	}
 
+	/**
+	 * The line of sight and the affect limit aren't checked by the filter, so the candidates can be checked in a single batch.
+	 */
 	protected Predicate<Creature> squareFilterOf(Creature activeChar, Skill skill, int squareLength, int squareWidth) {
 		final IAffectObjectHandler affectObject = AffectObjectHandler.getInstance().getHandler(skill.getAffectObject());
 		final int squareStartAngle = skill.getFanStartAngle();
-		final int affectLimit = skill.getAffectLimit();
 
 		final int rectX = activeChar.getX();
 		final int rectY = activeChar.getY() - (squareWidth / 2);
@@ -61,9 +65,8 @@ public class SquarePB implements IAffectScopeHandler {
 		final double cos = Math.cos(-heading);
 		final double sin = Math.sin(-heading);
 
-		final AtomicInteger affected = new AtomicInteger(0);
 		return creature -> {
-			if (creature.isDead() || ((affectLimit > 0) && (affected.get() >= affectLimit))) {
+			if (creature.isDead()) {
 				return false;
 			}
 
@@ -74,14 +77,7 @@ public class SquarePB implements IAffectScopeHandler {
 			final int yr = (int) (activeChar.getY() + (xp * sin) + (yp * cos));
 
 			if ((xr > rectX) && (xr < (rectX + squareLength)) && (yr > rectY) && (yr < (rectY + squareWidth))) {
-				if ((affectObject != null) && !affectObject.checkAffectedObject(activeChar, creature)) {
-					return false;
-				}
-				if (!GeoEngine.getInstance().canSeeTarget(activeChar, creature)) {
-					return false;
-				}
-				affected.incrementAndGet();
-				return true;
+				return (affectObject == null) || affectObject.checkAffectedObject(activeChar, creature);
 			}
 			return false;
 		};